@@ -5,10 +5,29 @@ plugins {
     id("jacoco")
 }
 
+// benchmark source set (src/jmh/java)
+// src/testFixtures/java : test 와 jmh 가 함께 쓰는 조립 코드 (양쪽에서 각각 컴파일한다)
+sourceSets {
+    test {
+        java.srcDir("src/testFixtures/java")
+    }
+    create("jmh") {
+        java.srcDir("src/testFixtures/java")
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
 configurations {
     compileOnly {
         extendsFrom(configurations.annotationProcessor.get())
     }
+    named("jmhImplementation") {
+        extendsFrom(configurations.implementation.get())
+    }
+    named("jmhRuntimeOnly") {
+        extendsFrom(configurations.runtimeOnly.get())
+    }
 }
 
 allprojects {
@@ -23,19 +42,26 @@ dependencyManagement {
 
 dependencies {
     implementation(libs.spring.boot.starter.web)
+    implementation(libs.spring.boot.starter.actuator)
+    runtimeOnly(libs.micrometer.registry.prometheus)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.spring.boot.configuration.processor)
     testImplementation(libs.spring.boot.starter.test)
+    "jmhImplementation"(libs.jmh.core)
+    "jmhImplementation"(libs.micrometer.registry.prometheus)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
 }
 
 // about source and compilation
 java {
-    sourceCompatibility = JavaVersion.VERSION_17
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
 }
 
 with(extensions.getByType(JacocoPluginExtension::class.java)) {
-    toolVersion = "0.8.7"
+    toolVersion = "0.8.11"
 }
 
 // bundling tasks
@@ -48,5 +74,27 @@ tasks.getByName("jar") {
 // test tasks
 tasks.test {
     ignoreFailures = true
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+// load tests (ex. ./gradlew loadTest -Pload.clients=10000)
+tasks.register<Test>("loadTest") {
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    maxHeapSize = "2g"
+    systemProperty("load.clients", project.findProperty("load.clients")?.toString() ?: "10000")
+    systemProperty("load.duration-seconds", project.findProperty("load.duration-seconds")?.toString() ?: "20")
+}
+// benchmark tasks (ex. ./gradlew jmh -Pjmh.includes=PointHistoryIndexBenchmark -Pjmh.args="-p rows=1000000")
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args(project.findProperty("jmh.includes")?.toString() ?: ".*")
+    project.findProperty("jmh.args")?.toString()?.split(" ")?.let { args(it) }
 }
@@ -0,0 +1,31 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 벤치마크용 UserPointTable
+ * - 무작위 throttle 대신 매 호출마다 고정된 지연을 준다. (lock 을 잡고 있는 시간이 일정해야 경합 효과를 비교할 수 있다)
+ */
+public class DelayedUserPointTable extends UnthrottledUserPointTable {
+
+    private final long delayNanos;
+
+    public DelayedUserPointTable(Duration delay) {
+        this.delayNanos = delay.toNanos();
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        LockSupport.parkNanos(delayNanos);
+        return super.selectById(id);
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        LockSupport.parkNanos(delayNanos);
+        return super.insertOrUpdate(id, amount);
+    }
+}
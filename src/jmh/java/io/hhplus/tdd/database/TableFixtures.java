@@ -0,0 +1,27 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * 벤치마크 데이터 준비용 헬퍼
+ * - Table 의 insert 는 throttle 이 걸려 있어 수백만 건을 넣을 수 없으므로, 내부 저장소에 직접 적재한다.
+ */
+public final class TableFixtures {
+
+    private TableFixtures() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<PointHistory> rowsOf(PointHistoryTable pointHistoryTable) {
+        try {
+            Field field = PointHistoryTable.class.getDeclaredField("table");
+            field.setAccessible(true);
+            return (List<PointHistory>) field.get(pointHistoryTable);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
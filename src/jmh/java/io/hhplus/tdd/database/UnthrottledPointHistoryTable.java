@@ -0,0 +1,29 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 PointHistoryTable
+ * - throttle 없이 바로 저장한다. (id 부여 방식은 원래 테이블과 같다)
+ */
+public class UnthrottledPointHistoryTable extends PointHistoryTable {
+
+    private final List<PointHistory> table = new ArrayList<>();
+    private long cursor = 1;
+
+    @Override
+    public synchronized PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory pointHistory = new PointHistory(cursor++, userId, amount, type, updateMillis);
+        table.add(pointHistory);
+        return pointHistory;
+    }
+
+    @Override
+    public synchronized List<PointHistory> selectAllByUserId(long userId) {
+        return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+    }
+}
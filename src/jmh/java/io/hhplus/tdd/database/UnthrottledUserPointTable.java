@@ -0,0 +1,28 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 벤치마크용 UserPointTable
+ * - throttle 없이 바로 읽고 쓰므로, 테이블 지연이 아닌 서비스 코드 자체의 비용을 측정할 수 있다.
+ * - 여러 스레드에서 서로 다른 사용자를 동시에 쓰므로 ConcurrentHashMap 을 사용한다.
+ */
+public class UnthrottledUserPointTable extends UserPointTable {
+
+    private final Map<Long, UserPoint> table = new ConcurrentHashMap<>();
+
+    @Override
+    public UserPoint selectById(Long id) {
+        return table.getOrDefault(id, UserPoint.empty(id));
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+        table.put(id, userPoint);
+        return userPoint;
+    }
+}
@@ -0,0 +1,70 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UnthrottledUserPointTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잔액 저장소 별 사용자 users 명의 메모리 사용량과, 조회 후 저장(충전 한 번) 비용
+ * - table : 벤치마크용 UserPointTable(ConcurrentHashMap<Long, UserPoint>)
+ * - heap / offheap : PrimitiveBalanceStore 의 슬롯 배열을 힙 / direct buffer 에 둔다.
+ * - 사용자를 모두 채운 뒤 GC 후 힙 사용량과 direct 메모리 사용량을 출력한다.
+ * - 할당량은 gc 프로파일러로 확인한다. (ex. ./gradlew jmh -Pjmh.includes=BalanceStoreBenchmark -Pjmh.args="-prof gc")
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+public class BalanceStoreBenchmark {
+
+    @Param({"table", "heap", "offheap"})
+    private String store;
+
+    @Param({"10000000", "50000000"})
+    private int users;
+
+    private BalanceStore balanceStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long heapBefore = usedHeap();
+        balanceStore = switch (store) {
+            case "table" -> new TableBalanceStore(new UnthrottledUserPointTable());
+            case "heap" -> new PrimitiveBalanceStore(users, false);
+            case "offheap" -> new PrimitiveBalanceStore(users, true);
+            default -> throw new IllegalArgumentException(store);
+        };
+        for (long id = 0; id < users; id++) {
+            balanceStore.insertOrUpdate(id, 1_000L);
+        }
+        System.out.printf("%nstore=%s, users=%d, heap=%dMB, direct=%dMB%n",
+                store, users, (usedHeap() - heapBefore) >> 20, usedDirect() >> 20);
+    }
+
+    @Benchmark
+    public UserPoint charge() {
+        long id = ThreadLocalRandom.current().nextInt(users);
+        UserPoint userPoint = balanceStore.selectById(id);
+        return balanceStore.insertOrUpdate(id, userPoint.point() + 100L);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
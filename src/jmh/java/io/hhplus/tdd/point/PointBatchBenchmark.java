@@ -0,0 +1,103 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UnthrottledPointHistoryTable;
+import io.hhplus.tdd.database.UnthrottledUserPointTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100,000 명에게 1,000,000 건의 충전/사용을 적용하는 정산 작업
+ * - single : 요청마다 PointService.charge/use 를 호출 (parallelism 개의 스레드에서 PATCH 를 보내는 것과 같은 처리)
+ * - batch : PointService.batch 한 번으로 처리
+ * - 테이블 throttle 을 빼고 측정하므로 차이는 lock 획득과 잔액 조회/저장 횟수에서만 나온다.
+ *   (throttle 이 있으면 사용자 당 조회/저장이 요청 수만큼에서 한 번으로 줄어드는 효과가 훨씬 커진다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class PointBatchBenchmark {
+
+    @Param({"single", "batch"})
+    private String mode;
+
+    @Param("1000000")
+    private int operations;
+
+    @Param("100000")
+    private int users;
+
+    @Param("16")
+    private int parallelism;
+
+    private List<PointCommand> commands;
+
+    private PointServiceFixture fixture;
+    private PointService pointService;
+    private ExecutorService clients;
+
+    @Setup(Level.Trial)
+    public void generateCommands() {
+        Random random = new Random(42);
+        commands = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            long userId = random.nextInt(users);
+            long amount = 1 + random.nextInt(100);
+            // 충전 80%, 사용 20% (잔액 부족으로 실패하는 사용도 섞인다)
+            commands.add(random.nextInt(5) == 0 ? PointCommand.use(userId, amount) : PointCommand.charge(userId, amount));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        fixture = PointServiceFixture.builder()
+                .userPointTable(new UnthrottledUserPointTable())
+                .cache(true, users)
+                .pointHistoryTable(new UnthrottledPointHistoryTable())
+                .writeBehind(new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ofSeconds(10)))
+                .batch(parallelism, operations)
+                .build();
+        pointService = fixture.pointService();
+        clients = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        clients.shutdown();
+        fixture.shutdown();
+    }
+
+    @Benchmark
+    public Object settle() throws Exception {
+        if (mode.equals("batch")) {
+            return pointService.batch(commands);
+        }
+
+        List<Future<?>> futures = new ArrayList<>(operations);
+        for (PointCommand command : commands) {
+            futures.add(clients.submit(() -> {
+                try {
+                    return command.type() == TransactionType.CHARGE
+                            ? pointService.charge(command.userId(), command.amount())
+                            : pointService.use(command.userId(), command.amount());
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures;
+    }
+}
@@ -0,0 +1,139 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.TddApplication;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드 수(1, 2, 4)에 따른 충전 처리량 합계
+ * - 노드마다 별도 프로세스로 애플리케이션을 띄우고(point.cluster.enabled=true), 64 스레드가 무작위 노드로 무작위 사용자의 충전을 요청한다.
+ *   (load balancer 처럼 사용자와 관계없이 노드를 고르므로 노드가 N 개면 요청의 약 (N-1)/N 은 소유 노드로 한 번 더 전달된다)
+ * - 노드는 UserPointTable 의 throttle 을 그대로 쓰므로, 한 노드가 처리할 수 있는 양이 노드 수만큼 늘어나는지를 본다.
+ * - 모든 노드가 같은 장비에서 실행되므로 CPU 가 부족하면 노드를 늘려도 처리량이 늘지 않는다. (코어 수를 확인하고 실행한다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+public class PointClusterBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(1);
+
+    @Param({"1", "2", "4"})
+    private int nodes;
+
+    @Param("100000")
+    private int users;
+
+    private final List<Process> processes = new ArrayList<>();
+    private final List<Path> workDirs = new ArrayList<>();
+    private List<String> addresses;
+    private HttpClient httpClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<ServerSocket> sockets = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            sockets.add(new ServerSocket(0));
+        }
+        List<Integer> ports = new ArrayList<>();
+        for (ServerSocket socket : sockets) {
+            ports.add(socket.getLocalPort());
+            socket.close();
+        }
+        addresses = ports.stream().map(port -> "http://localhost:" + port).toList();
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < nodes; i++) {
+            // 노드마다 작업 디렉터리를 따로 두어 data/ 아래 파일이 섞이지 않게 한다.
+            Path workDir = Files.createTempDirectory("point-node-" + i);
+            workDirs.add(workDir);
+            processes.add(new ProcessBuilder(
+                    java, "-Xmx1g", "-cp", System.getProperty("java.class.path"), TddApplication.class.getName(),
+                    "--server.port=" + ports.get(i),
+                    "--point.journal.enabled=false",
+                    "--point.snapshot.enabled=false",
+                    "--point.history.retention.enabled=false",
+                    "--point.lock.timeout=0",
+                    "--point.lock.max-waiters=0",
+                    "--point.cluster.enabled=true",
+                    "--point.cluster.self=" + addresses.get(i),
+                    "--point.cluster.nodes=" + String.join(",", addresses))
+                    .directory(workDir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(workDir.resolve("node.log").toFile())
+                    .start());
+        }
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (String address : addresses) {
+            awaitStarted(address);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        httpClient.close();
+        processes.forEach(Process::destroy);
+        for (Process process : processes) {
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+        for (Path workDir : workDirs) {
+            deleteQuietly(workDir.toFile());
+        }
+    }
+
+    @Benchmark
+    public int charge() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String address = addresses.get(random.nextInt(nodes));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(address + "/point/" + random.nextLong(users) + "/charge"))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("100"))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void awaitStarted(String address) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(address + "/actuator/health")).build();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // 아직 기동 중
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("point node did not start: " + address);
+    }
+
+    private static void deleteQuietly(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteQuietly(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,82 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.DelayedUserPointTable;
+import io.hhplus.tdd.database.UnthrottledPointHistoryTable;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 사용자에게 충전이 계속 들어오는 동안의 잔액 조회 처리량
+ * - read : hotUsers 명 중 무작위 사용자의 잔액 조회 (12 스레드)
+ * - write : 같은 사용자들에게 충전 (4 스레드)
+ * - 잔액 조회/저장은 tableDelayMicros 만큼 걸린다.
+ * committedSnapshot=false 는 조회마다 캐시 또는 테이블을 읽고, true 는 마지막으로 공개된 결과를 읽는다.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PointCommittedReadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean committedSnapshot;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    @Param("4")
+    private int hotUsers;
+
+    @Param("20")
+    private int tableDelayMicros;
+
+    private PointServiceFixture fixture;
+    private PointService pointService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = PointServiceFixture.builder()
+                .userPointTable(new DelayedUserPointTable(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(tableDelayMicros))))
+                .cache(cacheEnabled, 1_000)
+                .committedSnapshot(committedSnapshot)
+                .pointHistoryTable(new UnthrottledPointHistoryTable())
+                .writeBehind(new HistoryWriteBehindProperties(true, 100_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO))
+                .historyStoreType(HistoryStoreProperties.Type.COMPACT)
+                .meterRegistry(new CompositeMeterRegistry())
+                .build();
+        pointService = fixture.pointService();
+
+        for (long id = 0; id < hotUsers; id++) {
+            pointService.charge(id, 1L);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.shutdown();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(12)
+    public UserPoint read() {
+        return pointService.getUserPoint(nextUser());
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(4)
+    public UserPoint write() {
+        return pointService.charge(nextUser(), 1L);
+    }
+
+    private long nextUser() {
+        return ThreadLocalRandom.current().nextLong(hotUsers);
+    }
+}
@@ -0,0 +1,63 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.TableFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 사용자 별 내역 조회 : PointHistoryTable 전체 스캔 vs 사용자 별 인덱스
+ * - 테이블 크기(rows) 별로 측정하며, 사용자 한 명 당 내역은 historiesPerUser 건
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PointHistoryIndexBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    private int rows;
+
+    @Param("10")
+    private int historiesPerUser;
+
+    private int users;
+
+    private PointHistoryTable pointHistoryTable;
+    private PointHistoryIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        users = rows / historiesPerUser;
+        pointHistoryTable = new PointHistoryTable();
+        index = new PointHistoryIndex(HistoryStoreProperties.Type.LIST);
+
+        List<PointHistory> tableRows = TableFixtures.rowsOf(pointHistoryTable);
+        long now = System.currentTimeMillis();
+        for (long id = 1; id <= rows; id++) {
+            TransactionType type = id % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE;
+            PointHistory pointHistory = new PointHistory(id, id % users, 100L, type, now);
+            tableRows.add(pointHistory);
+            index.append(pointHistory);
+        }
+    }
+
+    @Benchmark
+    public List<PointHistory> tableScan() {
+        return pointHistoryTable.selectAllByUserId(randomUser());
+    }
+
+    @Benchmark
+    public List<PointHistory> userIndex() {
+        return index.selectAllByUserId(randomUser());
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(users);
+    }
+}
@@ -0,0 +1,42 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /point/{id}/histories 응답 직렬화 비용 (Jackson, List<PointHistory>)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PointHistorySerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<PointHistory> histories;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        histories = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            TransactionType type = id % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE;
+            histories.add(new PointHistory(id, 1L, 100L, type, now + id));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(histories);
+    }
+}
@@ -0,0 +1,73 @@
+package io.hhplus.tdd.point;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내역 인덱스 저장 방식(LIST / COMPACT) 별 내역 하나 당 메모리와 사용자 내역 조회 비용
+ * - entries 건을 users 명에게 나눠 채운 뒤 GC 후 힙 사용량을 내역 수로 나눠 출력한다.
+ * - scan : 임의 사용자의 전체 내역을 조회해 금액을 합산 (entries / users 건을 모두 읽는다)
+ * - filteredPage : 임의 사용자의 USE 내역 20 건 페이지 조회 (조건에 맞지 않는 내역은 만들지 않는다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+public class PointHistoryStoreBenchmark {
+
+    @Param({"LIST", "COMPACT"})
+    private HistoryStoreProperties.Type type;
+
+    @Param("100000000")
+    private int entries;
+
+    @Param("1000000")
+    private int users;
+
+    private PointHistoryIndex index;
+    private PointHistoryQuery useQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long heapBefore = usedHeap();
+        index = new PointHistoryIndex(type);
+        long now = System.currentTimeMillis();
+        for (long id = 1; id <= entries; id++) {
+            TransactionType transactionType = id % 4 == 0 ? TransactionType.USE : TransactionType.CHARGE;
+            index.append(new PointHistory(id, id % users, 100L + id % 1_000, transactionType, now + id / 100));
+        }
+        long bytes = usedHeap() - heapBefore;
+        System.out.printf("%ntype=%s, entries=%d, users=%d, heap=%dMB, bytes/entry=%.1f%n",
+                type, entries, users, bytes >> 20, (double) bytes / entries);
+        useQuery = new PointHistoryQuery(0L, 20, null, null, TransactionType.USE);
+    }
+
+    @Benchmark
+    public long scan() {
+        long sum = 0;
+        for (PointHistory pointHistory : index.selectAllByUserId(randomUser())) {
+            sum += pointHistory.amount();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<PointHistory> filteredPage() {
+        return index.selectPage(randomUser(), useQuery);
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(users);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.DelayedUserPointTable;
+import io.hhplus.tdd.database.UnthrottledPointHistoryTable;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청이 일부 사용자에게 몰리는 부하에서 처리 방식 별 처리량
+ * - hot : 상위 1% 사용자(hotUsers 명)에게 zipfian 분포로 충전 (32 스레드)
+ * - cold : 나머지 사용자에게 균등 분포로 충전 (32 스레드)
+ * - 잔액 조회/저장은 tableDelay 만큼 걸린다. (lock 을 잡고 있는 시간)
+ * 같은 group 안의 hot/cold 처리량이 따로 출력되므로, 처리 방식이 hot user 와 나머지 사용자에게 주는 영향을 함께 볼 수 있다.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class PointHotUserBenchmark {
+
+    @Param({"LOCK", "COMBINING", "ADAPTIVE"})
+    private PointWriteProperties.Mode writeMode;
+
+    @Param("100000")
+    private int users;
+
+    @Param("1000")
+    private int hotUsers;
+
+    @Param("1")
+    private int tableDelayMillis;
+
+    private PointServiceFixture fixture;
+    private PointService pointService;
+    private ZipfGenerator hotUserZipf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = PointServiceFixture.builder()
+                .userPointTable(new DelayedUserPointTable(Duration.ofMillis(tableDelayMillis)))
+                .pointHistoryTable(new UnthrottledPointHistoryTable())
+                .writeBehind(new HistoryWriteBehindProperties(true, 100_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO))
+                .meterRegistry(new CompositeMeterRegistry())
+                .writeMode(writeMode)
+                .build();
+        pointService = fixture.pointService();
+        hotUserZipf = new ZipfGenerator(hotUsers, 1.1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHotUsers() {
+        System.out.printf("%n[%s] hot users detected: %d%n", writeMode, fixture.hotUserTracker().hotUsers().size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.shutdown();
+    }
+
+    @Benchmark
+    @Group("skewed")
+    @GroupThreads(32)
+    public UserPoint hot() {
+        return pointService.charge(hotUserZipf.next(), 100L);
+    }
+
+    @Benchmark
+    @Group("skewed")
+    @GroupThreads(32)
+    public UserPoint cold() {
+        return pointService.charge(hotUsers + ThreadLocalRandom.current().nextLong(users - hotUsers), 100L);
+    }
+}
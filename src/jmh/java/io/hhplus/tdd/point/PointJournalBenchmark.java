@@ -0,0 +1,54 @@
+package io.hhplus.tdd.point;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 저널 쓰기 처리량 : fsync 정책 별
+ * - 요청 한 건과 같이 내역 한 건을 기록하고, 디스크에 반영될 때까지 기다린다.
+ * - GROUP 은 groupCommitInterval 동안 쌓인 기록을 한 번에 반영하므로, 동시에 기다리는 요청이 많을수록 fsync 한 번이 여러 요청에 나뉜다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+public class PointJournalBenchmark {
+
+    @Param({"ALWAYS", "GROUP", "NONE"})
+    private PointJournalProperties.FsyncPolicy fsync;
+
+    private Path directory;
+    private PointJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("point-journal-benchmark");
+        journal = new PointJournal(new PointJournalProperties(true, directory, fsync, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5)));
+        journal.open();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long append() {
+        long userId = ThreadLocalRandom.current().nextLong(100_000);
+        long sequence = journal.append(PointHistory.createChargeHistory(userId, 100L, System.currentTimeMillis()));
+        journal.awaitDurable(sequence);
+        return sequence;
+    }
+}
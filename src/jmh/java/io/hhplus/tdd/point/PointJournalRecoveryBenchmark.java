@@ -0,0 +1,91 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UnthrottledPointHistoryTable;
+import io.hhplus.tdd.database.UnthrottledUserPointTable;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 저널 복구 시간 : records 건의 내역이 기록된 저널을 열고 처음부터 다시 읽는 시간
+ * - replay : 세그먼트를 읽어 레코드를 검증하고, 사용자 별 잔액만 다시 계산한다. (파일 읽기 + 디코딩 비용)
+ * - recover : 기동 시와 같이 내역을 인덱스에 채우고 잔액을 복구한다. (스냅샷 없이, records 건의 내역을 모두 메모리에 올리므로 힙이 크게 필요하다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class PointJournalRecoveryBenchmark {
+
+    @Param("50000000")
+    private int records;
+
+    @Param("1000000")
+    private int users;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("point-journal-recovery-benchmark");
+        PointJournal journal = journal(PointJournalProperties.FsyncPolicy.NONE);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < records; i++) {
+            long userId = i % users;
+            journal.append(i % 4 == 3
+                    ? PointHistory.createUseHistory(userId, 100L, now)
+                    : PointHistory.createChargeHistory(userId, 100L, now));
+        }
+        journal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Map<Long, Long> replay() {
+        PointJournal journal = journal(PointJournalProperties.FsyncPolicy.GROUP);
+        Map<Long, Long> balances = new HashMap<>(users * 2);
+        journal.replay(pointHistory -> balances.merge(
+                pointHistory.userId(),
+                pointHistory.type() == TransactionType.CHARGE ? pointHistory.amount() : -pointHistory.amount(),
+                Long::sum));
+        journal.close();
+        return balances;
+    }
+
+    @Benchmark
+    public PointRepository recover() {
+        PointJournal journal = journal(PointJournalProperties.FsyncPolicy.GROUP);
+        PointRepository pointRepository = new PointRepository(new UnthrottledUserPointTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100_000), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                new UnthrottledPointHistoryTable(),
+                new HistoryWriteBehindProperties(false, 0, 0, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO),
+                journal,
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        PointSnapshotter snapshotter = new PointSnapshotter(new PointSnapshotProperties(false, directory.resolve("snapshot"), Duration.ofMinutes(1), 2), journal, new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1))));
+        new PointJournalRecovery(journal, snapshotter, pointRepository, pointHistoryRepository).recover();
+        journal.close();
+        return pointRepository;
+    }
+
+    private PointJournal journal(PointJournalProperties.FsyncPolicy fsync) {
+        PointJournal journal = new PointJournal(new PointJournalProperties(true, directory, fsync, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5)));
+        journal.open();
+        return journal;
+    }
+}
@@ -0,0 +1,57 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 충전/사용 한 건 당 PointMetrics 기록 비용
+ * - 요청 한 건에서 기록하는 것과 같은 lock 대기/보유 시간 2 건 + 저장소 호출 시간 3 건 + nanoTime 호출을 측정한다.
+ * - metrics=none (no-op registry) 과의 차이가 요청 한 건 당 추가되는 비용이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PointMetricsBenchmark {
+
+    @Param({"none", "prometheus"})
+    private String metrics;
+
+    private PointMetrics pointMetrics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MeterRegistry registry = metrics.equals("prometheus") ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT) : new CompositeMeterRegistry();
+        ServiceLockFactory lockFactory = new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.PER_KEY, 0, false, Duration.ZERO, 0));
+        pointMetrics = new PointMetrics(registry, lockFactory, new PointMetricsProperties(10, Duration.ofSeconds(10)));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record_1() {
+        recordCharge();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void record_8() {
+        recordCharge();
+    }
+
+    private void recordCharge() {
+        long startedAt = System.nanoTime();
+        pointMetrics.recordLockWait(TransactionType.CHARGE, System.nanoTime() - startedAt);
+        pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_SELECT, System.nanoTime() - startedAt);
+        pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_INSERT_OR_UPDATE, System.nanoTime() - startedAt);
+        pointMetrics.recordTableCall(PointMetrics.TableCall.POINT_HISTORY_INSERT, System.nanoTime() - startedAt);
+        pointMetrics.recordLockHold(TransactionType.CHARGE, System.nanoTime() - startedAt);
+    }
+}
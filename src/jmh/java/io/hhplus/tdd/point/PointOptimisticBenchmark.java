@@ -0,0 +1,78 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UnthrottledPointHistoryTable;
+import io.hhplus.tdd.database.UnthrottledUserPointTable;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LOCK 과 OPTIMISTIC 방식의 충전/사용 처리량과 지연 분포 (16 스레드)
+ * - contention=low : users 명 중 무작위 사용자에게 요청
+ * - contention=high : 4 명의 사용자에게 요청 (compare-and-set 충돌과 lock 대기가 잦다)
+ * - Throughput 과 SampleTime(p50/p99/p99.9) 을 함께 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+public class PointOptimisticBenchmark {
+
+    private static final int HOT_USERS = 4;
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 2;
+
+    @Param({"LOCK", "OPTIMISTIC"})
+    private PointWriteProperties.Mode writeMode;
+
+    @Param({"low", "high"})
+    private String contention;
+
+    @Param("100000")
+    private int users;
+
+    private PointServiceFixture fixture;
+    private PointService pointService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = PointServiceFixture.builder()
+                .userPointTable(new UnthrottledUserPointTable())
+                .cache(true, users)
+                .pointHistoryTable(new UnthrottledPointHistoryTable())
+                .writeBehind(new HistoryWriteBehindProperties(true, 100_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO))
+                .historyStoreType(HistoryStoreProperties.Type.COMPACT)
+                .meterRegistry(new CompositeMeterRegistry())
+                .writeMode(writeMode)
+                .build();
+        pointService = fixture.pointService();
+
+        for (long id = 0; id < users; id++) {
+            fixture.pointRepository().insertOrUpdate(new UserPoint(id, INITIAL_BALANCE, System.currentTimeMillis()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.shutdown();
+    }
+
+    @Benchmark
+    public UserPoint charge() {
+        return pointService.charge(nextUser(), 100L);
+    }
+
+    @Benchmark
+    public UserPoint use() {
+        return pointService.use(nextUser(), 1L);
+    }
+
+    private long nextUser() {
+        return ThreadLocalRandom.current().nextLong(contention.equals("high") ? HOT_USERS : users);
+    }
+}
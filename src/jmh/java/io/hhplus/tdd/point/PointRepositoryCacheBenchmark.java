@@ -0,0 +1,53 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * zipfian hot-user 조회 부하에서 캐시 적용 전/후의 PointRepository.selectById 응답시간
+ * - 캐시 미스는 UserPointTable 의 0~200ms throttle 을 그대로 탄다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class PointRepositoryCacheBenchmark {
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    @Param("100000")
+    private int users;
+
+    @Param("10000")
+    private int cacheSize;
+
+    @Param("1.1")
+    private double zipfExponent;
+
+    private PointRepository pointRepository;
+    private ZipfGenerator zipf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pointRepository = new PointRepository(new UserPointTable(), new PointCacheProperties(cacheEnabled, cacheSize), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100_000), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        zipf = new ZipfGenerator(users, zipfExponent);
+    }
+
+    @TearDown(Level.Trial)
+    public void printStats() {
+        pointRepository.cacheStats().ifPresent(stats -> System.out.println("\n" + stats));
+    }
+
+    @Benchmark
+    public Optional<UserPoint> selectById() {
+        return pointRepository.selectById(zipf.next());
+    }
+}
@@ -0,0 +1,123 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UnthrottledPointHistoryTable;
+import io.hhplus.tdd.database.UnthrottledUserPointTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PointService.charge/use 처리량 (1, 8, 64 스레드)
+ * - distribution=hot : 모든 스레드가 한 사용자에게 요청 (사용자 lock 경합)
+ * - distribution=uniform : users 명 중 무작위 사용자에게 요청
+ * - throttled=false 이면 throttle 없는 테이블을 사용해서 서비스 코드 자체의 비용만 측정한다.
+ * - metrics=none 은 아무것도 기록하지 않는 registry, prometheus 는 운영과 같은 registry 로 PointMetrics 의 비용을 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PointServiceBenchmark {
+
+    // use 가 잔액 부족으로 실패하지 않도록 충분히 큰 잔액으로 시작한다.
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 2;
+
+    @Param({"hot", "uniform"})
+    private String distribution;
+
+    @Param("100000")
+    private int users;
+
+    @Param("LOCK")
+    private PointWriteProperties.Mode writeMode;
+
+    @Param("false")
+    private boolean throttled;
+
+    @Param({"none", "prometheus"})
+    private String metrics;
+
+    private PointServiceFixture fixture;
+    private PointService pointService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserPointTable userPointTable = throttled ? new UserPointTable() : new UnthrottledUserPointTable();
+        PointHistoryTable pointHistoryTable = throttled ? new PointHistoryTable() : new UnthrottledPointHistoryTable();
+
+        fixture = PointServiceFixture.builder()
+                .userPointTable(userPointTable)
+                .cache(true, users)
+                .pointHistoryTable(pointHistoryTable)
+                .writeBehind(new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO))
+                .meterRegistry(meterRegistry())
+                .writeMode(writeMode)
+                .build();
+        pointService = fixture.pointService();
+
+        long userCount = distribution.equals("hot") ? 1 : users;
+        for (long id = 0; id < userCount; id++) {
+            fixture.pointRepository().insertOrUpdate(new UserPoint(id, INITIAL_BALANCE, System.currentTimeMillis()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UserPoint charge_1() {
+        return pointService.charge(nextUser(), 100L);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UserPoint charge_8() {
+        return pointService.charge(nextUser(), 100L);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public UserPoint charge_64() {
+        return pointService.charge(nextUser(), 100L);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UserPoint use_1() {
+        return pointService.use(nextUser(), 1L);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UserPoint use_8() {
+        return pointService.use(nextUser(), 1L);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public UserPoint use_64() {
+        return pointService.use(nextUser(), 1L);
+    }
+
+    private MeterRegistry meterRegistry() {
+        // 하위 registry 가 없는 CompositeMeterRegistry 는 no-op meter 만 만든다.
+        return metrics.equals("prometheus") ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT) : new CompositeMeterRegistry();
+    }
+
+    private long nextUser() {
+        return distribution.equals("hot") ? 0L : ThreadLocalRandom.current().nextLong(users);
+    }
+}
@@ -0,0 +1,68 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UnthrottledPointHistoryTable;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LOCK 과 SHARDED 방식의 충전 처리량을 코어 수에 따라 비교한다. (32 스레드, users 명 중 무작위 사용자)
+ * - cores : SHARDED 의 shard 수. 코어 수 별 확장성을 보려면 JVM 이 쓰는 CPU 도 같은 수로 제한해서 실행한다.
+ *   예) taskset -c 0-7 ... -p cores=8 (LOCK 은 shard 를 쓰지 않으므로 cores 값과 상관없이 같은 설정이다)
+ * - 두 방식 모두 잔액은 PRIMITIVE 저장소에 둔다. (SHARDED 는 shard 마다 따로 둔다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+public class PointShardScalingBenchmark {
+
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 2;
+
+    @Param({"LOCK", "SHARDED"})
+    private PointWriteProperties.Mode writeMode;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int cores;
+
+    @Param("100000")
+    private int users;
+
+    private PointServiceFixture fixture;
+    private PointService pointService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = PointServiceFixture.builder()
+                .storeType(PointStoreProperties.Type.PRIMITIVE)
+                .cache(true, users)
+                .pointHistoryTable(new UnthrottledPointHistoryTable())
+                .writeBehind(new HistoryWriteBehindProperties(true, 100_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO))
+                .historyStoreType(HistoryStoreProperties.Type.COMPACT)
+                .meterRegistry(new CompositeMeterRegistry())
+                .writeMode(writeMode)
+                .shards(cores, 256)
+                .build();
+        pointService = fixture.pointService();
+
+        for (long id = 0; id < users; id++) {
+            fixture.pointRepository().insertOrUpdate(new UserPoint(id, INITIAL_BALANCE, System.currentTimeMillis()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.shutdown();
+    }
+
+    @Benchmark
+    public UserPoint charge() {
+        return pointService.charge(ThreadLocalRandom.current().nextLong(users), 100L);
+    }
+}
@@ -0,0 +1,58 @@
+package io.hhplus.tdd.point;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * lock 전략 별 getLock + lock/unlock 처리량과 유지되는 heap 비교
+ * - keySpace=1 은 한 사용자에 대한 경합, 큰 keySpace 는 서로 다른 사용자가 대부분인 경우
+ * - 각 iteration 이 끝나면 GC 후 사용 중인 heap 과 lock 개수를 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ServiceLockFactoryBenchmark {
+
+    @Param({"PER_KEY", "STRIPED", "REF_COUNTED"})
+    private ServiceLockProperties.Strategy strategy;
+
+    @Param({"1", "10000000"})
+    private long keySpace;
+
+    @Param("1024")
+    private int stripes;
+
+    private ServiceLockFactory lockFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lockFactory = new ServiceLockFactory(new ServiceLockProperties(strategy, stripes, false, Duration.ZERO, 0));
+    }
+
+    @TearDown(Level.Iteration)
+    public void printRetainedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long usedMegaBytes = (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024;
+        System.out.printf("%n[%s] locks=%d, used heap=%dMB%n", strategy, lockFactory.size(), usedMegaBytes);
+    }
+
+    @Benchmark
+    public void lockAndUnlock() {
+        Lock lock = lockFactory.getLock(ThreadLocalRandom.current().nextLong(keySpace));
+        lock.lock();
+        try {
+            // 임계영역은 비워서 lock 획득/반납 비용만 측정
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.hhplus.tdd.point;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserPoint.charge/use 의 호출 비용과 할당량
+ * - 할당량은 gc 프로파일러로 확인한다. (ex. ./gradlew jmh -Pjmh.includes=UserPointBenchmark -Pjmh.args="-prof gc")
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserPointBenchmark {
+
+    private UserPoint userPoint;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        userPoint = new UserPoint(1L, 1_000_000L, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public UserPoint charge() {
+        return userPoint.charge(100L);
+    }
+
+    @Benchmark
+    public UserPoint use() {
+        return userPoint.use(100L);
+    }
+}
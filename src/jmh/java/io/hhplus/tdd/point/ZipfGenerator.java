@@ -0,0 +1,38 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 소수의 사용자에게 요청이 몰리는 zipfian 분포의 사용자 id 생성기 (id 0 이 가장 자주 나온다)
+ */
+public class ZipfGenerator {
+
+    private final double[] cumulative;
+
+    public ZipfGenerator(int size, double exponent) {
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public long next() {
+        double random = ThreadLocalRandom.current().nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < random) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,5 +1,9 @@
 package io.hhplus.tdd;
 
+import io.hhplus.tdd.exception.ErrorCode;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -7,6 +11,23 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 @RestControllerAdvice
 class ApiControllerAdvice extends ResponseEntityExceptionHandler {
+
+    // POINT_BUSY 응답에 붙이는 재시도 대기 시간 (초)
+    private static final String BUSY_RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * 포인트 예외는 에러 코드의 상태와 메시지로 응답한다. (POINT_BUSY 는 Retry-After 를 함께 보낸다)
+     */
+    @ExceptionHandler(value = PointException.class)
+    public ResponseEntity<ErrorResponse> handlePointException(PointException e) {
+        ErrorCode errorCode = e.getErrorCode();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(errorCode.getStatus());
+        if (errorCode == PointErrorCode.POINT_BUSY) {
+            response.header(HttpHeaders.RETRY_AFTER, BUSY_RETRY_AFTER_SECONDS);
+        }
+        return response.body(new ErrorResponse(errorCode.getCode(), errorCode.getMessage()));
+    }
+
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
         return ResponseEntity.status(500).body(new ErrorResponse("500", "에러가 발생했습니다."));
@@ -12,7 +12,24 @@ public enum PointErrorCode implements ErrorCode {
     CHARGE_AMOUNT_LESS_THAN_ZERO(HttpStatus.BAD_REQUEST, "충전금액은 0보다 작을 수 없습니다."),
     CHARGE_AMOUNT_GREATER_THAN_MAX(HttpStatus.BAD_REQUEST, "충전금액이 최댓값보다 클 수 없습니다."),
     USE_AMOUNT_LESS_THAN_ZERO(HttpStatus.BAD_REQUEST, "사용금액은 0보다 작을 수 없습니다."),
-    BALANCE_LESS_THAN_USE_AMOUNT(HttpStatus.BAD_REQUEST, "잔액이 사용금액보다 작습니다.");
+    BALANCE_LESS_THAN_USE_AMOUNT(HttpStatus.BAD_REQUEST, "잔액이 사용금액보다 작습니다."),
+    HISTORY_LIMIT_OUT_OF_RANGE(HttpStatus.BAD_REQUEST, "내역 조회 개수는 1 이상 1000 이하여야 합니다."),
+    INVALID_HISTORY_CURSOR(HttpStatus.BAD_REQUEST, "올바르지 않은 내역 조회 커서입니다."),
+    HISTORY_QUEUE_FULL(HttpStatus.SERVICE_UNAVAILABLE, "포인트 내역 저장 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요."),
+    TRANSACTION_TYPE_REQUIRED(HttpStatus.BAD_REQUEST, "충전/사용 구분은 필수입니다."),
+    BATCH_SIZE_EXCEEDED(HttpStatus.BAD_REQUEST, "일괄 처리 요청 건수가 최댓값보다 클 수 없습니다."),
+    JOURNAL_WRITE_FAILED(HttpStatus.INTERNAL_SERVER_ERROR, "포인트 기록을 저장하지 못했습니다."),
+    HISTORY_ARCHIVE_READ_FAILED(HttpStatus.INTERNAL_SERVER_ERROR, "보관된 포인트 내역을 읽지 못했습니다."),
+    INVALID_IDEMPOTENCY_KEY(HttpStatus.BAD_REQUEST, "Idempotency-Key 의 길이가 올바르지 않습니다."),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "같은 Idempotency-Key 로 다른 충전/사용 요청을 보낼 수 없습니다."),
+    IDEMPOTENCY_BATCH_TOO_LARGE(HttpStatus.BAD_REQUEST, "Idempotency-Key 를 붙인 일괄 처리 요청 건수가 최댓값보다 클 수 없습니다."),
+    POINT_BUSY(HttpStatus.TOO_MANY_REQUESTS, "같은 사용자의 요청이 몰려 처리하지 못했습니다. 잠시 후 다시 시도해주세요."),
+    POINT_NODE_UNAVAILABLE(HttpStatus.BAD_GATEWAY, "사용자를 담당하는 노드에 요청을 전달하지 못했습니다."),
+    POINT_NODE_OUTCOME_UNKNOWN(HttpStatus.GATEWAY_TIMEOUT, "사용자를 담당하는 노드에 요청을 보냈지만 처리 결과를 받지 못했습니다. 같은 Idempotency-Key 로 다시 요청해주세요."),
+    READ_ONLY_REPLICA(HttpStatus.FORBIDDEN, "복제 노드에서는 충전/사용할 수 없습니다. 원본 노드로 요청해주세요."),
+    REPLICA_FAILED(HttpStatus.SERVICE_UNAVAILABLE, "복제가 멈춘 노드입니다. 원본 노드로 요청해주세요."),
+    REPLICA_LAGGING(HttpStatus.SERVICE_UNAVAILABLE, "복제가 원본보다 많이 뒤처진 노드입니다. 다른 노드로 요청해주세요."),
+    NOT_REPLICATION_PRIMARY(HttpStatus.NOT_FOUND, "복제 원본 노드가 아닙니다.");
 
     private final HttpStatus status;
     private final String message;
@@ -0,0 +1,14 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 보관 파일로 옮겨진 사용자 내역의 요약
+ * - count : 내역 수
+ * - totalCharged : 충전 금액 합계
+ * - totalUsed : 사용 금액 합계
+ */
+public record ArchivedHistorySummary(
+        long count,
+        long totalCharged,
+        long totalUsed
+) {
+}
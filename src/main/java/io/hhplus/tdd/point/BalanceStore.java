@@ -0,0 +1,12 @@
+package io.hhplus.tdd.point;
+
+/**
+ * PointRepository 가 잔액을 읽고 쓰는 저장소
+ * - selectById 는 저장된 적 없는 사용자도 잔액 0 으로 반환한다. (UserPointTable 과 같은 동작)
+ */
+public interface BalanceStore {
+
+    UserPoint selectById(long id);
+
+    UserPoint insertOrUpdate(long id, long amount);
+}
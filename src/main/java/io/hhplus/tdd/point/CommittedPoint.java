@@ -0,0 +1,12 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 마지막으로 끝난 충전/사용의 결과
+ * - userPoint : 그 충전/사용 직후의 포인트
+ * - lastHistoryId : 그 충전/사용으로 남긴 마지막 내역 id (이 id 까지의 내역이 userPoint 에 반영되어 있다, 기동 후 충전/사용이 없으면 0)
+ */
+public record CommittedPoint(
+        UserPoint userPoint,
+        long lastHistoryId
+) {
+}
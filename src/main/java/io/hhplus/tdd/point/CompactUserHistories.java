@@ -0,0 +1,220 @@
+package io.hhplus.tdd.point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 한 사용자의 포인트 내역을 압축해 보관한다.
+ * - 내역 하나를 [id 차이][종류 1 byte][금액][시각 차이] 로 인코딩해 byte 청크에 이어 쓴다.
+ *   id 와 시각은 직전 내역과의 차이를, 금액과 시각 차이는 zigzag 로 바꾼 값을 varint 로 쓰므로 보통 내역 하나가 10 byte 안팎이다.
+ *   userId 는 사용자 별로 나뉘어 있으므로 쓰지 않는다.
+ * - 청크는 INITIAL_CHUNK_SIZE 부터 CHUNK_SIZE 까지 두 배씩 늘리고, 그 이후로는 새 청크를 붙인다.
+ *   청크의 첫 내역은 차이가 아닌 값 그대로 쓰고 청크 별 첫 id 를 따로 두어, 커서 위치는 청크 단위 이진 탐색 후 그 청크부터 읽는다.
+ * - PointHistory 는 조회할 때 조건에 맞는 내역만 만든다.
+ */
+final class CompactUserHistories implements PointHistoryIndex.UserHistories {
+
+    private static final int INITIAL_CHUNK_SIZE = 32;
+    private static final int CHUNK_SIZE = 4096;
+    // id 차이(10) + 종류(1) + 금액(10) + 시각 차이(10)
+    private static final int MAX_ENTRY_SIZE = 31;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final long userId;
+
+    private byte[][] chunks = new byte[1][];
+    private long[] firstIds = new long[1];
+    private int[] lengths = new int[1];
+    private int chunkCount = 0;
+    private int size = 0;
+
+    // 마지막 청크에 마지막으로 쓴 내역 (다음 내역의 차이 계산용)
+    private long lastId;
+    private long lastMillis;
+
+    CompactUserHistories(long userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public synchronized void append(PointHistory pointHistory) {
+        if (chunkCount == 0 || chunks[chunkCount - 1].length - lengths[chunkCount - 1] < MAX_ENTRY_SIZE) {
+            ensureCapacity(pointHistory.id());
+        }
+
+        int last = chunkCount - 1;
+        byte[] chunk = chunks[last];
+        int offset = lengths[last];
+        offset = writeVarLong(chunk, offset, pointHistory.id() - lastId);
+        chunk[offset++] = (byte) pointHistory.type().ordinal();
+        offset = writeVarLong(chunk, offset, zigzag(pointHistory.amount()));
+        offset = writeVarLong(chunk, offset, zigzag(pointHistory.updateMillis() - lastMillis));
+        lengths[last] = offset;
+
+        lastId = pointHistory.id();
+        lastMillis = pointHistory.updateMillis();
+        size++;
+    }
+
+    @Override
+    public synchronized List<PointHistory> snapshot() {
+        List<PointHistory> histories = new ArrayList<>(size);
+        Decoder decoder = new Decoder(0);
+        while (decoder.next()) {
+            histories.add(decoder.toPointHistory());
+        }
+        return Collections.unmodifiableList(histories);
+    }
+
+    @Override
+    public synchronized List<PointHistory> page(PointHistoryQuery query) {
+        List<PointHistory> page = new ArrayList<>(Math.min(query.limit() + 1, size));
+        Decoder decoder = new Decoder(chunkIndexOf(query.afterId()));
+        while (page.size() <= query.limit() && decoder.next()) {
+            if (decoder.id > query.afterId() && query.matches(decoder.type, decoder.updateMillis)) {
+                page.add(decoder.toPointHistory());
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized List<PointHistory> olderThan(long cutoffMillis) {
+        List<PointHistory> histories = new ArrayList<>();
+        Decoder decoder = new Decoder(0);
+        while (decoder.next() && decoder.updateMillis < cutoffMillis) {
+            histories.add(decoder.toPointHistory());
+        }
+        return histories;
+    }
+
+    @Override
+    public synchronized void removeUpTo(long upToId) {
+        List<PointHistory> remaining = new ArrayList<>();
+        Decoder decoder = new Decoder(chunkIndexOf(upToId));
+        while (decoder.next()) {
+            if (decoder.id > upToId) {
+                remaining.add(decoder.toPointHistory());
+            }
+        }
+
+        // 남은 내역으로 청크를 처음부터 다시 채운다.
+        chunks = new byte[1][];
+        firstIds = new long[1];
+        lengths = new int[1];
+        chunkCount = 0;
+        size = 0;
+        lastId = 0;
+        lastMillis = 0;
+        remaining.forEach(this::append);
+    }
+
+    // 마지막 청크에 내역 하나를 쓸 자리를 만든다. (CHUNK_SIZE 보다 작으면 늘리고, 아니면 새 청크를 붙인다)
+    private void ensureCapacity(long firstId) {
+        if (chunkCount > 0 && chunks[chunkCount - 1].length < CHUNK_SIZE) {
+            byte[] chunk = chunks[chunkCount - 1];
+            chunks[chunkCount - 1] = Arrays.copyOf(chunk, Math.min(chunk.length * 2, CHUNK_SIZE));
+            return;
+        }
+
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            firstIds = Arrays.copyOf(firstIds, chunkCount * 2);
+            lengths = Arrays.copyOf(lengths, chunkCount * 2);
+        }
+        chunks[chunkCount] = new byte[chunkCount == 0 ? INITIAL_CHUNK_SIZE : CHUNK_SIZE];
+        firstIds[chunkCount] = firstId;
+        chunkCount++;
+        lastId = 0;
+        lastMillis = 0;
+    }
+
+    // afterId 보다 큰 첫 내역이 들어 있을 수 있는 청크 (첫 id 가 afterId 이하인 마지막 청크)
+    private int chunkIndexOf(long afterId) {
+        int low = 0;
+        int high = chunkCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (firstIds[mid] <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.max(0, low - 1);
+    }
+
+    private static int writeVarLong(byte[] buffer, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 청크를 앞에서부터 읽으며 내역을 하나씩 디코딩한다. (lock 을 잡은 채로만 사용한다)
+     */
+    private final class Decoder {
+
+        private int chunkIndex;
+        private int offset;
+
+        long id;
+        TransactionType type;
+        long amount;
+        long updateMillis;
+
+        Decoder(int chunkIndex) {
+            this.chunkIndex = chunkIndex;
+        }
+
+        boolean next() {
+            while (chunkIndex < chunkCount && offset == lengths[chunkIndex]) {
+                chunkIndex++;
+                offset = 0;
+            }
+            if (chunkIndex == chunkCount) {
+                return false;
+            }
+
+            byte[] chunk = chunks[chunkIndex];
+            if (offset == 0) {
+                id = 0;
+                updateMillis = 0;
+            }
+            id += readVarLong(chunk);
+            type = TYPES[chunk[offset++]];
+            amount = unzigzag(readVarLong(chunk));
+            updateMillis += unzigzag(readVarLong(chunk));
+            return true;
+        }
+
+        PointHistory toPointHistory() {
+            return new PointHistory(id, userId, amount, type, updateMillis);
+        }
+
+        private long readVarLong(byte[] chunk) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = chunk[offset++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
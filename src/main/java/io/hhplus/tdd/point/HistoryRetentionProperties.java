@@ -0,0 +1,23 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 포인트 내역 보관(retention) 설정 (저널이 켜져 있을 때만 동작한다)
+ * - enabled : false 이면 모든 내역을 메모리 인덱스에 둔다.
+ * - directory : 오래된 내역을 옮겨 둘 보관 파일 디렉터리
+ * - maxAge : 이 기간보다 오래된 내역을 보관 파일로 옮긴다.
+ * - interval : 오래된 내역을 옮기는 주기
+ */
+@ConfigurationProperties(prefix = "point.history.retention")
+public record HistoryRetentionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/archive") Path directory,
+        @DefaultValue("30d") Duration maxAge,
+        @DefaultValue("1h") Duration interval
+) {
+}
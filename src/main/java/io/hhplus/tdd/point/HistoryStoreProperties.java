@@ -0,0 +1,23 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 사용자 별 포인트 내역 인덱스의 저장 방식 설정
+ * - type : 사용자 별 내역을 담는 방식
+ */
+@ConfigurationProperties(prefix = "point.history.store")
+public record HistoryStoreProperties(
+        @DefaultValue("LIST") Type type
+) {
+
+    /**
+     * 사용자 별 내역을 담는 방식
+     * - LIST : PointHistory 객체를 ArrayList 에 보관 (내역 당 객체 하나와 참조 하나)
+     * - COMPACT : CompactUserHistories (id/시각 차이와 금액을 varint 로 압축해 byte 청크에 보관하고, 조회할 때만 PointHistory 를 만든다)
+     */
+    public enum Type {
+        LIST, COMPACT
+    }
+}
@@ -0,0 +1,33 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 포인트 내역 write-behind 설정
+ * - enabled : false 이면 기존처럼 요청 스레드에서 PointHistoryTable 에 바로 저장
+ * - queueCapacity : 저장 대기 중인 내역의 최대 개수
+ * - batchSize : 백그라운드 writer 가 한 번에 꺼내 저장하는 내역 수
+ * - backpressure : 대기열이 가득 찼을 때의 처리 방식
+ * - shutdownTimeout : 종료 시 남은 내역을 저장하기 위해 기다리는 최대 시간
+ */
+@ConfigurationProperties(prefix = "point.history.write-behind")
+public record HistoryWriteBehindProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("BLOCK") Backpressure backpressure,
+        @DefaultValue("10s") Duration shutdownTimeout
+) {
+
+    /**
+     * 대기열이 가득 찼을 때의 처리 방식
+     * - BLOCK : 자리가 날 때까지 대기
+     * - REJECT : HISTORY_QUEUE_FULL 예외로 즉시 거절
+     */
+    public enum Backpressure {
+        BLOCK, REJECT
+    }
+}
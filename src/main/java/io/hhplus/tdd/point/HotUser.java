@@ -0,0 +1,10 @@
+package io.hhplus.tdd.point;
+
+/**
+ * hot user 와 최근 요청 수 추정치
+ */
+public record HotUser(
+        long userId,
+        long estimatedCount
+) {
+}
@@ -0,0 +1,25 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * hot user 판별 설정
+ * - depth, width : count-min sketch 의 행 수와 행 당 카운터 수 (width 는 2의 거듭제곱으로 올림)
+ * - window : 카운터를 절반으로 줄이는 주기 (최근 요청일수록 크게 반영된다)
+ * - hotShare : 최근 전체 요청 중 이 비율 이상을 차지하는 사용자를 hot user 로 본다.
+ * - minCount : 요청이 적을 때 hot user 로 판별되지 않도록 하는 최소 요청 수
+ * - maxHotUsers : 동시에 hot user 로 관리하는 최대 사용자 수
+ */
+@ConfigurationProperties(prefix = "point.hot-user")
+public record HotUserProperties(
+        @DefaultValue("4") int depth,
+        @DefaultValue("4096") int width,
+        @DefaultValue("1s") Duration window,
+        @DefaultValue("0.01") double hotShare,
+        @DefaultValue("100") long minCount,
+        @DefaultValue("100") int maxHotUsers
+) {
+}
@@ -0,0 +1,126 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청이 몰리는 사용자(hot user) 판별기
+ * - 충전/사용 요청이 들어올 때마다 사용자 id 를 count-min sketch 에 센다. (사용자 수와 관계없이 depth * width 개의 카운터만 쓴다)
+ * - window 가 지날 때마다 모든 카운터와 전체 요청 수를 절반으로 줄여서, 최근 요청일수록 크게 반영한다.
+ * - 추정 요청 수가 최근 전체 요청의 hotShare 이상(그리고 minCount 이상)이면 hot user 로 등록하고,
+ *   그 절반 아래로 떨어지면 해제한다. (경계에서 등록/해제가 반복되지 않도록)
+ * - window 갱신은 별도 스레드 없이, window 가 지난 뒤 처음 들어온 요청이 수행한다.
+ */
+@Component
+public class HotUserTracker {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final HotUserProperties properties;
+
+    private final AtomicIntegerArray counters;
+    private final int depth;
+    private final int mask;
+    private final long windowNanos;
+
+    private final LongAdder windowCount = new LongAdder();
+    private final AtomicLong nextRollover;
+    private volatile long decayedTotal = 0;
+    private volatile long threshold;
+
+    private final ConcurrentHashMap<Long, Long> hotUsers = new ConcurrentHashMap<>();
+
+    public HotUserTracker(HotUserProperties properties) {
+        this.properties = properties;
+        this.depth = Math.min(Math.max(1, properties.depth()), SEEDS.length);
+        int width = Integer.highestOneBit(Math.max(1, properties.width() - 1)) << 1;
+        this.mask = width - 1;
+        this.counters = new AtomicIntegerArray(depth * width);
+        this.windowNanos = Math.max(1, properties.window().toNanos());
+        this.nextRollover = new AtomicLong(System.nanoTime() + windowNanos);
+        this.threshold = Math.max(1, properties.minCount());
+    }
+
+    /**
+     * 요청 한 건을 센다.
+     */
+    public void record(long userId) {
+        rolloverIfDue();
+        windowCount.increment();
+
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, userId)));
+        }
+
+        if (estimate >= threshold && (hotUsers.size() < properties.maxHotUsers() || hotUsers.containsKey(userId))) {
+            hotUsers.put(userId, (long) estimate);
+        }
+    }
+
+    public boolean isHot(long userId) {
+        return hotUsers.containsKey(userId);
+    }
+
+    /**
+     * 현재 hot user 목록 (추정 요청 수가 많은 순)
+     */
+    public List<HotUser> hotUsers() {
+        rolloverIfDue();
+        return hotUsers.keySet().stream()
+                .map(userId -> new HotUser(userId, estimate(userId)))
+                .sorted(Comparator.comparingLong(HotUser::estimatedCount).reversed())
+                .toList();
+    }
+
+    public long estimate(long userId) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, userId)));
+        }
+        return estimate;
+    }
+
+    private void rolloverIfDue() {
+        long due = nextRollover.get();
+        long now = System.nanoTime();
+        if (now - due < 0) {
+            return;
+        }
+        // 요청이 없던 동안 지난 window 수만큼 한 번에 줄인다.
+        long elapsedWindows = 1 + (now - due) / windowNanos;
+        if (nextRollover.compareAndSet(due, due + elapsedWindows * windowNanos)) {
+            rollover((int) Math.min(elapsedWindows, 62));
+        }
+    }
+
+    /**
+     * 카운터와 전체 요청 수를 2^shift 로 나누고, hot user 기준을 다시 계산한다.
+     */
+    void rollover(int shift) {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> Math.min(shift, 31));
+        }
+        decayedTotal = (decayedTotal + windowCount.sumThenReset()) >>> shift;
+        threshold = Math.max(Math.max(1, properties.minCount()), (long) Math.ceil(decayedTotal * properties.hotShare()));
+
+        hotUsers.keySet().removeIf(userId -> estimate(userId) * 2 < threshold);
+    }
+
+    private int index(int row, long userId) {
+        long hash = (userId ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+        hash *= 0x94D049BB133111EBL;
+        hash ^= hash >>> 29;
+        return row * (mask + 1) + (int) (hash & mask);
+    }
+}
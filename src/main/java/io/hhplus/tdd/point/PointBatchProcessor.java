@@ -0,0 +1,150 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * 포인트 일괄 충전/사용 처리기
+ * - 요청을 사용자 별로 묶고, 사용자 하나의 요청은 lock 한 번, 잔액 조회/저장 한 번으로 도착 순서대로 적용한다. (PointCombiner 와 같은 방식)
+ * - 서로 다른 사용자의 묶음은 parallelism 개의 스레드에서 동시에 처리한다.
+ * - 검증 실패나 잔액 부족은 해당 요청의 결과로만 남기고, 나머지 요청은 계속 처리한다.
+ * - 사용자 lock 은 단건 요청과 같은 acquire 로 잡으므로, 요청이 몰린 사용자의 요청은 기다리지 않고 POINT_BUSY 결과로 남는다.
+ */
+@Component
+public class PointBatchProcessor {
+
+    private final PointCombiner pointCombiner;
+    private final ServiceLockFactory lockFactory;
+    private final PointBatchProperties properties;
+
+    private final ExecutorService executor;
+
+    public PointBatchProcessor(PointCombiner pointCombiner, ServiceLockFactory lockFactory, PointBatchProperties properties) {
+        this.pointCombiner = pointCombiner;
+        this.lockFactory = lockFactory;
+        this.properties = properties;
+        this.executor = Executors.newFixedThreadPool(properties.parallelism(), Thread.ofPlatform().name("point-batch-", 0).daemon().factory());
+    }
+
+    /**
+     * @param commands 충전/사용 요청 목록
+     * @return 요청과 같은 순서의 처리 결과
+     */
+    public List<PointBatchResult> process(List<PointCommand> commands) {
+        return process(commands, this::combineLocked);
+    }
+
+    /**
+     * @param commands 충전/사용 요청 목록
+     * @param dispatcher 한 사용자의 요청 묶음을 처리하고 돌아오는 함수 (각 요청의 결과는 result 로 전달한다)
+     * @return 요청과 같은 순서의 처리 결과
+     */
+    public List<PointBatchResult> process(List<PointCommand> commands, Consumer<List<PointCombiner.PendingCommand>> dispatcher) {
+        if (commands.size() > properties.maxSize()) {
+            throw new PointException(PointErrorCode.BATCH_SIZE_EXCEEDED);
+        }
+
+        PointBatchResult[] results = new PointBatchResult[commands.size()];
+
+        // 검증을 통과한 요청의 순번을 사용자 별로 모은다. (사용자 안에서는 요청 순서 유지)
+        Map<Long, List<Integer>> indexesByUser = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            PointCommand command = commands.get(i);
+            try {
+                command.validate();
+                indexesByUser.computeIfAbsent(command.userId(), key -> new ArrayList<>()).add(i);
+            } catch (PointException e) {
+                results[i] = PointBatchResult.failure(command, e.getErrorCode());
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>(indexesByUser.size());
+        indexesByUser.forEach((id, indexes) -> futures.add(executor.submit(() -> apply(indexes, commands, results, dispatcher))));
+        for (Future<?> future : futures) {
+            awaitQuietly(future);
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = PointBatchResult.failure(commands.get(i));
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void apply(List<Integer> indexes, List<PointCommand> commands, PointBatchResult[] results, Consumer<List<PointCombiner.PendingCommand>> dispatcher) {
+        List<PointCombiner.PendingCommand> pendings = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            pendings.add(new PointCombiner.PendingCommand(commands.get(index), new CompletableFuture<>()));
+        }
+
+        dispatcher.accept(pendings);
+
+        for (int i = 0; i < indexes.size(); i++) {
+            results[indexes.get(i)] = toResult(pendings.get(i));
+        }
+    }
+
+    // 같은 사용자의 요청으로 PointCombiner 를 거쳐 사용자 lock 을 잡고 처리한다.
+    private void combineLocked(List<PointCombiner.PendingCommand> pendings) {
+        long id = pendings.get(0).command().userId();
+        Lock lock;
+        try {
+            lock = lockFactory.acquire(id);
+        } catch (PointException e) {
+            // 대기열에 넣기 전이므로 다른 스레드가 처리하는 일 없이 이 사용자의 요청만 실패한다.
+            pendings.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        try {
+            // 그사이 쌓인 단건 요청과 함께 묶어서 처리한다.
+            pendings.forEach(pointCombiner::enqueue);
+            pointCombiner.combine(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PointBatchResult toResult(PointCombiner.PendingCommand pending) {
+        try {
+            return PointBatchResult.success(pending.command(), pending.result().join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PointException cause) {
+                return PointBatchResult.failure(pending.command(), cause.getErrorCode());
+            }
+            return PointBatchResult.failure(pending.command());
+        }
+    }
+
+    private void awaitQuietly(Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException ignored) {
+            // 결과를 채우지 못한 요청은 실패로 남긴다.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,16 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 포인트 일괄 충전/사용 설정
+ * - parallelism : 서로 다른 사용자의 요청을 동시에 처리하는 스레드 수
+ * - maxSize : JSON 으로 한 번에 처리할 수 있는 최대 요청 건수 (더 많으면 NDJSON 으로 나누어 보낸다)
+ */
+@ConfigurationProperties(prefix = "point.batch")
+public record PointBatchProperties(
+        @DefaultValue("16") int parallelism,
+        @DefaultValue("10000") int maxSize
+) {
+}
@@ -0,0 +1,29 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.ErrorResponse;
+import io.hhplus.tdd.exception.ErrorCode;
+
+/**
+ * 일괄 충전/사용 요청 한 건의 처리 결과
+ * - 성공하면 userPoint 에 적용 직후의 포인트가, 실패하면 error 에 실패 사유가 담긴다.
+ */
+public record PointBatchResult(
+        long userId,
+        TransactionType type,
+        long amount,
+        UserPoint userPoint,
+        ErrorResponse error
+) {
+
+    public static PointBatchResult success(PointCommand command, UserPoint userPoint) {
+        return new PointBatchResult(command.userId(), command.type(), command.amount(), userPoint, null);
+    }
+
+    public static PointBatchResult failure(PointCommand command, ErrorCode errorCode) {
+        return new PointBatchResult(command.userId(), command.type(), command.amount(), null, new ErrorResponse(errorCode.getCode(), errorCode.getMessage()));
+    }
+
+    public static PointBatchResult failure(PointCommand command) {
+        return new PointBatchResult(command.userId(), command.type(), command.amount(), null, new ErrorResponse("500", "에러가 발생했습니다."));
+    }
+}
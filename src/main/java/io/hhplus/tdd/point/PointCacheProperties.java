@@ -0,0 +1,16 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 포인트 캐시 설정
+ * - enabled : false 이면 매 조회마다 UserPointTable 을 읽는다.
+ * - maximumSize : 캐시에 보관하는 최대 사용자 수 (넘으면 가장 오래 사용되지 않은 사용자부터 제거)
+ */
+@ConfigurationProperties(prefix = "point.cache")
+public record PointCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maximumSize
+) {
+}
@@ -0,0 +1,51 @@
+package io.hhplus.tdd.point;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * 경로에 사용자 id ({id}) 가 있는 PointController 요청 중 이 노드가 소유하지 않은 사용자의 요청을 소유 노드로 보낸다.
+ * - 소유 노드의 응답을 그대로 돌려주고 이 노드의 handler 는 실행하지 않는다.
+ * - 다른 노드가 보낸 요청(PointClusterRouter.FORWARDED_HEADER)과 사용자 id 가 없는 요청(일괄 처리, hot user 조회)은 그대로 통과시킨다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PointClusterInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ID_VARIABLE = "id";
+
+    private final PointClusterRouter pointClusterRouter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!pointClusterRouter.enabled() || request.getHeader(PointClusterRouter.FORWARDED_HEADER) != null) {
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = variables == null ? null : variables.get(USER_ID_VARIABLE);
+        if (value == null) {
+            return true;
+        }
+        long id;
+        try {
+            id = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // 잘못된 id 는 handler 에서 기존과 같이 실패한다.
+            return true;
+        }
+        if (pointClusterRouter.isLocal(id)) {
+            return true;
+        }
+
+        pointClusterRouter.forward(pointClusterRouter.ownerOf(id), request, response);
+        return false;
+    }
+}
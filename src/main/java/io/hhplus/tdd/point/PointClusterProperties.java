@@ -0,0 +1,27 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 여러 노드로 사용자를 나누어 처리하는 설정 (consistent hash ring)
+ * - enabled : false 이면 모든 사용자를 이 노드에서 처리한다.
+ * - self : 이 노드의 주소 (nodes 중 하나, 예) http://localhost:8080)
+ * - nodes : ring 에 참여하는 모든 노드의 주소 (모든 노드가 같은 목록을 가져야 한다)
+ * - virtualNodes : 노드 하나가 ring 에 차지하는 지점 수 (많을수록 사용자가 고르게 나뉜다)
+ * - connectTimeout : 다른 노드로 전달할 때 연결을 기다리는 시간
+ * - requestTimeout : 다른 노드로 전달한 요청의 응답을 기다리는 시간
+ */
+@ConfigurationProperties(prefix = "point.cluster")
+public record PointClusterProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("") String self,
+        @DefaultValue List<String> nodes,
+        @DefaultValue("160") int virtualNodes,
+        @DefaultValue("1s") Duration connectTimeout,
+        @DefaultValue("10s") Duration requestTimeout
+) {
+}
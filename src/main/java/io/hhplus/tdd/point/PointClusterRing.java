@@ -0,0 +1,79 @@
+package io.hhplus.tdd.point;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 사용자 id 를 노드에 나누는 consistent hash ring
+ * - 노드마다 virtualNodes 개의 지점을 ring 에 두고, 사용자 id 의 hash 에서 시계 방향으로 처음 만나는 지점의 노드가 사용자를 소유한다.
+ * - 노드가 하나 늘거나 줄면 그 노드의 구간에 있던 사용자(약 1/N)만 소유 노드가 바뀐다.
+ * - 지점과 소유 노드는 정렬된 배열 두 개로 두고 이진 탐색한다. (만든 뒤에는 바뀌지 않으므로 동기화하지 않는다)
+ */
+final class PointClusterRing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    PointClusterRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("point cluster ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        this.nodes = List.copyOf(nodes);
+
+        long[][] entries = new long[nodes.size() * virtualNodes][];
+        for (int node = 0; node < nodes.size(); node++) {
+            long nodeHash = hash(nodes.get(node));
+            for (int i = 0; i < virtualNodes; i++) {
+                entries[node * virtualNodes + i] = new long[]{mix(nodeHash + i), node};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = nodes.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * @param userId 사용자 id
+     * @return 사용자를 소유한 노드
+     */
+    String owner(long userId) {
+        int index = Arrays.binarySearch(points, mix(userId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    List<String> nodes() {
+        return nodes;
+    }
+
+    // 노드 주소의 FNV-1a 64bit hash (JVM 과 관계없이 모든 노드에서 같은 값)
+    private static long hash(String node) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : node.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // 연속된 id 와 지점 번호가 ring 위에 고르게 흩어지도록 섞는다. (splitmix64 finalizer)
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,283 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.exception.ErrorCode;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+
+/**
+ * 사용자 id 를 소유한 노드로 요청을 보내는 라우터 (point.cluster.enabled=true)
+ * - 모든 노드가 같은 PointClusterRing 을 만들므로, 어느 노드로 들어온 요청이든 같은 노드에서 처리된다.
+ *   (사용자의 잔액과 사용자 lock 은 소유 노드에만 있으므로 노드를 늘려도 이중 사용이 생기지 않는다)
+ * - 다른 노드로 보낸 요청에는 FORWARDED_HEADER 를 붙이고, 이 헤더가 있는 요청은 다시 보내지 않고 받은 노드에서 처리한다.
+ *   (노드 목록이 잠시 어긋나도 요청이 노드 사이를 돌지 않는다)
+ * - 노드 사이의 요청은 HttpClient 하나로 보낸다. HTTP/1.1 연결은 응답 후에도 닫지 않고 노드 별 pool 에 두었다가 다음 요청에 다시 쓴다. (keep-alive)
+ * - 연결하지 못한 요청만 보내지 못한 것(POINT_NODE_UNAVAILABLE)으로 본다. 보낸 뒤에 시간 초과나 연결 끊김으로 응답을 받지 못하면
+ *   소유 노드에서 처리됐는지 알 수 없으므로 POINT_NODE_OUTCOME_UNKNOWN 으로 구분한다. (같은 Idempotency-Key 로 다시 요청하면 한 번만 처리된다)
+ */
+@Component
+public class PointClusterRouter {
+
+    public static final String FORWARDED_HEADER = "X-Point-Forwarded";
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    // 다른 노드로 그대로 전달하는 요청 헤더
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, IDEMPOTENCY_KEY);
+    // 다른 노드의 응답에서 그대로 돌려주는 헤더
+    private static final List<String> FORWARDED_RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.RETRY_AFTER);
+
+    private static final TypeReference<List<PointBatchResult>> BATCH_RESULTS = new TypeReference<>() {
+    };
+
+    private final PointClusterProperties properties;
+    private final ObjectMapper objectMapper;
+    private final PointClusterRing ring;
+    private final String self;
+    private final HttpClient httpClient;
+
+    public PointClusterRouter(PointClusterProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        if (!properties.enabled()) {
+            this.ring = null;
+            this.self = null;
+            this.httpClient = null;
+            return;
+        }
+
+        this.self = normalize(properties.self());
+        this.ring = new PointClusterRing(properties.nodes().stream().map(PointClusterRouter::normalize).toList(), properties.virtualNodes());
+        if (!ring.nodes().contains(self)) {
+            throw new IllegalStateException("point.cluster.self must be one of point.cluster.nodes: " + self);
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.connectTimeout())
+                .build();
+    }
+
+    public boolean enabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * enabled 일 때만 호출한다.
+     * @param id 사용자 id
+     * @return 사용자를 소유한 노드의 주소
+     */
+    public String ownerOf(long id) {
+        return ring.owner(id);
+    }
+
+    public boolean isLocal(long id) {
+        return !enabled() || ring.owner(id).equals(self);
+    }
+
+    /**
+     * 받은 요청을 같은 method, 경로, 헤더, 본문으로 node 에 보내고 그 응답(상태, 헤더, 본문)을 그대로 돌려준다.
+     * 응답 본문은 받는 대로 내려보내므로 내역 내보내기 같은 스트리밍 응답도 메모리에 모으지 않는다.
+     */
+    public void forward(String node, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(node + request.getRequestURI() + (query == null ? "" : "?" + query)))
+                .timeout(properties.requestTimeout())
+                .header(FORWARDED_HEADER, "true")
+                .method(request.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String header : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+
+        HttpResponse<InputStream> forwarded = send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        response.setStatus(forwarded.statusCode());
+        for (String header : FORWARDED_RESPONSE_HEADERS) {
+            forwarded.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+        }
+        try (InputStream in = forwarded.body(); OutputStream out = response.getOutputStream()) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * 일괄 충전/사용 요청을 소유 노드 별로 나누어 동시에 처리하고, 요청과 같은 순서로 결과를 합친다.
+     * - 이 노드가 소유한 요청은 local 로 처리하고, 나머지는 소유 노드의 일괄 처리 API 로 보낸다.
+     * - 다른 노드로 보내지 못한 요청은 POINT_NODE_UNAVAILABLE, 보냈지만 결과를 받지 못한 요청은 POINT_NODE_OUTCOME_UNKNOWN 실패로 반환한다.
+     *   (다른 요청의 결과에는 영향이 없다)
+     * - idempotencyKey 가 있으면 노드 별로 나눈 요청마다 그 key 와 노드로 만든 key 를 붙인다.
+     *   같은 key 로 다시 요청하면 각 노드는 먼저 처리한 결과를 돌려주므로, 결과를 받지 못한 요청만 골라 다시 보내지 않아도 된다.
+     * @param forwarded 다른 노드가 보낸 요청이면 true (나누지 않고 local 로 처리한다)
+     * @param idempotencyKey 없으면 null
+     * @param local 이 노드에서 처리할 요청과 그 요청의 Idempotency-Key(없으면 null)를 받아서 처리한다.
+     */
+    public List<PointBatchResult> batch(List<PointCommand> commands, boolean forwarded, String idempotencyKey,
+                                        BiFunction<List<PointCommand>, String, List<PointBatchResult>> local) {
+        if (!enabled() || forwarded) {
+            return local.apply(commands, idempotencyKey);
+        }
+
+        Map<String, List<Integer>> indexesByNode = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            indexesByNode.computeIfAbsent(ring.owner(commands.get(i).userId()), key -> new ArrayList<>()).add(i);
+        }
+        if (indexesByNode.size() == 1 && indexesByNode.containsKey(self)) {
+            return local.apply(commands, derivedKey(idempotencyKey, self));
+        }
+
+        Map<String, CompletableFuture<List<PointBatchResult>>> remotes = new LinkedHashMap<>();
+        indexesByNode.forEach((node, indexes) -> {
+            if (!node.equals(self)) {
+                remotes.put(node, sendBatch(node, select(commands, indexes), derivedKey(idempotencyKey, node)));
+            }
+        });
+
+        PointBatchResult[] results = new PointBatchResult[commands.size()];
+        List<Integer> localIndexes = indexesByNode.get(self);
+        if (localIndexes != null) {
+            merge(results, localIndexes, local.apply(select(commands, localIndexes), derivedKey(idempotencyKey, self)));
+        }
+        remotes.forEach((node, future) -> {
+            List<Integer> indexes = indexesByNode.get(node);
+            ErrorCode failure;
+            try {
+                List<PointBatchResult> remoteResults = future.join();
+                if (remoteResults.size() == indexes.size()) {
+                    merge(results, indexes, remoteResults);
+                    return;
+                }
+                // 응답은 받았지만 어느 요청이 처리됐는지 맞춰 볼 수 없다.
+                failure = PointErrorCode.POINT_NODE_OUTCOME_UNKNOWN;
+            } catch (CompletionException e) {
+                failure = failureOf(e.getCause() == null ? e : e.getCause());
+            }
+            for (int index : indexes) {
+                results[index] = PointBatchResult.failure(commands.get(index), failure);
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 받은 Idempotency-Key 와 범위(노드, NDJSON chunk 등)로 만든 key. 같은 key 와 범위에서는 항상 같은 key 가 나오고,
+     * 받은 key 의 길이와 상관없이 길이가 같다. (UUID 문자열 36자)
+     * @return key 가 null 이면 null
+     */
+    public static String derivedKey(String key, String scope) {
+        if (key == null) {
+            return null;
+        }
+        return UUID.nameUUIDFromBytes((key + "|" + scope).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private CompletableFuture<List<PointBatchResult>> sendBatch(String node, List<PointCommand> commands, String idempotencyKey) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(commands);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new PointException(PointErrorCode.POINT_NODE_UNAVAILABLE));
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(node + "/point/batch"))
+                .timeout(properties.requestTimeout())
+                .header(FORWARDED_HEADER, "true")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (idempotencyKey != null) {
+            builder.header(IDEMPOTENCY_KEY, idempotencyKey);
+        }
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    // 4xx 는 소유 노드가 처리하지 않고 거절한 것, 5xx 는 처리 도중 실패했을 수 있다.
+                    if (response.statusCode() >= 400 && response.statusCode() < 500) {
+                        throw new PointException(PointErrorCode.POINT_NODE_UNAVAILABLE);
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new PointException(PointErrorCode.POINT_NODE_OUTCOME_UNKNOWN);
+                    }
+                    try {
+                        return objectMapper.readValue(response.body(), BATCH_RESULTS);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        // 조회는 다시 보내도 되므로 결과를 모르는 경우가 없다.
+        boolean read = request.method().equals("GET");
+        try {
+            return httpClient.send(request, bodyHandler);
+        } catch (IOException e) {
+            throw new PointException(read ? PointErrorCode.POINT_NODE_UNAVAILABLE : failureOf(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PointException(read ? PointErrorCode.POINT_NODE_UNAVAILABLE : PointErrorCode.POINT_NODE_OUTCOME_UNKNOWN);
+        }
+    }
+
+    // 연결하지 못했으면 요청을 보내지 않은 것이 확실하고, 그 밖의 실패는 소유 노드가 요청을 받았을 수 있다.
+    private static ErrorCode failureOf(Throwable throwable) {
+        if (throwable instanceof PointException pointException) {
+            return pointException.getErrorCode();
+        }
+        if (throwable instanceof ConnectException || throwable instanceof HttpConnectTimeoutException) {
+            return PointErrorCode.POINT_NODE_UNAVAILABLE;
+        }
+        return PointErrorCode.POINT_NODE_OUTCOME_UNKNOWN;
+    }
+
+    private static List<PointCommand> select(List<PointCommand> commands, List<Integer> indexes) {
+        List<PointCommand> selected = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            selected.add(commands.get(index));
+        }
+        return selected;
+    }
+
+    private static void merge(PointBatchResult[] results, List<Integer> indexes, List<PointBatchResult> partial) {
+        for (int i = 0; i < indexes.size(); i++) {
+            results[indexes.get(i)] = partial.get(i);
+        }
+    }
+
+    // 끝의 '/' 를 떼어서 같은 노드를 같은 문자열로 비교한다.
+    private static String normalize(String node) {
+        return node.endsWith("/") ? node.substring(0, node.length() - 1) : node;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 사용자 별 요청 결합기 (group commit)
+ * - 요청은 사용자 별 대기열에 쌓이고, 사용자 lock 을 잡은 스레드가 그때까지 쌓인 요청을 모두 꺼내 도착 순서대로 적용한다.
+ * - 잔액 조회와 저장은 묶음 당 한 번만 하고, 내역은 요청마다 남긴다.
+ * - 각 요청은 자신이 적용된 직후의 포인트를 결과로 받으며, 잔액 부족 같은 실패는 해당 요청에만 전달된다.
+ */
+@Component
+public class PointCombiner {
+
+    private static final long RETRY_INTERVAL_MILLIS = 10L;
+
+    private final PointRepository pointRepository;
+    private final PointHistoryRepository pointHistoryRepository;
+    private final ServiceLockFactory lockFactory;
+    private final PointMetrics pointMetrics;
+
+    private final ConcurrentHashMap<Long, ConcurrentLinkedQueue<PendingCommand>> queues = new ConcurrentHashMap<>();
+
+    public PointCombiner(PointRepository pointRepository, PointHistoryRepository pointHistoryRepository, ServiceLockFactory lockFactory, PointMetrics pointMetrics) {
+        this.pointRepository = pointRepository;
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.lockFactory = lockFactory;
+        this.pointMetrics = pointMetrics;
+    }
+
+    public UserPoint execute(PointCommand command) {
+        PendingCommand pending = new PendingCommand(command, new CompletableFuture<>());
+        enqueue(pending);
+
+        // lock 을 잡은 스레드가 쌓인 요청을 처리하고, 나머지는 결과를 기다리다가 처리되지 않았으면 다시 lock 을 시도한다.
+        while (!pending.result().isDone()) {
+            Lock lock = lockFactory.getLock(command.userId());
+            if (lock.tryLock()) {
+                try {
+                    combine(command.userId());
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                awaitQuietly(pending.result());
+            }
+        }
+
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    void enqueue(PendingCommand pending) {
+        queues.compute(pending.command().userId(), (key, queue) -> {
+            ConcurrentLinkedQueue<PendingCommand> target = queue == null ? new ConcurrentLinkedQueue<>() : queue;
+            target.add(pending);
+            return target;
+        });
+    }
+
+    /**
+     * 사용자 lock 을 잡은 상태에서 호출한다.
+     */
+    void combine(long id) {
+        ConcurrentLinkedQueue<PendingCommand> queue = queues.get(id);
+        if (queue == null) {
+            return;
+        }
+
+        List<PendingCommand> batch = new ArrayList<>();
+        for (PendingCommand pending = queue.poll(); pending != null; pending = queue.poll()) {
+            batch.add(pending);
+        }
+        // enqueue 와 같은 compute 로 비어 있을 때만 제거하므로, 제거된 대기열에 요청이 쌓이는 일은 없다.
+        queues.computeIfPresent(id, (key, current) -> current.isEmpty() ? null : current);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Applied applied = apply(id, batch);
+        if (applied == null) {
+            return;
+        }
+        try {
+            // 저널 반영은 묶음 당 한 번만 기다린다.
+            pointHistoryRepository.awaitDurable();
+            complete(applied);
+        } catch (RuntimeException e) {
+            fail(applied, e);
+        }
+    }
+
+    /**
+     * 같은 사용자의 요청을 도착 순서대로 적용하고 잔액은 한 번, 내역은 요청마다 저장한다.
+     * 해당 사용자의 다른 저장과 겹치지 않는 스레드(사용자 lock 을 잡은 스레드 또는 사용자를 소유한 shard 스레드)에서 호출한다.
+     * 저널 반영은 기다리지 않으므로, 호출한 쪽에서 awaitDurable 후 complete 를 호출한다.
+     * @return 적용된 요청이 없거나 저장에 실패했으면 null (각 요청의 결과는 이미 실패로 완료되어 있다)
+     */
+    Applied apply(long id, List<PendingCommand> batch) {
+        // 잔액은 한 번만 읽고, 요청을 순서대로 적용한다.
+        List<PendingCommand> applied = new ArrayList<>(batch.size());
+        List<UserPoint> results = new ArrayList<>(batch.size());
+        UserPoint saved;
+        long lastHistoryId = 0L;
+        long version;
+        int reserved = 0;
+        int inserted = 0;
+        pointRepository.beginUpdate(id);
+        try {
+            long startedAt = System.nanoTime();
+            UserPoint before = pointRepository.selectById(id).orElse(UserPoint.empty(id));
+            pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_SELECT, System.nanoTime() - startedAt);
+            UserPoint current = before;
+            for (PendingCommand pending : batch) {
+                try {
+                    current = pending.command().applyTo(current);
+                    applied.add(pending);
+                    results.add(current);
+                } catch (PointException e) {
+                    pending.result().completeExceptionally(e);
+                }
+            }
+            if (applied.isEmpty()) {
+                return null;
+            }
+
+            // 내역 수만큼 대기열 자리를 한 번에 잡는다.
+            pointHistoryRepository.reserve(applied.size());
+            reserved = applied.size();
+            startedAt = System.nanoTime();
+            saved = pointRepository.insertOrUpdate(current);
+            pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_INSERT_OR_UPDATE, System.nanoTime() - startedAt);
+
+            try {
+                for (PendingCommand pending : applied) {
+                    startedAt = System.nanoTime();
+                    lastHistoryId = pointHistoryRepository.insert(pending.command().toHistory(saved.updateMillis())).id();
+                    inserted++;
+                    pointMetrics.recordTableCall(PointMetrics.TableCall.POINT_HISTORY_INSERT, System.nanoTime() - startedAt);
+                }
+            } catch (RuntimeException e) {
+                // 내역(저널)을 저장하지 못한 요청부터는 실패로 돌리고, 잔액은 저장한 내역까지만 반영한 값으로 되돌린다.
+                pointHistoryRepository.release(reserved - inserted);
+                reserved = inserted;
+                pointRepository.insertOrUpdate(inserted == 0 ? before : results.get(inserted - 1));
+                pointRepository.invalidateCommitted(id, 0L);
+                for (PendingCommand pending : applied.subList(inserted, applied.size())) {
+                    pending.result().completeExceptionally(e);
+                }
+                if (inserted == 0) {
+                    return null;
+                }
+                applied = applied.subList(0, inserted);
+                results = results.subList(0, inserted);
+            }
+        } catch (RuntimeException e) {
+            pointHistoryRepository.release(reserved - inserted);
+            applied.forEach(pending -> pending.result().completeExceptionally(e));
+            return null;
+        } finally {
+            version = pointRepository.endUpdate(id);
+        }
+        return new Applied(id, applied, results, saved.updateMillis(), version, lastHistoryId);
+    }
+
+    /**
+     * 저널 반영 후 호출한다. 마지막 결과를 조회 경로에 공개하고 각 요청에 자신이 적용된 직후의 포인트를 전달한다.
+     */
+    void complete(Applied applied) {
+        List<UserPoint> results = applied.results();
+        pointRepository.publish(applied.toUserPoint(results.get(results.size() - 1)), applied.lastHistoryId());
+        for (int i = 0; i < results.size(); i++) {
+            applied.pendings().get(i).result().complete(applied.toUserPoint(results.get(i)));
+        }
+    }
+
+    /**
+     * 저널 반영에 실패했을 때 호출한다. 잔액은 이미 저장되어 있으므로 공개된 결과를 무효로 하고 각 요청을 실패로 완료한다.
+     */
+    void fail(Applied applied, RuntimeException e) {
+        pointRepository.invalidateCommitted(applied.id(), applied.lastHistoryId());
+        applied.pendings().forEach(pending -> pending.result().completeExceptionally(e));
+    }
+
+    private void awaitQuietly(CompletableFuture<UserPoint> result) {
+        try {
+            result.get(RETRY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // 완료 여부는 호출한 쪽에서 다시 확인한다.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record PendingCommand(PointCommand command, CompletableFuture<UserPoint> result) {
+    }
+
+    /**
+     * 저장을 마치고 저널 반영을 기다리는 묶음
+     * - results : pendings 의 각 요청이 적용된 직후의 포인트
+     */
+    record Applied(long id, List<PendingCommand> pendings, List<UserPoint> results, long updateMillis, long version, long lastHistoryId) {
+
+        UserPoint toUserPoint(UserPoint result) {
+            return new UserPoint(id, result.point(), updateMillis, version);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+
+/**
+ * 포인트 충전/사용 요청 한 건
+ */
+public record PointCommand(
+        long userId,
+        TransactionType type,
+        long amount
+) {
+
+    public static final long MAX_CHARGE_AMOUNT = 2_000_000_000L;
+
+    public static PointCommand charge(long userId, long amount) {
+        return new PointCommand(userId, TransactionType.CHARGE, amount);
+    }
+
+    public static PointCommand use(long userId, long amount) {
+        return new PointCommand(userId, TransactionType.USE, amount);
+    }
+
+    /**
+     * 충전/사용 금액 검증
+     * - 충전금액은 0 이상 MAX_CHARGE_AMOUNT 이하, 사용금액은 0 이상이어야 한다.
+     */
+    public void validate() {
+        if (type == null) {
+            throw new PointException(PointErrorCode.TRANSACTION_TYPE_REQUIRED);
+        }
+        if (type == TransactionType.CHARGE) {
+            if (amount < 0) {
+                throw new PointException(PointErrorCode.CHARGE_AMOUNT_LESS_THAN_ZERO);
+            }
+            if (amount > MAX_CHARGE_AMOUNT) {
+                throw new PointException(PointErrorCode.CHARGE_AMOUNT_GREATER_THAN_MAX);
+            }
+        } else if (amount < 0) {
+            throw new PointException(PointErrorCode.USE_AMOUNT_LESS_THAN_ZERO);
+        }
+    }
+
+    /**
+     * 현재 포인트에 충전/사용을 적용한 결과를 반환한다.
+     * 사용금액이 잔액보다 크면 예외 발생
+     */
+    public UserPoint applyTo(UserPoint userPoint) {
+        if (type == TransactionType.CHARGE) {
+            return userPoint.charge(amount);
+        }
+        if (userPoint.point() < amount) {
+            throw new PointException(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT);
+        }
+        return userPoint.use(amount);
+    }
+
+    public PointHistory toHistory(long updateMillis) {
+        return type == TransactionType.CHARGE
+                ? PointHistory.createChargeHistory(userId, amount, updateMillis)
+                : PointHistory.createUseHistory(userId, amount, updateMillis);
+    }
+}
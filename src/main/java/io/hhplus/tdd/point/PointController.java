@@ -1,11 +1,24 @@
 package io.hhplus.tdd.point;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
@@ -14,25 +27,203 @@ public class PointController {
 
     private static final Logger log = LoggerFactory.getLogger(PointController.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int BATCH_CHUNK_SIZE = 10_000;
+    private static final String IDEMPOTENCY_KEY = PointClusterRouter.IDEMPOTENCY_KEY;
+
     private final PointService pointService;
+    private final ObjectMapper objectMapper;
+    private final PointIdempotencyStore idempotencyStore;
+    private final PointClusterRouter pointClusterRouter;
 
     @GetMapping("{id}")
     public UserPoint point(@PathVariable long id) {
         return pointService.getUserPoint(id);
     }
 
+    /**
+     * 마지막으로 끝난 충전/사용의 포인트와 그때 남긴 마지막 내역 id (lock 없이 조회)
+     */
+    @GetMapping("{id}/committed")
+    public CommittedPoint committedPoint(@PathVariable long id) {
+        return pointService.getCommittedPoint(id);
+    }
+
+    /**
+     * 최근 요청이 몰리고 있는 사용자 목록
+     */
+    @GetMapping("hot-users")
+    public List<HotUser> hotUsers() {
+        return pointService.getHotUsers();
+    }
+
     @GetMapping("{id}/histories")
     public List<PointHistory> history(@PathVariable long id) {
         return pointService.getUserPointHistory(id);
     }
 
+    /**
+     * 충전/사용 합계, 건수, 마지막 충전/사용 시각 (내역 수와 관계없이 O(1))
+     */
+    @GetMapping("{id}/summary")
+    public PointSummary summary(@PathVariable long id) {
+        return pointService.getUserPointSummary(id);
+    }
+
+    /**
+     * limit 파라미터가 있으면 커서 기반 페이지로 조회한다.
+     */
+    @GetMapping(value = "{id}/histories", params = "limit")
+    public PointHistoryPage historyPage(
+            @PathVariable long id,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) TransactionType type
+    ) {
+        PointHistoryQuery query = new PointHistoryQuery(PointHistoryCursor.decode(cursor), limit, from, to, type);
+        return pointService.getUserPointHistoryPage(id, query);
+    }
+
+    /**
+     * 내보내기용 NDJSON 스트리밍 (한 줄에 내역 하나)
+     */
+    @GetMapping(value = "{id}/histories/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @PathVariable long id,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) TransactionType type
+    ) {
+        Stream<PointHistory> histories = pointService.streamUserPointHistory(id, new PointHistoryQuery(0L, EXPORT_FETCH_SIZE, from, to, type));
+
+        StreamingResponseBody body = outputStream -> {
+            try (histories; OutputStream out = new BufferedOutputStream(outputStream)) {
+                for (PointHistory pointHistory : (Iterable<PointHistory>) histories::iterator) {
+                    out.write(objectMapper.writeValueAsBytes(pointHistory));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().header("Content-Type", NDJSON).body(body);
+    }
+
+    /**
+     * Idempotency-Key 헤더가 있으면 같은 key 로 다시 보낸 요청은 처음 요청의 결과를 그대로 돌려받는다. (PointIdempotencyStore)
+     */
     @PatchMapping("{id}/charge")
-    public UserPoint charge(@PathVariable long id, @RequestBody long amount) {
-        return pointService.charge(id, amount);
+    public UserPoint charge(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey == null) {
+            return pointService.charge(id, amount);
+        }
+        return idempotencyStore.execute(idempotencyKey, PointCommand.charge(id, amount), () -> pointService.charge(id, amount));
     }
 
     @PatchMapping("{id}/use")
-    public UserPoint use(@PathVariable long id, @RequestBody long amount) {
-        return pointService.use(id, amount);
+    public UserPoint use(
+            @PathVariable long id,
+            @RequestBody long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey == null) {
+            return pointService.use(id, amount);
+        }
+        return idempotencyStore.execute(idempotencyKey, PointCommand.use(id, amount), () -> pointService.use(id, amount));
+    }
+
+    /**
+     * 일괄 충전/사용 - JSON 배열로 받아서 요청과 같은 순서의 결과 배열을 반환한다.
+     * (노드를 나누어 처리하면 다른 노드가 소유한 사용자의 요청은 소유 노드에서 처리한다)
+     * Idempotency-Key 가 있으면 같은 key 로 다시 요청해도 한 번만 처리한다.
+     */
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<PointBatchResult> batch(
+            @RequestBody List<PointCommand> commands,
+            @RequestHeader(value = PointClusterRouter.FORWARDED_HEADER, required = false) String forwarded,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey != null) {
+            idempotencyStore.validateKey(idempotencyKey);
+            idempotencyStore.validateBatch(commands.size());
+        }
+        return pointClusterRouter.batch(commands, forwarded != null, idempotencyKey, this::batchOnce);
+    }
+
+    /**
+     * 일괄 충전/사용 - NDJSON 으로 받아서 BATCH_CHUNK_SIZE 건씩 처리하고, 처리한 결과를 NDJSON 으로 바로 내려보낸다.
+     * (요청 전체를 메모리에 올리지 않으므로 건수 제한이 없다)
+     * Idempotency-Key 가 있으면 chunk 를 point.idempotency.max-batch-size 건 이하로 줄이고, chunk 마다 순번으로 만든 key 를 붙여서 처리한다.
+     */
+    @PostMapping(value = "batch", consumes = NDJSON, produces = NDJSON)
+    public void batchNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        boolean forwarded = request.getHeader(PointClusterRouter.FORWARDED_HEADER) != null;
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        int chunkSize = BATCH_CHUNK_SIZE;
+        if (idempotencyKey != null) {
+            idempotencyStore.validateKey(idempotencyKey);
+            chunkSize = Math.min(BATCH_CHUNK_SIZE, idempotencyStore.maxBatchSize());
+        }
+        try (BufferedReader reader = request.getReader(); OutputStream out = new BufferedOutputStream(response.getOutputStream())) {
+            List<PointCommand> chunk = new ArrayList<>(chunkSize);
+            int chunkIndex = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(objectMapper.readValue(line, PointCommand.class));
+                if (chunk.size() == chunkSize) {
+                    writeBatchResults(out, pointClusterRouter.batch(chunk, forwarded, PointClusterRouter.derivedKey(idempotencyKey, "chunk-" + chunkIndex++), this::batchOnce));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeBatchResults(out, pointClusterRouter.batch(chunk, forwarded, PointClusterRouter.derivedKey(idempotencyKey, "chunk-" + chunkIndex), this::batchOnce));
+            }
+        }
+    }
+
+    private List<PointBatchResult> batchOnce(List<PointCommand> commands, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return pointService.batch(commands);
+        }
+        return idempotencyStore.executeBatch(idempotencyKey, commands, () -> pointService.batch(commands));
+    }
+
+    private void writeBatchResults(OutputStream out, List<PointBatchResult> results) throws IOException {
+        for (PointBatchResult result : results) {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * 비동기 API - 요청 스레드는 작업을 등록하고 바로 반환되며, 응답은 작업이 끝난 뒤에 전송된다.
+     */
+    @GetMapping("{id}/async")
+    public CompletableFuture<UserPoint> pointAsync(@PathVariable long id) {
+        return pointService.getUserPointAsync(id);
+    }
+
+    @GetMapping("{id}/histories/async")
+    public CompletableFuture<List<PointHistory>> historyAsync(@PathVariable long id) {
+        return pointService.getUserPointHistoryAsync(id);
+    }
+
+    @PatchMapping("{id}/charge/async")
+    public CompletableFuture<UserPoint> chargeAsync(@PathVariable long id, @RequestBody long amount) {
+        return pointService.chargeAsync(id, amount);
+    }
+
+    @PatchMapping("{id}/use/async")
+    public CompletableFuture<UserPoint> useAsync(@PathVariable long id, @RequestBody long amount) {
+        return pointService.useAsync(id, amount);
     }
 }
@@ -0,0 +1,502 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 포인트 내역 보관 파일 (콜드 티어)
+ * - 보관 주기마다 메모리 인덱스에서 떼어 낸 오래된 내역을 세그먼트 파일 하나에 사용자 id 순서대로 쓴다.
+ *   사용자 별 블록은 내역을 [id 차이][종류 1 byte][금액][시각 차이] varint 로 인코딩한 뒤 deflate 로 압축한다.
+ * - 파일 끝의 디렉터리에 사용자 별 블록 위치와 요약(건수, 충전/사용 합계)을 두고, 기동 시에는 디렉터리만 읽어 메모리에 올린다.
+ *   magic(4) | version(4) | 블록... | 디렉터리(DIRECTORY_ENTRY_SIZE x userCount) | directoryOffset(8) | userCount(4) | crc32c(4) | magic(4)
+ * - 파일 이름은 들어 있는 가장 큰 내역 id 라서, 이름 순으로 읽으면 사용자 별 블록이 id 순서로 쌓인다.
+ * - 조회할 때는 필요한 블록만 읽어 압축을 풀면서 내역을 하나씩 만든다.
+ * - 보관 파일로 옮긴 내역도 스냅샷이 저널 세그먼트를 지우기 전까지는 저널에 남아 있다. 깨진 파일이 있으면 그 파일부터는 읽지 않고,
+ *   그 내역은 저널에 남아 있는 만큼 복구해 메모리 인덱스에 둔다. (스냅샷은 보관 파일로 옮긴 내역을 남기지 않는다)
+ */
+@Component
+public class PointHistoryArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryArchive.class);
+
+    private static final String SEGMENT_SUFFIX = ".archive";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x50484152; // "PHAR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    // userId(8) | offset(8) | length(4) | crc32c(4) | count(8) | firstId(8) | lastId(8) | totalCharged(8) | totalUsed(8)
+    private static final int DIRECTORY_ENTRY_SIZE = 64;
+    private static final int TRAILER_SIZE = 20;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final HistoryRetentionProperties properties;
+
+    private final ConcurrentHashMap<Long, UserArchive> users = new ConcurrentHashMap<>();
+    private final List<FileChannel> channels = new CopyOnWriteArrayList<>();
+
+    public PointHistoryArchive(HistoryRetentionProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        List<Path> files = segmentFiles();
+        for (Path file : files) {
+            try {
+                load(file);
+            } catch (IOException e) {
+                log.error("failed to read point history archive, ignoring it and the newer ones. file={}", file, e);
+                break;
+            }
+        }
+        log.info("point history archive opened. segments={}, users={}, elapsed={}ms",
+                channels.size(), users.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (FileChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("failed to close point history archive", e);
+            }
+        }
+        channels.clear();
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * 보관 파일로 옮긴 사용자의 가장 큰 내역 id (없으면 0). 이 id 이하의 내역은 메모리 인덱스가 아닌 보관 파일에서 읽는다.
+     */
+    public long archivedUpTo(long userId) {
+        UserArchive userArchive = users.get(userId);
+        return userArchive != null ? userArchive.lastId() : 0L;
+    }
+
+    /**
+     * afterId 보다 뒤의 보관된 내역을 id 순서대로 읽는 iterator (블록은 다음 내역이 필요할 때 읽는다)
+     */
+    public Iterator<PointHistory> iterator(long userId, long afterId) {
+        UserArchive userArchive = users.get(userId);
+        if (userArchive == null || userArchive.lastId() <= afterId) {
+            return Collections.emptyIterator();
+        }
+        return new BlockIterator(userId, afterId, userArchive.blocks().iterator());
+    }
+
+    public SegmentWriter newSegment() {
+        try {
+            Files.createDirectories(properties.directory());
+            return new SegmentWriter(properties.directory().resolve(System.nanoTime() + SEGMENT_SUFFIX + TEMPORARY_SUFFIX));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to create point history archive", e);
+        }
+    }
+
+    /**
+     * 디스크에 반영된 블록을 조회 대상에 추가한다.
+     */
+    public void register(Block block) {
+        users.merge(block.userId(), UserArchive.of(block), UserArchive::append);
+    }
+
+    private void load(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("truncated point history archive");
+            }
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("unsupported point history archive");
+            }
+
+            ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            long directoryOffset = trailer.getLong();
+            int userCount = trailer.getInt();
+            int checksum = trailer.getInt();
+            if (trailer.getInt() != MAGIC || directoryOffset + (long) userCount * DIRECTORY_ENTRY_SIZE != size - TRAILER_SIZE) {
+                throw new IOException("corrupted point history archive");
+            }
+
+            ByteBuffer directory = readFully(channel, directoryOffset, userCount * DIRECTORY_ENTRY_SIZE);
+            CRC32C crc = new CRC32C();
+            crc.update(directory.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("point history archive checksum mismatch");
+            }
+
+            List<Block> blocks = new ArrayList<>(userCount);
+            for (int i = 0; i < userCount; i++) {
+                long userId = directory.getLong();
+                long offset = directory.getLong();
+                int length = directory.getInt();
+                int blockChecksum = directory.getInt();
+                long count = directory.getLong();
+                long firstId = directory.getLong();
+                long lastId = directory.getLong();
+                ArchivedHistorySummary summary = new ArchivedHistorySummary(count, directory.getLong(), directory.getLong());
+                blocks.add(new Block(userId, channel, offset, length, blockChecksum, summary, firstId, lastId));
+            }
+            blocks.forEach(this::register);
+            channels.add(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private List<Path> segmentFiles() {
+        if (!Files.isDirectory(properties.directory())) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            List<Path> segments = new ArrayList<>();
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX + TEMPORARY_SUFFIX)) {
+                    // 쓰다가 멈춘 파일
+                    Files.deleteIfExists(file);
+                }
+            }
+            segments.sort(Comparator.comparing(Path::getFileName));
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to list point history archives", e);
+        }
+    }
+
+    private static byte[] encode(List<PointHistory> histories) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new BufferedOutputStream(new DeflaterOutputStream(bytes))) {
+            long lastId = 0;
+            long lastMillis = 0;
+            for (PointHistory pointHistory : histories) {
+                writeVarLong(out, pointHistory.id() - lastId);
+                out.write(pointHistory.type().ordinal());
+                writeVarLong(out, zigzag(pointHistory.amount()));
+                writeVarLong(out, zigzag(pointHistory.updateMillis() - lastMillis));
+                lastId = pointHistory.id();
+                lastMillis = pointHistory.updateMillis();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new IOException("unexpected end of point history archive block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of point history archive");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 세그먼트 파일 안의 한 사용자 내역 블록
+     */
+    public record Block(
+            long userId,
+            FileChannel channel,
+            long offset,
+            int length,
+            int checksum,
+            ArchivedHistorySummary summary,
+            long firstId,
+            long lastId
+    ) {
+    }
+
+    private record UserArchive(List<Block> blocks, long lastId) {
+
+        static UserArchive of(Block block) {
+            return new UserArchive(List.of(block), block.lastId());
+        }
+
+        UserArchive append(UserArchive other) {
+            List<Block> merged = new ArrayList<>(blocks.size() + other.blocks.size());
+            merged.addAll(blocks);
+            merged.addAll(other.blocks);
+            return new UserArchive(List.copyOf(merged), Math.max(lastId, other.lastId));
+        }
+    }
+
+    /**
+     * 세그먼트 파일 하나를 쓴다. 사용자 id 오름차순으로 append 한 뒤 commit 한다.
+     */
+    public final class SegmentWriter implements AutoCloseable {
+
+        private final Path temporary;
+        private final FileChannel channel;
+        private final List<Block> blocks = new ArrayList<>();
+        private long position = HEADER_SIZE;
+        private long maxId = 0;
+        private boolean committed = false;
+
+        private SegmentWriter(Path temporary) throws IOException {
+            this.temporary = temporary;
+            this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+        }
+
+        /**
+         * 한 사용자의 내역(id 오름차순)을 블록 하나로 압축해 쓴다.
+         */
+        public void append(long userId, List<PointHistory> histories) {
+            long totalCharged = 0;
+            long totalUsed = 0;
+            for (PointHistory pointHistory : histories) {
+                if (pointHistory.type() == TransactionType.CHARGE) {
+                    totalCharged += pointHistory.amount();
+                } else {
+                    totalUsed += pointHistory.amount();
+                }
+            }
+
+            try {
+                byte[] block = encode(histories);
+                CRC32C crc = new CRC32C();
+                crc.update(block);
+                writeFully(channel, ByteBuffer.wrap(block));
+                blocks.add(new Block(userId, null, position, block.length, (int) crc.getValue(),
+                        new ArchivedHistorySummary(histories.size(), totalCharged, totalUsed),
+                        histories.getFirst().id(), histories.getLast().id()));
+                position += block.length;
+                maxId = Math.max(maxId, histories.getLast().id());
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to write point history archive", e);
+            }
+        }
+
+        public int userCount() {
+            return blocks.size();
+        }
+
+        public long bytes() {
+            return position + (long) blocks.size() * DIRECTORY_ENTRY_SIZE + TRAILER_SIZE;
+        }
+
+        /**
+         * 디렉터리를 쓰고 디스크에 반영한 뒤 이름을 바꾼다. 쓰다가 죽어도 온전하지 않은 세그먼트가 남지 않는다.
+         * @return 조회 대상에 추가할 블록 (register 는 호출하는 쪽에서 메모리 인덱스와 함께 바꾼다)
+         */
+        public List<Block> commit() {
+            if (blocks.isEmpty()) {
+                close();
+                return List.of();
+            }
+
+            try {
+                ByteBuffer directory = ByteBuffer.allocate(blocks.size() * DIRECTORY_ENTRY_SIZE);
+                for (Block block : blocks) {
+                    directory.putLong(block.userId())
+                            .putLong(block.offset())
+                            .putInt(block.length())
+                            .putInt(block.checksum())
+                            .putLong(block.summary().count())
+                            .putLong(block.firstId())
+                            .putLong(block.lastId())
+                            .putLong(block.summary().totalCharged())
+                            .putLong(block.summary().totalUsed());
+                }
+                directory.flip();
+                CRC32C crc = new CRC32C();
+                crc.update(directory.duplicate());
+                writeFully(channel, directory);
+                writeFully(channel, ByteBuffer.allocate(TRAILER_SIZE)
+                        .putLong(position)
+                        .putInt(blocks.size())
+                        .putInt((int) crc.getValue())
+                        .putInt(MAGIC)
+                        .flip());
+                channel.force(true);
+                channel.close();
+
+                Path file = temporary.resolveSibling(String.format("%020d%s", maxId, SEGMENT_SUFFIX));
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                committed = true;
+                FileChannel reader = FileChannel.open(file, StandardOpenOption.READ);
+                channels.add(reader);
+                return blocks.stream()
+                        .map(block -> new Block(block.userId(), reader, block.offset(), block.length(), block.checksum(), block.summary(), block.firstId(), block.lastId()))
+                        .toList();
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to write point history archive", e);
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+                if (!committed) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException e) {
+                log.warn("failed to clean up point history archive. file={}", temporary, e);
+            }
+        }
+    }
+
+    private static final class BlockIterator implements Iterator<PointHistory> {
+
+        private final long userId;
+        private final long afterId;
+        private final Iterator<Block> blocks;
+
+        private InputStream input;
+        private long remaining = 0;
+        private long id;
+        private long updateMillis;
+        private PointHistory next;
+
+        BlockIterator(long userId, long afterId, Iterator<Block> blocks) {
+            this.userId = userId;
+            this.afterId = afterId;
+            this.blocks = blocks;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    if (remaining == 0 && !openNextBlock()) {
+                        return false;
+                    }
+                    id += readVarLong(input);
+                    TransactionType type = TYPES[input.read()];
+                    long amount = unzigzag(readVarLong(input));
+                    updateMillis += unzigzag(readVarLong(input));
+                    remaining--;
+                    if (id > afterId) {
+                        next = new PointHistory(id, userId, amount, type, updateMillis);
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                log.error("failed to read point history archive. userId={}", userId, e);
+                throw new PointException(PointErrorCode.HISTORY_ARCHIVE_READ_FAILED);
+            }
+        }
+
+        @Override
+        public PointHistory next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            PointHistory pointHistory = next;
+            next = null;
+            return pointHistory;
+        }
+
+        private boolean openNextBlock() throws IOException {
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+            while (blocks.hasNext()) {
+                Block block = blocks.next();
+                if (block.lastId() <= afterId) {
+                    continue;
+                }
+
+                ByteBuffer compressed = readFully(block.channel(), block.offset(), block.length());
+                CRC32C crc = new CRC32C();
+                crc.update(compressed.duplicate());
+                if ((int) crc.getValue() != block.checksum()) {
+                    throw new IOException("point history archive block checksum mismatch");
+                }
+                input = new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed.array())));
+                remaining = block.summary().count();
+                id = 0;
+                updateMillis = 0;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * 포인트 내역 페이지 커서
+ * - 마지막으로 내려준 PointHistory.id 를 base64url 로 감싸서 클라이언트에게는 불투명한 문자열로 전달한다.
+ */
+public final class PointHistoryCursor {
+
+    private PointHistoryCursor() {
+    }
+
+    public static String encode(long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new PointException(PointErrorCode.INVALID_HISTORY_CURSOR);
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new PointException(PointErrorCode.INVALID_HISTORY_CURSOR);
+        }
+    }
+}
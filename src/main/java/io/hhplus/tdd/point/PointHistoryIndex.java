@@ -0,0 +1,155 @@
+package io.hhplus.tdd.point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 사용자 별 포인트 내역 인덱스
+ * - 사용자 id 마다 append-only 리스트를 두고, 저장되는 내역을 id 오름차순으로 쌓는다.
+ * - 조회는 전체 내역을 훑지 않고 해당 사용자의 내역 수에 비례하는 비용만 든다.
+ * - 사용자 별 내역은 type 에 따라 PointHistory 리스트(LIST) 또는 압축된 byte 청크(COMPACT, CompactUserHistories)에 담는다.
+ */
+public class PointHistoryIndex {
+
+    private final ConcurrentHashMap<Long, UserHistories> index = new ConcurrentHashMap<>();
+    private final HistoryStoreProperties.Type type;
+
+    public PointHistoryIndex(HistoryStoreProperties.Type type) {
+        this.type = type;
+    }
+
+    public void append(PointHistory pointHistory) {
+        index.computeIfAbsent(pointHistory.userId(), this::newUserHistories)
+                .append(pointHistory);
+    }
+
+    public List<PointHistory> selectAllByUserId(long userId) {
+        UserHistories histories = index.get(userId);
+        if (histories == null) {
+            return List.of();
+        }
+        return histories.snapshot();
+    }
+
+    /**
+     * 커서 이후의 내역 중 조건에 맞는 것을 최대 query.limit() + 1 개까지 반환한다.
+     * (limit + 1 번째 내역은 다음 페이지 존재 여부 판단용)
+     */
+    public List<PointHistory> selectPage(long userId, PointHistoryQuery query) {
+        UserHistories histories = index.get(userId);
+        if (histories == null) {
+            return List.of();
+        }
+        return histories.page(query);
+    }
+
+    public int userCount() {
+        return index.size();
+    }
+
+    public long[] userIds() {
+        return index.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * 사용자의 가장 오래된 내역부터 updateMillis 가 cutoffMillis 보다 이른 내역까지 (보관 파일로 옮길 앞부분)
+     */
+    public List<PointHistory> selectOlderThan(long userId, long cutoffMillis) {
+        UserHistories histories = index.get(userId);
+        if (histories == null) {
+            return List.of();
+        }
+        return histories.olderThan(cutoffMillis);
+    }
+
+    /**
+     * id 가 lastId 이하인 내역을 인덱스에서 지운다. (보관 파일로 옮긴 뒤 호출한다)
+     */
+    public void removeUpTo(long userId, long lastId) {
+        UserHistories histories = index.get(userId);
+        if (histories != null) {
+            histories.removeUpTo(lastId);
+        }
+    }
+
+    private UserHistories newUserHistories(long userId) {
+        return switch (type) {
+            case LIST -> new ListUserHistories();
+            case COMPACT -> new CompactUserHistories(userId);
+        };
+    }
+
+    /**
+     * 한 사용자의 내역 (id 오름차순으로 append 된다)
+     */
+    interface UserHistories {
+
+        void append(PointHistory pointHistory);
+
+        List<PointHistory> snapshot();
+
+        List<PointHistory> page(PointHistoryQuery query);
+
+        List<PointHistory> olderThan(long cutoffMillis);
+
+        void removeUpTo(long lastId);
+    }
+
+    private static final class ListUserHistories implements UserHistories {
+
+        private List<PointHistory> histories = new ArrayList<>();
+
+        @Override
+        public synchronized void append(PointHistory pointHistory) {
+            histories.add(pointHistory);
+        }
+
+        @Override
+        public synchronized List<PointHistory> snapshot() {
+            return List.copyOf(histories);
+        }
+
+        @Override
+        public synchronized List<PointHistory> page(PointHistoryQuery query) {
+            List<PointHistory> page = new ArrayList<>(Math.min(query.limit() + 1, histories.size()));
+            for (int i = firstIndexAfter(query.afterId()); i < histories.size() && page.size() <= query.limit(); i++) {
+                PointHistory pointHistory = histories.get(i);
+                if (query.matches(pointHistory)) {
+                    page.add(pointHistory);
+                }
+            }
+            return page;
+        }
+
+        @Override
+        public synchronized List<PointHistory> olderThan(long cutoffMillis) {
+            int count = 0;
+            while (count < histories.size() && histories.get(count).updateMillis() < cutoffMillis) {
+                count++;
+            }
+            return List.copyOf(histories.subList(0, count));
+        }
+
+        @Override
+        public synchronized void removeUpTo(long lastId) {
+            // 남은 내역만 새 리스트로 옮겨 지운 자리의 배열도 돌려준다.
+            histories = new ArrayList<>(histories.subList(firstIndexAfter(lastId), histories.size()));
+        }
+
+        // id 오름차순으로 쌓이므로 이진 탐색으로 커서 위치를 찾는다.
+        private int firstIndexAfter(long afterId) {
+            int low = 0;
+            int high = histories.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (histories.get(mid).id() <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
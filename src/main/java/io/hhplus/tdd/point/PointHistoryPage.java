@@ -0,0 +1,13 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+
+/**
+ * 포인트 내역 페이지
+ * - nextCursor : 다음 페이지 조회에 사용할 커서 (마지막 페이지이면 null)
+ */
+public record PointHistoryPage(
+        List<PointHistory> histories,
+        String nextCursor
+) {
+}
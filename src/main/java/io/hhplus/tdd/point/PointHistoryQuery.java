@@ -0,0 +1,38 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 내역 페이지 조회 조건
+ * - afterId : 이 id 보다 뒤의 내역부터 조회 (커서, 0 이면 처음부터)
+ * - limit : 한 페이지의 최대 내역 수
+ * - from, to : updateMillis 범위 [from, to) (null 이면 제한 없음)
+ * - type : 트랜잭션 종류 (null 이면 전체)
+ */
+public record PointHistoryQuery(
+        long afterId,
+        int limit,
+        Long from,
+        Long to,
+        TransactionType type
+) {
+
+    public boolean matches(PointHistory pointHistory) {
+        return matches(pointHistory.type(), pointHistory.updateMillis());
+    }
+
+    /**
+     * PointHistory 를 만들기 전에 종류와 시각만으로 조건을 확인한다.
+     */
+    public boolean matches(TransactionType type, long updateMillis) {
+        if (this.type != null && type != this.type) {
+            return false;
+        }
+        if (from != null && updateMillis < from) {
+            return false;
+        }
+        return to == null || updateMillis < to;
+    }
+
+    public PointHistoryQuery after(long id) {
+        return new PointHistoryQuery(id, limit, from, to, type);
+    }
+}
@@ -1,22 +1,527 @@
 package io.hhplus.tdd.point;
 
 import io.hhplus.tdd.database.PointHistoryTable;
-import lombok.RequiredArgsConstructor;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
+/**
+ * 포인트 내역 저장소
+ * - write-behind 가 켜져 있으면 insert 는 대기열에 적재만 하고, 백그라운드 writer 가 PointHistoryTable 에 배치로 저장한다.
+ * - 대기열에 적재되는 순간 id 를 부여하며, writer 가 단일 스레드로 같은 순서대로 저장하므로 테이블이 부여하는 id 와 일치한다.
+ * - 대기열의 자리는 잔액을 저장하기 전에 reserve 로 잡아 두고 insert 가 채운다. 대기열에 있는 내역과 잡아 둔 자리를 합해 queueCapacity 를 넘지 않는다.
+ * - 저장되는 모든 내역은 사용자 별 인덱스에도 쌓이며, 조회는 테이블 전체를 훑지 않고 인덱스에서 해당 사용자의 내역만 읽는다.
+ *   아직 테이블에 저장되지 않은 내역도 인덱스에는 들어 있으므로 read-your-writes 가 보장된다.
+ * - 인덱스가 사용자 별 내역을 담는 방식(객체 리스트 / 압축)은 point.history.store.type 으로 고른다.
+ * - 저널이 켜져 있으면 id 부여와 저널 기록을 pendingLock 안에서 함께 해서 저널의 순번이 곧 id 가 되고(write-behind 여부와 관계없이),
+ *   기동 시 스냅샷과 저널에서 복구한 내역은 인덱스에만 채운다. (테이블은 조회에 쓰이지 않으므로 다시 채우지 않는다)
+ * - 보관(retention)이 켜져 있으면 오래된 내역은 PointHistoryArchive 로 옮기고, 조회는 보관 파일(id 가 작은 쪽) 다음에 인덱스를 이어 읽는다.
+ *   사용자 별로 보관 파일에 옮긴 마지막 id 까지는 인덱스에 남아 있어도 읽지 않으므로, 옮기는 도중에도 내역이 겹치거나 빠지지 않는다.
+ * - 사용자 별 집계(PointSummary)는 내역을 저장할 때마다 함께 갱신하고, 기동 시에는 스냅샷의 집계에 저널에서 복구하는 내역을 다시 쌓는다.
+ *   (보관 파일로 옮긴 내역도 포함하며, 조회는 내역 수와 관계없이 map 조회 한 번이다)
+ */
 @Repository
-@RequiredArgsConstructor
 public class PointHistoryRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryRepository.class);
+
     private final PointHistoryTable pointHistoryTable;
+    private final HistoryWriteBehindProperties properties;
+    private final PointJournal pointJournal;
+
+    // 아직 테이블에 저장되지 않은 내역 (id 오름차순)
+    private final Deque<PointHistory> pending = new ArrayDeque<>();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final Condition notEmpty = pendingLock.newCondition();
+    private final Condition notFull = pendingLock.newCondition();
+    // 테이블은 thread-safe 하지 않으므로 lock 을 잡고 한 번에 하나씩 저장한다. (write-behind writer 는 한 스레드라 쓰지 않는다)
+    private final ReentrantLock tableLock = new ReentrantLock();
+    private long sequence = 0;
+    private volatile long restoredCount = 0;
+    // 잔액을 저장하기 전에 잡아 두었지만 아직 대기열에 넣지 않은 자리 수
+    private int reserved = 0;
+
+    private final PointHistoryIndex index;
+    private final ConcurrentHashMap<Long, PointSummary> summaries = new ConcurrentHashMap<>();
+    private final PointHistoryArchive pointHistoryArchive;
+
+    // 보관 파일 등록 + 인덱스에서 지우기(write) 와 두 곳을 이어 읽는 조회(optimistic read) 사이의 일관성
+    private final StampedLock tierLock = new StampedLock();
+
+    private volatile boolean running = false;
+    private volatile boolean aborted = false;
+    private Thread writer;
+
+    public PointHistoryRepository(
+            PointHistoryTable pointHistoryTable,
+            HistoryWriteBehindProperties properties,
+            PointJournal pointJournal,
+            HistoryStoreProperties storeProperties,
+            PointHistoryArchive pointHistoryArchive
+    ) {
+        this.pointHistoryTable = pointHistoryTable;
+        this.properties = properties;
+        this.pointJournal = pointJournal;
+        this.index = new PointHistoryIndex(storeProperties.type());
+        this.pointHistoryArchive = pointHistoryArchive;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled() || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "point-history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 종료 시 대기열에 남은 내역을 shutdownTimeout 동안 테이블에 저장한다.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        pendingLock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            pendingLock.unlock();
+        }
+
+        try {
+            writer.join(Math.max(1, properties.shutdownTimeout().toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("point history write-behind flush timed out, {} histories not saved", pendingCount());
+            aborted = true;
+            writer.interrupt();
+        }
+    }
 
     public List<PointHistory> selectAllByuserId(long id) {
-        return pointHistoryTable.selectAllByUserId(id);
+        if (!isArchiving()) {
+            return index.selectAllByUserId(id);
+        }
+        return List.copyOf(fetchPage(id, new PointHistoryQuery(0L, Integer.MAX_VALUE - 1, null, null, null)));
+    }
+
+    public PointHistoryPage selectPage(long id, PointHistoryQuery query) {
+        List<PointHistory> histories = fetchPage(id, query);
+        if (histories.size() <= query.limit()) {
+            return new PointHistoryPage(histories, null);
+        }
+
+        List<PointHistory> page = histories.subList(0, query.limit());
+        return new PointHistoryPage(page, PointHistoryCursor.encode(page.get(page.size() - 1).id()));
+    }
+
+    /**
+     * 조건에 맞는 내역을 페이지 단위로 읽어오는 lazy stream (전체 내역을 한 번에 리스트로 만들지 않는다)
+     */
+    public Stream<PointHistory> stream(long id, PointHistoryQuery query) {
+        return Stream.iterate(
+                        fetchPage(id, query),
+                        histories -> !histories.isEmpty(),
+                        histories -> histories.size() <= query.limit()
+                                ? List.of()
+                                : fetchPage(id, query.after(histories.get(query.limit() - 1).id())))
+                .flatMap(histories -> histories.stream().limit(query.limit()));
     }
 
+    /**
+     * 사용자 별 충전/사용 합계, 건수, 마지막 충전/사용 시각 (내역이 없으면 모두 0)
+     */
+    public PointSummary selectSummary(long id) {
+        PointSummary summary = summaries.get(id);
+        return summary != null ? summary : PointSummary.empty(id);
+    }
+
+    /**
+     * 보관은 저널이 켜져 있을 때만 동작한다.
+     * (보관 파일로 옮긴 내역의 id 이후로 새 id 를 부여해야 하는데, 저널 없이 재시작하면 id 가 1 부터 다시 시작한다)
+     */
+    public boolean isArchiving() {
+        return pointHistoryArchive.isEnabled() && pointJournal.isEnabled();
+    }
+
+    /**
+     * 사용자 별로 updateMillis 가 cutoffMillis 보다 이른 앞부분의 내역을 보관 파일 하나로 옮기고 인덱스에서 지운다.
+     * 파일을 디스크에 반영한 뒤에 사용자 별로 보관 파일 등록과 인덱스에서 지우기를 한 번에 한다.
+     * @return 옮긴 세그먼트 정보 (옮긴 내역이 없으면 사용자 수 0)
+     */
+    public ArchiveResult archiveOlderThan(long cutoffMillis) {
+        if (!isArchiving()) {
+            return new ArchiveResult(0, 0L, 0L);
+        }
+
+        long[] userIds = index.userIds();
+        Arrays.sort(userIds);
+        List<PointHistoryArchive.Block> blocks;
+        long bytes;
+        try (PointHistoryArchive.SegmentWriter writer = pointHistoryArchive.newSegment()) {
+            for (long userId : userIds) {
+                List<PointHistory> histories = index.selectOlderThan(userId, cutoffMillis);
+                if (!histories.isEmpty()) {
+                    writer.append(userId, histories);
+                }
+            }
+            bytes = writer.bytes();
+            blocks = writer.commit();
+        }
+
+        long count = 0;
+        for (PointHistoryArchive.Block block : blocks) {
+            long stamp = tierLock.writeLock();
+            try {
+                pointHistoryArchive.register(block);
+                index.removeUpTo(block.userId(), block.lastId());
+            } finally {
+                tierLock.unlockWrite(stamp);
+            }
+            count += block.summary().count();
+        }
+        return new ArchiveResult(blocks.size(), count, blocks.isEmpty() ? 0L : bytes);
+    }
+
+    /**
+     * 대기열에 count 개의 자리를 잡는다. 자리가 날 때까지 기다리거나(BLOCK) 즉시 거절한다(REJECT).
+     * 잔액을 변경하기 전에 호출해서, 잔액만 바뀌고 내역이 거절되는 일이 없도록 한다.
+     * 잡아 둔 자리는 insert 가 하나씩 채우고, 채우지 못한 자리는 release 로 돌려준다.
+     */
+    public void reserve(int count) {
+        if (!running) {
+            return;
+        }
+
+        pendingLock.lock();
+        try {
+            awaitCapacity(count);
+            reserved += count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PointException(PointErrorCode.HISTORY_QUEUE_FULL);
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * reserve 로 잡았지만 insert 하지 못한 자리를 돌려준다. (잔액이나 내역 저장에 실패했을 때)
+     */
+    public void release(int count) {
+        if (count <= 0) {
+            return;
+        }
+
+        pendingLock.lock();
+        try {
+            reserved = Math.max(0, reserved - count);
+            notFull.signalAll();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * 잡아 둔 자리가 있으면 그 자리를 채우고, 없으면 같은 lock 안에서 자리가 날 때까지 기다린 뒤 대기열에 넣는다.
+     */
     public PointHistory insert(PointHistory pointHistory) {
-        return pointHistoryTable.insert(pointHistory.userId(), pointHistory.amount(), pointHistory.type(), pointHistory.updateMillis());
+        if (!running && pointJournal.isEnabled()) {
+            return insertJournaled(pointHistory);
+        }
+        if (!running) {
+            tableLock.lock();
+            try {
+                PointHistory saved = pointHistoryTable.insert(pointHistory.userId(), pointHistory.amount(), pointHistory.type(), pointHistory.updateMillis());
+                if (restoredCount > 0) {
+                    saved = new PointHistory(saved.id() + restoredCount, saved.userId(), saved.amount(), saved.type(), saved.updateMillis());
+                }
+                index.append(saved);
+                summarize(saved);
+                return saved;
+            } finally {
+                tableLock.unlock();
+            }
+        }
+
+        pendingLock.lock();
+        try {
+            boolean reservedSlot = reserved > 0;
+            if (!reservedSlot) {
+                awaitCapacity(1);
+            }
+            PointHistory queued = assignId(pointHistory);
+            if (reservedSlot) {
+                reserved--;
+            }
+            pending.addLast(queued);
+            index.append(queued);
+            summarize(queued);
+            notEmpty.signal();
+            return queued;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PointException(PointErrorCode.HISTORY_QUEUE_FULL);
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * write-behind 가 꺼져 있고 저널이 켜져 있을 때의 저장
+     * id 부여와 저널 기록을 한 lock 안에서 해서 저널의 순번이 곧 id 가 되게 하고(복구하면 같은 id 로 돌아온다),
+     * 조회에 쓰지 않는 테이블 저장은 pendingLock 밖에서 tableLock 을 잡고 한다. (테이블이 부여하는 id 는 쓰지 않는다)
+     * 저널에 기록된 내역은 이미 확정되었으므로, 테이블 저장에 실패해도 실패로 돌리지 않는다. (재시작하면 저널에서 복구된다)
+     */
+    private PointHistory insertJournaled(PointHistory pointHistory) {
+        PointHistory journaled;
+        pendingLock.lock();
+        try {
+            journaled = assignId(pointHistory);
+            index.append(journaled);
+            summarize(journaled);
+        } finally {
+            pendingLock.unlock();
+        }
+        tableLock.lock();
+        try {
+            pointHistoryTable.insert(journaled.userId(), journaled.amount(), journaled.type(), journaled.updateMillis());
+        } catch (RuntimeException e) {
+            log.warn("failed to copy journaled point history {} to the table", journaled, e);
+        } finally {
+            tableLock.unlock();
+        }
+        return journaled;
+    }
+
+    /**
+     * pendingLock 을 잡은 상태에서 호출한다. 다음 id 를 부여하고 저널이 켜져 있으면 기록한다.
+     * 저널 기록에 실패하면 id 를 올리지 않으므로, 다음 내역이 같은 id(저널의 다음 순번)를 받는다.
+     */
+    private PointHistory assignId(PointHistory pointHistory) {
+        PointHistory assigned = new PointHistory(sequence + 1, pointHistory.userId(), pointHistory.amount(), pointHistory.type(), pointHistory.updateMillis());
+        if (pointJournal.isEnabled()) {
+            long journaled = pointJournal.append(assigned);
+            if (journaled != assigned.id()) {
+                throw new IllegalStateException("point journal diverged from history ids. sequence=" + journaled + ", historyId=" + assigned.id());
+            }
+        }
+        sequence = assigned.id();
+        return assigned;
+    }
+
+    /**
+     * pendingLock 을 잡은 상태에서 호출한다. 대기열의 내역과 잡아 둔 자리에 count 개를 더해도 queueCapacity 를 넘지 않을 때까지 기다린다.
+     * (queueCapacity 보다 큰 묶음은 대기열과 잡아 둔 자리가 모두 비었을 때 받는다)
+     */
+    private void awaitCapacity(int count) throws InterruptedException {
+        while (pending.size() + reserved > 0 && pending.size() + reserved + count > properties.queueCapacity()) {
+            if (properties.backpressure() == HistoryWriteBehindProperties.Backpressure.REJECT) {
+                throw new PointException(PointErrorCode.HISTORY_QUEUE_FULL);
+            }
+            notFull.await();
+        }
+    }
+
+    /**
+     * 지금까지 저장한 내역이 저널에 디스크까지 반영될 때까지 기다린다.
+     * 사용자 lock 을 놓은 뒤, 응답하기 전에 호출한다.
+     */
+    public void awaitDurable() {
+        if (pointJournal.isEnabled()) {
+            pointJournal.awaitDurable(pointJournal.appendedSequence());
+        }
+    }
+
+    /**
+     * 스냅샷에 남긴 내역과 사용자 별 집계를 채운다. 기동 시 스냅샷 이후의 저널 기록을 restore 하기 전에 호출한다.
+     * (집계는 보관 파일로 옮겨 스냅샷에 남기지 않은 내역까지 포함한다)
+     */
+    public void restore(PointSnapshot snapshot) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            PointSummary summary = snapshot.summary(i);
+            summaries.put(summary.userId(), summary);
+        }
+        snapshot.forEachHistory(pointHistory -> {
+            if (!isArchiving() || pointHistory.id() > pointHistoryArchive.archivedUpTo(pointHistory.userId())) {
+                index.append(pointHistory);
+            }
+        });
+        pendingLock.lock();
+        try {
+            sequence = snapshot.sequence();
+            restoredCount = snapshot.sequence();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * 저널에서 읽은 내역을 인덱스에 채운다. 기동 시 내역을 저장하기 전에 id 순서대로 호출한다.
+     */
+    public void restore(PointHistory pointHistory) {
+        // 보관 파일로 옮긴 내역은 인덱스에 다시 올리지 않는다.
+        if (!isArchiving() || pointHistory.id() > pointHistoryArchive.archivedUpTo(pointHistory.userId())) {
+            index.append(pointHistory);
+        }
+        summarize(pointHistory);
+        pendingLock.lock();
+        try {
+            sequence = pointHistory.id();
+            restoredCount = pointHistory.id();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * 복제 노드가 원본 노드에서 받은 내역을 id 순서대로 채운다. (PointReplica)
+     * 저널이 켜져 있으면 원본과 같은 순번으로 기록해서, 재시작하면 저널로 복구하고 이어서 받는다.
+     */
+    public void replicate(PointHistory pointHistory) {
+        if (pointJournal.isEnabled()) {
+            long sequence = pointJournal.append(pointHistory);
+            if (sequence != pointHistory.id()) {
+                throw new IllegalStateException("replica journal diverged from primary. sequence=" + sequence + ", historyId=" + pointHistory.id());
+            }
+        }
+        restore(pointHistory);
+    }
+
+    public int pendingCount() {
+        pendingLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private void summarize(PointHistory pointHistory) {
+        summaries.compute(pointHistory.userId(), (userId, summary) -> (summary != null ? summary : PointSummary.empty(userId)).plus(pointHistory));
+    }
+
+    /**
+     * 커서 이후의 내역 중 조건에 맞는 것을 최대 query.limit() + 1 개까지, 보관 파일 다음에 인덱스 순서로 읽는다.
+     */
+    private List<PointHistory> fetchPage(long id, PointHistoryQuery query) {
+        if (!isArchiving()) {
+            return index.selectPage(id, query);
+        }
+
+        long stamp = tierLock.tryOptimisticRead();
+        List<PointHistory> page = fetchPageFromTiers(id, query);
+        if (tierLock.validate(stamp)) {
+            return page;
+        }
+
+        stamp = tierLock.readLock();
+        try {
+            return fetchPageFromTiers(id, query);
+        } finally {
+            tierLock.unlockRead(stamp);
+        }
+    }
+
+    private List<PointHistory> fetchPageFromTiers(long id, PointHistoryQuery query) {
+        long archivedUpTo = pointHistoryArchive.archivedUpTo(id);
+        if (query.afterId() >= archivedUpTo) {
+            return index.selectPage(id, query);
+        }
+
+        List<PointHistory> page = new ArrayList<>();
+        Iterator<PointHistory> archived = pointHistoryArchive.iterator(id, query.afterId());
+        while (page.size() <= query.limit() && archived.hasNext()) {
+            PointHistory pointHistory = archived.next();
+            if (query.matches(pointHistory)) {
+                page.add(pointHistory);
+            }
+        }
+        if (page.size() <= query.limit()) {
+            List<PointHistory> recent = index.selectPage(id, query.after(archivedUpTo));
+            page.addAll(recent.subList(0, Math.min(recent.size(), query.limit() + 1 - page.size())));
+        }
+        return page;
+    }
+
+    private void drain() {
+        List<PointHistory> batch = new ArrayList<>(properties.batchSize());
+        while (true) {
+            pendingLock.lock();
+            try {
+                while (pending.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    notEmpty.await(100, TimeUnit.MILLISECONDS);
+                }
+                for (PointHistory pointHistory : pending) {
+                    if (batch.size() == properties.batchSize()) {
+                        break;
+                    }
+                    batch.add(pointHistory);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                pendingLock.unlock();
+            }
+
+            for (PointHistory pointHistory : batch) {
+                if (aborted) {
+                    return;
+                }
+                save(pointHistory);
+            }
+            batch.clear();
+        }
+    }
+
+    private void save(PointHistory pointHistory) {
+        PointHistory saved = pointHistoryTable.insert(pointHistory.userId(), pointHistory.amount(), pointHistory.type(), pointHistory.updateMillis());
+        if (saved.id() + restoredCount != pointHistory.id()) {
+            log.warn("point history id mismatch. queued={}, saved={}", pointHistory.id(), saved.id());
+        }
+
+        pendingLock.lock();
+        try {
+            pending.pollFirst();
+            notFull.signalAll();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * 보관 결과
+     * - users : 내역을 옮긴 사용자 수
+     * - histories : 옮긴 내역 수
+     * - bytes : 새로 쓴 보관 파일 크기
+     */
+    public record ArchiveResult(int users, long histories, long bytes) {
     }
 }
@@ -0,0 +1,78 @@
+package io.hhplus.tdd.point;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 포인트 내역 보관 주기 실행기
+ * - interval 마다 maxAge 보다 오래된 내역을 메모리 인덱스에서 보관 파일로 옮기고, 옮기기 전/후의 힙 사용량을 남긴다.
+ */
+@Component
+public class PointHistoryRetention {
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryRetention.class);
+
+    private final HistoryRetentionProperties properties;
+    private final PointHistoryRepository pointHistoryRepository;
+
+    private ScheduledExecutorService scheduler;
+
+    public PointHistoryRetention(HistoryRetentionProperties properties, PointHistoryRepository pointHistoryRepository) {
+        this.properties = properties;
+        this.pointHistoryRepository = pointHistoryRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!pointHistoryRepository.isArchiving()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("point-history-retention").daemon().factory());
+        long intervalMillis = Math.max(1, properties.interval().toMillis());
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 지금 기준으로 maxAge 보다 오래된 내역을 보관 파일로 옮긴다.
+     */
+    public synchronized PointHistoryRepository.ArchiveResult archive() {
+        long startedAt = System.nanoTime();
+        long heapBefore = usedHeap();
+        PointHistoryRepository.ArchiveResult result = pointHistoryRepository.archiveOlderThan(System.currentTimeMillis() - properties.maxAge().toMillis());
+        if (result.users() > 0) {
+            log.info("point histories archived. histories={}, users={}, bytes={}, heapBefore={}MB, heapAfter={}MB, elapsed={}ms",
+                    result.histories(), result.users(), result.bytes(), heapBefore >> 20, usedHeap() >> 20,
+                    (System.nanoTime() - startedAt) / 1_000_000);
+        }
+        return result;
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            // 옮기지 못한 내역은 인덱스에 그대로 있으므로 다음 주기에 다시 시도한다.
+            log.error("failed to archive point histories", e);
+        }
+    }
+
+    // GC 전의 값이라 지운 내역이 아직 회수되지 않았을 수 있다. (정확한 비교는 PointHistoryRetentionLoadTest 참고)
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,22 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Idempotency-Key 중복 요청 저장소 설정
+ * - maximumSize : 보관하는 최대 결과 수 (단건은 1, 일괄은 요청 건수로 센다. 넘으면 가장 먼저 들어온 key 부터 제거)
+ * - ttl : key 를 보관하는 시간 (처음 요청한 시각부터)
+ * - maxKeyLength : Idempotency-Key 의 최대 길이 (key 하나의 메모리 상한)
+ * - maxBatchSize : Idempotency-Key 를 붙일 수 있는 일괄 요청의 최대 건수 (NDJSON 은 이 건수씩 나누어 key 를 붙인다)
+ */
+@ConfigurationProperties(prefix = "point.idempotency")
+public record PointIdempotencyProperties(
+        @DefaultValue("100000") int maximumSize,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("64") int maxKeyLength,
+        @DefaultValue("1000") int maxBatchSize
+) {
+}
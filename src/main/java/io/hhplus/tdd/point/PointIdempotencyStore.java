@@ -0,0 +1,234 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 별 충전/사용 결과 저장소
+ * - 처음 들어온 요청만 실행하고, 같은 key 의 요청은 그 결과(실패 포함)를 그대로 돌려받는다.
+ *   실행 중에 들어온 같은 key 의 요청은 같은 실행의 결과를 기다린다. (잔액 저장소와 사용자 lock 에 접근하지 않는다)
+ * - key 로 나눈 segment 마다 삽입 순서 LinkedHashMap 을 두고, 보관한 결과 수(maximumSize)와 보관 시간(ttl)을 넘은 key 는 앞에서부터 제거한다.
+ *   (ttl 이 모두 같으므로 삽입 순서가 곧 만료 순서)
+ *   일괄 요청은 결과 목록 전체를 보관하므로 요청 건수만큼 센다. 그래서 메모리는 key 수가 아니라 결과 수에 비례해 제한된다.
+ * - 같은 key 로 다른 사용자/종류/금액의 요청이 오면 실행하지 않고 실패한다.
+ * - 일괄 충전/사용도 같은 방식으로 key 별 결과 목록을 남긴다. (다른 노드가 나누어 보낸 일괄 요청을 다시 받아도 한 번만 처리한다)
+ *   maxBatchSize 건보다 큰 일괄 요청에는 key 를 붙일 수 없다.
+ * - 실패는 다시 실행해도 같은 결과가 나오는 거절(잔액 부족, 입력값 오류 등 400)만 남긴다.
+ *   대기열 포화, 요청 몰림, 저널 저장 실패처럼 다시 시도하면 성공할 수 있는 실패는 결과를 남기지 않으므로, 다시 요청하면 새로 실행한다.
+ */
+@Component
+public class PointIdempotencyStore {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final PointIdempotencyProperties properties;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PointIdempotencyStore(PointIdempotencyProperties properties) {
+        this.properties = properties;
+        int segmentSize = Math.max(1, properties.maximumSize() / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * @param key Idempotency-Key
+     * @param command 실행할 충전/사용 요청 (같은 key 의 요청과 비교한다)
+     * @param action 처음 들어온 요청일 때만 실행한다.
+     * @return action 의 결과, 또는 같은 key 로 먼저 실행한 결과
+     */
+    public UserPoint execute(String key, PointCommand command, Supplier<UserPoint> action) {
+        return executeOnce(key, command, 1, action);
+    }
+
+    /**
+     * 결과 목록 전체를 보관하므로 요청 건수만큼 maximumSize 를 차지한다.
+     * @param key Idempotency-Key
+     * @param commands 실행할 일괄 충전/사용 요청 (같은 key 의 요청과 순서까지 비교한다)
+     * @param action 처음 들어온 요청일 때만 실행한다.
+     * @return action 의 결과, 또는 같은 key 로 먼저 실행한 결과
+     */
+    public List<PointBatchResult> executeBatch(String key, List<PointCommand> commands, Supplier<List<PointBatchResult>> action) {
+        validateBatch(commands.size());
+        // 호출한 쪽이 목록을 다시 쓰더라도(NDJSON chunk) 비교 대상이 바뀌지 않도록 복사해 둔다.
+        return executeOnce(key, List.copyOf(commands), commands.size(), action);
+    }
+
+    /**
+     * key 를 저장하지 않고 길이만 확인한다. (일괄 요청을 다른 노드로 나누어 보내기 전에 확인한다)
+     */
+    public void validateKey(String key) {
+        if (key.isEmpty() || key.length() > properties.maxKeyLength()) {
+            throw new PointException(PointErrorCode.INVALID_IDEMPOTENCY_KEY);
+        }
+    }
+
+    /**
+     * key 를 붙일 수 있는 일괄 요청 건수인지 확인한다. (일괄 요청을 다른 노드로 나누어 보내기 전에 확인한다)
+     */
+    public void validateBatch(int size) {
+        if (size > properties.maxBatchSize()) {
+            throw new PointException(PointErrorCode.IDEMPOTENCY_BATCH_TOO_LARGE);
+        }
+    }
+
+    public int maxBatchSize() {
+        return properties.maxBatchSize();
+    }
+
+    private <T> T executeOnce(String key, Object request, int weight, Supplier<T> action) {
+        validateKey(key);
+
+        Segment segment = segmentFor(key);
+        Entry entry;
+        boolean first;
+        long now = System.nanoTime();
+        segment.lock.lock();
+        try {
+            segment.expire(now);
+            entry = segment.get(key);
+            first = entry == null;
+            if (first) {
+                entry = new Entry(request, weight, new CompletableFuture<>(), now + properties.ttl().toNanos());
+                segment.add(key, entry);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (!entry.request().equals(request)) {
+            throw new PointException(PointErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+        if (first) {
+            return run(segment, key, entry, action);
+        }
+        replays.increment();
+        @SuppressWarnings("unchecked")
+        T result = (T) await(entry.result());
+        return result;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long replays() {
+        return replays.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private <T> T run(Segment segment, String key, Entry entry, Supplier<T> action) {
+        try {
+            T result = action.get();
+            entry.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            if (!isRejection(e)) {
+                segment.lock.lock();
+                try {
+                    segment.discard(key, entry);
+                } finally {
+                    segment.lock.unlock();
+                }
+            }
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // 다시 실행해도 결과가 같은 거절인지 (검증 오류, 잔액 부족)
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof PointException pointException
+                && pointException.getErrorCode().getStatus() == HttpStatus.BAD_REQUEST;
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        return segments[(key.hashCode() & 0x7fffffff) % SEGMENT_COUNT];
+    }
+
+    // request : 단건은 PointCommand, 일괄은 List<PointCommand>
+    // weight : 보관하는 결과 수 (단건은 1, 일괄은 요청 건수)
+    private record Entry(Object request, int weight, CompletableFuture<Object> result, long expiresAtNanos) {
+    }
+
+    // 모든 추가/제거는 lock 을 잡고 add, discard, expire 로만 해서 weight 합계를 맞춘다.
+    private final class Segment extends LinkedHashMap<String, Entry> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long maximumWeight;
+        private long weight;
+
+        private Segment(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        // 결과 수가 maximumWeight 를 넘으면 삽입 순서의 앞에서부터 제거한다. (방금 넣은 key 는 남긴다)
+        void add(String key, Entry entry) {
+            put(key, entry);
+            weight += entry.weight();
+            Iterator<Entry> iterator = values().iterator();
+            while (weight > maximumWeight && size() > 1) {
+                weight -= iterator.next().weight();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+
+        void discard(String key, Entry entry) {
+            if (remove(key, entry)) {
+                weight -= entry.weight();
+            }
+        }
+
+        // 삽입 순서의 앞에서부터 만료된 key 를 제거한다.
+        void expire(long now) {
+            Iterator<Entry> iterator = values().iterator();
+            while (iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                if (eldest.expiresAtNanos() - now > 0) {
+                    return;
+                }
+                weight -= eldest.weight();
+                iterator.remove();
+            }
+        }
+    }
+}
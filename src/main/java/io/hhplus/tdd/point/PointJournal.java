@@ -0,0 +1,593 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 포인트 저널 (append-only write-ahead log)
+ * - 충전/사용 내역을 고정 길이(29 byte) 바이너리 레코드로 세그먼트 파일 끝에 이어 쓴다.
+ *   userId(8) | type(1) | amount(8) | updateMillis(8) | crc32c(4)
+ * - 세그먼트 파일은 FileChannel 로 통째로 memory-map 해 두고 버퍼에 바로 쓰며, 가득 차면 다음 세그먼트로 넘어간다.
+ * - 레코드의 순번(1 부터)이 곧 내역 id 이고, 잔액은 내역을 처음부터 더하고 빼서 다시 만들 수 있으므로 잔액은 따로 남기지 않는다.
+ * - 기동 시 마지막 세그먼트에서 crc 가 맞지 않는 레코드(쓰다가 죽은 레코드)부터는 버리고 그 자리부터 이어 쓴다.
+ * - 스냅샷이 덮은 앞쪽 세그먼트는 retireUpTo 로 지운다. 지운 세그먼트의 레코드 수와 남은 첫 세그먼트 번호는 RETIRED_FILE 에 남겨서,
+ *   재시작해도 순번이 이어지고 지우다 죽어서 남은 세그먼트는 기동 시 지운다. 지운 순번 이하는 읽을 수 없다.
+ * - GROUP 반영(force)에 실패하면 그때 기다리던 요청을 JOURNAL_WRITE_FAILED 로 깨우고, 다음 주기에 다시 반영한다.
+ *   요청은 durableTimeout 보다 오래 기다리지 않는다. (반영 스레드가 멈춰도 요청이 사용자 lock 뒤에 쌓이지 않는다)
+ */
+@Component
+public class PointJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(PointJournal.class);
+
+    static final int RECORD_SIZE = 29;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String RETIRED_FILE = "retired";
+
+    private static final byte CHARGE = 1;
+    private static final byte USE = 2;
+
+    private final PointJournalProperties properties;
+    private final long segmentBytes;
+
+    // 세그먼트 목록과 현재 세그먼트, appended 는 appendLock 을 잡고 변경한다.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final List<Path> segments = new ArrayList<>();
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer active;
+    private volatile long appended = 0;
+    // 지운 세그먼트의 레코드 수 (남은 첫 세그먼트의 첫 레코드 순번 - 1)
+    private long retired = 0;
+
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private final Condition flushRequested = durableLock.newCondition();
+    private volatile long durable = 0;
+    // 반영(force)에 실패했을 때 기록되어 있던 마지막 순번 (durableLock 을 잡고 변경한다)
+    private long failedThrough = 0;
+    private boolean waiting = false;
+
+    private volatile boolean running = false;
+    private Thread flusher;
+
+    public PointJournal(PointJournalProperties properties) {
+        this.properties = properties;
+        this.segmentBytes = Math.max(1, Math.min(Integer.MAX_VALUE / RECORD_SIZE, properties.segmentSize().toBytes() / RECORD_SIZE)) * RECORD_SIZE;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!properties.enabled() || running) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(properties.directory());
+            long firstSegment = 0;
+            Path retiredFile = properties.directory().resolve(RETIRED_FILE);
+            if (Files.exists(retiredFile)) {
+                String[] fields = Files.readString(retiredFile).trim().split(" ");
+                firstSegment = Long.parseLong(fields[0]);
+                retired = Long.parseLong(fields[1]);
+            }
+            try (Stream<Path> files = Files.list(properties.directory())) {
+                files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .forEach(segments::add);
+            }
+            // 지우다가 죽어서 남은 세그먼트
+            while (!segments.isEmpty() && segmentNumber(segments.get(0)) < firstSegment) {
+                Files.delete(segments.remove(0));
+            }
+
+            if (segments.isEmpty()) {
+                active = map(createSegment(Math.max(1, firstSegment)), segmentBytes);
+                appended = retired;
+            } else {
+                long sealed = retired;
+                for (Path segment : segments.subList(0, segments.size() - 1)) {
+                    sealed += Files.size(segment) / RECORD_SIZE;
+                }
+                Path last = segments.get(segments.size() - 1);
+                active = map(last, Math.max(Files.size(last) / RECORD_SIZE * RECORD_SIZE, RECORD_SIZE));
+                int valid = truncateTornTail(active);
+                appended = sealed + valid;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to open point journal: " + properties.directory(), e);
+        }
+
+        durable = appended;
+        running = true;
+        if (properties.fsync() == PointJournalProperties.FsyncPolicy.GROUP) {
+            flusher = Thread.ofPlatform().name("point-journal-flusher").daemon().start(this::flushPeriodically);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        appendLock.lock();
+        try {
+            active.force();
+            markDurable(appended);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * 내역을 기록하고 순번을 반환한다. 디스크 반영까지 기다리려면 awaitDurable 을 호출한다.
+     */
+    public long append(PointHistory pointHistory) {
+        appendLock.lock();
+        try {
+            if (active.remaining() < RECORD_SIZE) {
+                roll();
+            }
+
+            int offset = active.position();
+            active.putLong(pointHistory.userId())
+                    .put(pointHistory.type() == TransactionType.CHARGE ? CHARGE : USE)
+                    .putLong(pointHistory.amount())
+                    .putLong(pointHistory.updateMillis());
+            crc.reset();
+            crc.update(active.slice(offset, PAYLOAD_SIZE));
+            active.putInt((int) crc.getValue());
+
+            if (properties.fsync() == PointJournalProperties.FsyncPolicy.ALWAYS) {
+                active.force(offset, RECORD_SIZE);
+            }
+            return ++appended;
+        } catch (IOException | UncheckedIOException e) {
+            log.error("failed to append point journal", e);
+            throw new PointException(PointErrorCode.JOURNAL_WRITE_FAILED);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * GROUP 이면 sequence 까지의 기록이 디스크에 반영될 때까지 기다린다.
+     * (ALWAYS 는 append 에서 이미 반영했고, NONE 은 기다리지 않는다.)
+     * 반영에 실패했거나 durableTimeout 안에 반영되지 않으면 JOURNAL_WRITE_FAILED 로 실패한다.
+     */
+    public void awaitDurable(long sequence) {
+        if (properties.fsync() != PointJournalProperties.FsyncPolicy.GROUP || durable >= sequence) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + properties.durableTimeout().toNanos();
+        durableLock.lock();
+        try {
+            while (durable < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (!running || failedThrough >= sequence || remaining <= 0) {
+                    throw new PointException(PointErrorCode.JOURNAL_WRITE_FAILED);
+                }
+                waiting = true;
+                flushRequested.signal();
+                durableAdvanced.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PointException(PointErrorCode.JOURNAL_WRITE_FAILED);
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    public long appendedSequence() {
+        return appended;
+    }
+
+    /**
+     * 지운 세그먼트의 마지막 순번 (이 순번까지는 읽을 수 없다)
+     */
+    public long retiredSequence() {
+        appendLock.lock();
+        try {
+            return retired;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * sequence 까지의 레코드만 들어 있는 앞쪽 세그먼트를 지운다. (기록 중인 세그먼트는 지우지 않는다)
+     * 스냅샷이 그 순번까지의 잔액과 내역을 남긴 뒤에 호출한다.
+     * 지우는 세그먼트를 읽고 있던 reader 는 가지고 있던 매핑으로 그 세그먼트를 끝까지 읽는다.
+     * @return 지운 세그먼트 수
+     */
+    public int retireUpTo(long sequence) {
+        if (!running) {
+            return 0;
+        }
+
+        List<Path> covered;
+        appendLock.lock();
+        try {
+            long start = retired;
+            int count = 0;
+            while (count < segments.size() - 1) {
+                long records = segmentSize(segments.get(count)) / RECORD_SIZE;
+                if (start + records > sequence) {
+                    break;
+                }
+                start += records;
+                count++;
+            }
+            if (count == 0) {
+                return 0;
+            }
+
+            // 순번을 먼저 남기고 지운다. (지우다 죽어도 다음 기동에서 남은 세그먼트를 지우고 순번을 맞춘다)
+            writeRetired(segmentNumber(segments.get(count)), start);
+            covered = List.copyOf(segments.subList(0, count));
+            segments.subList(0, count).clear();
+            retired = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to retire point journal segments", e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        for (Path segment : covered) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                log.warn("failed to delete retired point journal segment. segment={}", segment, e);
+            }
+        }
+        return covered.size();
+    }
+
+    /**
+     * 응답해도 되는 기록까지의 순번 (GROUP 은 디스크에 반영된 순번, ALWAYS 와 NONE 은 기록한 순번)
+     */
+    public long committedSequence() {
+        return properties.fsync() == PointJournalProperties.FsyncPolicy.GROUP ? durable : appended;
+    }
+
+    /**
+     * 기록된 모든 내역을 순번 순서대로 읽는다. 내역의 id 는 레코드 순번이다.
+     * 기동 직후, 기록을 시작하기 전에 호출한다.
+     * @return 읽은 내역 수
+     */
+    public long replay(Consumer<PointHistory> consumer) {
+        return replay(0, consumer);
+    }
+
+    /**
+     * afterSequence 다음 순번부터 호출한 시점까지 기록된 내역을 순번 순서대로 읽는다.
+     * 기록 중에도 호출할 수 있으며, 이미 기록된 레코드만 읽으므로 기록을 막지 않는다.
+     * @return 마지막으로 읽은 순번
+     */
+    public long replay(long afterSequence, Consumer<PointHistory> consumer) {
+        return replay(afterSequence, Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * afterSequence 다음 순번부터 upToSequence 까지(호출한 시점까지 기록된 순번을 넘지 않는다) 순번 순서대로 읽는다.
+     * @return 마지막으로 읽은 순번
+     */
+    public long replay(long afterSequence, long upToSequence, Consumer<PointHistory> consumer) {
+        return reader(afterSequence).read(upToSequence, consumer);
+    }
+
+    /**
+     * afterSequence 다음 순번부터 이어서 읽는 reader 를 만든다.
+     * 기록이 이어지는 동안 같은 reader 로 여러 번 읽으면(복제 스트림) 읽던 세그먼트의 매핑과 위치를 다시 만들지 않는다.
+     */
+    public Reader reader(long afterSequence) {
+        return new Reader(afterSequence);
+    }
+
+    /**
+     * 저널을 순번 순서대로 이어서 읽는다. (스레드 하나에서만 사용한다)
+     * - 읽고 있는 세그먼트 하나만 읽기 전용으로 매핑해 두고, 세그먼트 끝까지 읽으면 다음 세그먼트로 바꾼다.
+     *   기록 중인 세그먼트도 같은 파일의 매핑이므로, 새 기록을 다시 매핑하지 않고 읽는다.
+     */
+    public final class Reader {
+
+        private final CRC32C checksum = new CRC32C();
+        private Path segment;
+        private ByteBuffer buffer;
+        private long sequence;
+
+        private Reader(long afterSequence) {
+            this.sequence = afterSequence;
+        }
+
+        /**
+         * 마지막으로 읽은 순번 다음부터 upToSequence 까지(호출한 시점까지 기록된 순번을 넘지 않는다) 읽는다.
+         * @return 마지막으로 읽은 순번
+         */
+        public long read(long upToSequence, Consumer<PointHistory> consumer) {
+            if (!running) {
+                return sequence;
+            }
+
+            long last = Math.min(appended, upToSequence);
+            while (sequence < last) {
+                if ((buffer == null || buffer.remaining() < RECORD_SIZE) && !advance()) {
+                    break;
+                }
+                if (!verify(buffer, checksum)) {
+                    throw new IllegalStateException("corrupted point journal record. segment=" + segment + ", sequence=" + (sequence + 1));
+                }
+                long userId = buffer.getLong();
+                TransactionType type = buffer.get() == CHARGE ? TransactionType.CHARGE : TransactionType.USE;
+                long amount = buffer.getLong();
+                long updateMillis = buffer.getLong();
+                buffer.getInt();
+                consumer.accept(new PointHistory(++sequence, userId, amount, type, updateMillis));
+            }
+            return sequence;
+        }
+
+        // 다음에 읽을 순번이 있는 세그먼트를 매핑한다. (처음에는 세그먼트 크기로 위치를 찾고, 그 뒤로는 다음 번호의 세그먼트로 넘어간다)
+        private boolean advance() {
+            List<Path> targets;
+            long start;
+            appendLock.lock();
+            try {
+                targets = List.copyOf(segments);
+                start = retired;
+            } finally {
+                appendLock.unlock();
+            }
+
+            int index;
+            long offset = 0;
+            if (segment == null) {
+                if (sequence < start) {
+                    throw new IllegalStateException("point journal records up to " + start + " were retired. sequence=" + sequence);
+                }
+                index = -1;
+                for (int i = 0; i < targets.size(); i++) {
+                    long records = segmentSize(targets.get(i)) / RECORD_SIZE;
+                    if (start + records > sequence) {
+                        index = i;
+                        offset = sequence - start;
+                        break;
+                    }
+                    start += records;
+                }
+                if (index < 0) {
+                    return false;
+                }
+            } else {
+                long next = segmentNumber(segment) + 1;
+                index = 0;
+                while (index < targets.size() && segmentNumber(targets.get(index)) < next) {
+                    index++;
+                }
+                if (index >= targets.size()) {
+                    return false;
+                }
+                if (segmentNumber(targets.get(index)) != next) {
+                    throw new IllegalStateException("point journal segment retired before it was read. segment=" + next);
+                }
+            }
+
+            segment = targets.get(index);
+            buffer = mapReadOnly(segment);
+            buffer.position(Math.toIntExact(offset * RECORD_SIZE));
+            return true;
+        }
+    }
+
+    /**
+     * 기다리는 요청이 있으면 바로, 없으면 groupCommitInterval 마다 디스크에 반영한다.
+     * 반영하는 동안 도착한 요청은 다음 반영에 한꺼번에 묶인다.
+     */
+    private void flushPeriodically() {
+        long intervalNanos = Math.max(1, properties.groupCommitInterval().toNanos());
+        while (running) {
+            durableLock.lock();
+            try {
+                long remaining = intervalNanos;
+                while (!waiting && remaining > 0) {
+                    remaining = flushRequested.awaitNanos(remaining);
+                }
+                waiting = false;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                durableLock.unlock();
+            }
+            flush();
+        }
+    }
+
+    // 그 시점까지 쓴 레코드를 한 번에 디스크에 반영하고, 기다리는 요청을 깨운다.
+    private void flush() {
+        long target;
+        MappedByteBuffer segment;
+        appendLock.lock();
+        try {
+            target = appended;
+            segment = active;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target == durable) {
+            return;
+        }
+
+        // 이전 세그먼트는 넘어갈 때(roll) 이미 반영했다.
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            log.error("failed to flush point journal up to sequence {}", target, e);
+            markFailed(target);
+            return;
+        }
+        markDurable(target);
+    }
+
+    // 반영을 기다리던 요청 중 sequence 까지를 기다리던 요청은 실패로 깨운다. (반영 스레드는 계속 동작한다)
+    private void markFailed(long sequence) {
+        durableLock.lock();
+        try {
+            if (sequence > failedThrough) {
+                failedThrough = sequence;
+            }
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void markDurable(long sequence) {
+        durableLock.lock();
+        try {
+            if (sequence > durable) {
+                durable = sequence;
+            }
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (properties.fsync() != PointJournalProperties.FsyncPolicy.NONE) {
+            active.force();
+        }
+        active = map(createSegment(segmentNumber(segments.get(segments.size() - 1)) + 1), segmentBytes);
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void writeRetired(long firstSegment, long sequence) throws IOException {
+        Path file = properties.directory().resolve(RETIRED_FILE);
+        Path temporary = file.resolveSibling(RETIRED_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap((firstSegment + " " + sequence).getBytes(StandardCharsets.US_ASCII));
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path createSegment(long number) throws IOException {
+        Path segment = properties.directory().resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+        Files.createFile(segment);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path segment, long size) throws IOException {
+        // 매핑은 채널을 닫아도 유지된다.
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static long segmentSize(Path segment) {
+        try {
+            return Files.size(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read point journal: " + segment, e);
+        }
+    }
+
+    private static ByteBuffer mapReadOnly(Path segment) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size() / RECORD_SIZE * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read point journal: " + segment, e);
+        }
+    }
+
+    /**
+     * crc 가 맞는 레코드까지를 유효한 기록으로 보고, 그 뒤는 0 으로 지운다.
+     * (memory-map 은 페이지 단위로 순서 없이 디스크에 반영되므로, 끊긴 레코드 뒤에 온전해 보이는 레코드가 남아 있을 수 있다.)
+     * @return 유효한 레코드 수
+     */
+    private static int truncateTornTail(MappedByteBuffer buffer) {
+        CRC32C checksum = new CRC32C();
+        int valid = 0;
+        while (buffer.remaining() >= RECORD_SIZE && verify(buffer, checksum)) {
+            buffer.position(buffer.position() + RECORD_SIZE);
+            valid++;
+        }
+
+        int tail = buffer.position();
+        if (hasData(buffer)) {
+            log.warn("discarding torn point journal tail after {} records", valid);
+            buffer.put(new byte[buffer.remaining()]);
+            buffer.force();
+        }
+        buffer.position(tail);
+        return valid;
+    }
+
+    private static boolean hasData(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 버퍼의 현재 위치에 있는 레코드가 온전한지 확인한다. (위치는 옮기지 않는다)
+    private static boolean verify(ByteBuffer buffer, CRC32C checksum) {
+        int offset = buffer.position();
+        byte type = buffer.get(offset + Long.BYTES);
+        if (type != CHARGE && type != USE) {
+            return false;
+        }
+        checksum.reset();
+        checksum.update(buffer.slice(offset, PAYLOAD_SIZE));
+        return (int) checksum.getValue() == buffer.getInt(offset + PAYLOAD_SIZE);
+    }
+}
@@ -0,0 +1,39 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 포인트 저널(write-ahead log) 설정
+ * - enabled : false 이면 저널을 남기지 않고, 재시작하면 기존처럼 모든 포인트와 내역이 사라진다.
+ * - directory : 세그먼트 파일을 저장할 디렉터리
+ * - fsync : 기록한 내용을 디스크에 반영하는 시점
+ * - groupCommitInterval : fsync 가 GROUP 일 때 기다리는 요청이 없어도 디스크에 반영하는 최대 주기
+ * - segmentSize : 세그먼트 파일 하나의 크기 (가득 차면 다음 세그먼트로 넘어간다)
+ * - durableTimeout : fsync 가 GROUP 일 때 요청이 디스크 반영을 기다리는 최대 시간 (넘으면 JOURNAL_WRITE_FAILED 로 실패한다)
+ */
+@ConfigurationProperties(prefix = "point.journal")
+public record PointJournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/journal") Path directory,
+        @DefaultValue("GROUP") FsyncPolicy fsync,
+        @DefaultValue("5ms") Duration groupCommitInterval,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("5s") Duration durableTimeout
+) {
+
+    /**
+     * 디스크 반영 시점
+     * - ALWAYS : 기록할 때마다 반영하고 응답한다.
+     * - GROUP : 그동안 쌓인 기록을 한 번에 반영하고, 요청은 반영될 때까지 기다렸다가 응답한다.
+     *   반영하는 동안 도착한 요청은 다음 반영에 묶이므로, 동시 요청이 많을수록 fsync 한 번이 여러 요청에 나뉜다.
+     * - NONE : 반영 시점을 OS 에 맡긴다. 프로세스가 죽어도 남지만, 장비가 꺼지면 마지막 기록이 유실될 수 있다.
+     */
+    public enum FsyncPolicy {
+        ALWAYS, GROUP, NONE
+    }
+}
@@ -0,0 +1,60 @@
+package io.hhplus.tdd.point;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 기동 시 저널과 스냅샷으로 포인트와 내역을 복구한다.
+ * - 최신 스냅샷의 내역과 집계를 PointHistoryRepository 에 채우고, 저널은 스냅샷 이후의 기록만 읽어 id 순서대로 이어 채운다.
+ * - 잔액은 최신 스냅샷에 스냅샷 이후의 기록만 반영해 만들고, 테이블에 다시 쓰지 않고 PointRepository 에 그대로 넘긴다.
+ * - 저널의 앞쪽 세그먼트가 지워졌는데 그 순번까지 덮는 스냅샷을 읽지 못하면, 일부만 복구한 채로 뜨지 않도록 기동을 멈춘다.
+ * 요청을 받기 전(빈 초기화 단계)에 실행되므로, 복구 중에 충전/사용이 섞여 들어오지 않는다.
+ */
+@Component
+public class PointJournalRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(PointJournalRecovery.class);
+
+    private final PointJournal pointJournal;
+    private final PointSnapshotter pointSnapshotter;
+    private final PointRepository pointRepository;
+    private final PointHistoryRepository pointHistoryRepository;
+
+    public PointJournalRecovery(PointJournal pointJournal, PointSnapshotter pointSnapshotter, PointRepository pointRepository, PointHistoryRepository pointHistoryRepository) {
+        this.pointJournal = pointJournal;
+        this.pointSnapshotter = pointSnapshotter;
+        this.pointRepository = pointRepository;
+        this.pointHistoryRepository = pointHistoryRepository;
+    }
+
+    @PostConstruct
+    public void recover() {
+        if (!pointJournal.isEnabled()) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        PointSnapshot latest = pointSnapshotter.latest();
+        long snapshotLoadedAt = System.nanoTime();
+
+        long retired = pointJournal.retiredSequence();
+        if (latest.sequence() < retired) {
+            throw new IllegalStateException("point journal records up to " + retired + " were retired but no readable snapshot covers them. snapshotSequence=" + latest.sequence());
+        }
+
+        pointHistoryRepository.restore(latest);
+        PointSnapshot.Builder builder = latest.toBuilder();
+        long last = pointJournal.replay(latest.sequence(), pointHistory -> {
+            pointHistoryRepository.restore(pointHistory);
+            builder.apply(pointHistory);
+        });
+        PointSnapshot recovered = builder.build();
+        pointRepository.restore(recovered);
+
+        log.info("point journal recovered. snapshotHistories={}, journalHistories={}, users={}, snapshotSequence={}, snapshotLoad={}ms, elapsed={}ms",
+                latest.historyCount(), last - latest.sequence(), recovered.size(), latest.sequence(),
+                (snapshotLoadedAt - startedAt) / 1_000_000, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
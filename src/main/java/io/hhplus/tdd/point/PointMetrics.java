@@ -0,0 +1,148 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 포인트 충전/사용 지표
+ * - point.lock.wait / point.lock.hold : 사용자 lock 을 얻기까지 기다린 시간과 잡고 있던 시간 (type = charge, use)
+ * - point.table.latency : 잔액 조회/저장, 내역 저장 호출 시간 (table, call)
+ * - point.rejections : 실패한 충전/사용 요청 수 (type, code = PointErrorCode)
+ * - point.optimistic.conflicts / point.optimistic.fallbacks : OPTIMISTIC 방식에서 compare-and-set 이 충돌한 수와 lock 방식으로 넘어간 수
+ * - point.locks.live : 메모리에 유지되고 있는 lock 개수
+ * - point.lock.waiting : lock 대기 스레드가 많은 사용자 별 대기 스레드 수 (userId, hotLockRefreshInterval 마다 갱신)
+ * 타이머는 미리 만들어 두고, 요청 처리 경로에서는 registry 를 조회하지 않는다.
+ */
+@Component
+public class PointMetrics {
+
+    private final MeterRegistry registry;
+    private final ServiceLockFactory lockFactory;
+    private final PointMetricsProperties properties;
+
+    private final Map<TransactionType, Timer> lockWaitTimers = new EnumMap<>(TransactionType.class);
+    private final Map<TransactionType, Timer> lockHoldTimers = new EnumMap<>(TransactionType.class);
+    private final Map<TableCall, Timer> tableCallTimers = new EnumMap<>(TableCall.class);
+    private final MultiGauge waitingThreads;
+    private final Counter optimisticConflicts;
+    private final Counter optimisticFallbacks;
+
+    private ScheduledExecutorService refresher;
+
+    public PointMetrics(MeterRegistry registry, ServiceLockFactory lockFactory, PointMetricsProperties properties) {
+        this.registry = registry;
+        this.lockFactory = lockFactory;
+        this.properties = properties;
+
+        for (TransactionType type : TransactionType.values()) {
+            lockWaitTimers.put(type, timer("point.lock.wait", Tags.of("type", tagValue(type))));
+            lockHoldTimers.put(type, timer("point.lock.hold", Tags.of("type", tagValue(type))));
+        }
+        for (TableCall call : TableCall.values()) {
+            tableCallTimers.put(call, timer("point.table.latency", Tags.of("table", call.table, "call", call.call)));
+        }
+        Gauge.builder("point.locks.live", lockFactory, ServiceLockFactory::size)
+                .description("number of user locks kept in memory")
+                .register(registry);
+        waitingThreads = MultiGauge.builder("point.lock.waiting")
+                .description("threads waiting for the lock of the most contended users")
+                .register(registry);
+        optimisticConflicts = Counter.builder("point.optimistic.conflicts")
+                .description("optimistic compare-and-set attempts that found a concurrent write")
+                .register(registry);
+        optimisticFallbacks = Counter.builder("point.optimistic.fallbacks")
+                .description("optimistic writes that fell back to the user lock after maxAttempts conflicts")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("point-metrics-refresher").daemon().factory());
+        long intervalMillis = Math.max(1, properties.hotLockRefreshInterval().toMillis());
+        refresher.scheduleWithFixedDelay(this::refreshWaitingThreads, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    public void recordLockWait(TransactionType type, long nanos) {
+        lockWaitTimers.get(type).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockHold(TransactionType type, long nanos) {
+        lockHoldTimers.get(type).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTableCall(TableCall call, long nanos) {
+        tableCallTimers.get(call).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOptimisticConflict() {
+        optimisticConflicts.increment();
+    }
+
+    public void recordOptimisticFallback() {
+        optimisticFallbacks.increment();
+    }
+
+    /**
+     * 실패는 요청 처리 경로에서 드물게 일어나므로 registry 에서 바로 counter 를 찾는다.
+     */
+    public void recordRejection(TransactionType type, ErrorCode errorCode) {
+        registry.counter("point.rejections", "type", tagValue(type), "code", errorCode.getCode()).increment();
+    }
+
+    void refreshWaitingThreads() {
+        List<MultiGauge.Row<?>> rows = lockFactory.waitingThreads(properties.hotLockLimit()).entrySet().stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("userId", String.valueOf(entry.getKey())), entry.getValue()))
+                .toList();
+        waitingThreads.register(rows, true);
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String tagValue(TransactionType type) {
+        return type.name().toLowerCase();
+    }
+
+    /**
+     * 충전/사용 중 호출하는 저장소 호출
+     */
+    public enum TableCall {
+        USER_POINT_SELECT("user_point", "select"),
+        USER_POINT_INSERT_OR_UPDATE("user_point", "insert_or_update"),
+        POINT_HISTORY_INSERT("point_history", "insert");
+
+        private final String table;
+        private final String call;
+
+        TableCall(String table, String call) {
+            this.table = table;
+            this.call = call;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 포인트 지표 설정
+ * - hotLockLimit : lock 대기 스레드 수를 사용자 별로 내보낼 최대 사용자 수 (대기 스레드가 많은 순)
+ * - hotLockRefreshInterval : 사용자 별 lock 대기 스레드 수를 다시 계산하는 주기
+ */
+@ConfigurationProperties(prefix = "point.metrics")
+public record PointMetricsProperties(
+        @DefaultValue("10") int hotLockLimit,
+        @DefaultValue("10s") Duration hotLockRefreshInterval
+) {
+}
@@ -0,0 +1,17 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 포인트 조회 설정
+ * - committedSnapshot : true 이면 충전/사용이 끝날 때마다 사용자 별 마지막 잔액과 내역 id 를 공개해 두고,
+ *   잔액 조회는 lock 과 테이블 없이 그 값을 읽는다. (공개한 사용자 당 100 byte 남짓을 계속 들고 있으므로 기본은 꺼져 있다)
+ * - maximumSize : 공개해 두는 최대 사용자 수 (넘으면 새 사용자는 공개하지 않고, 그 사용자의 조회는 저장소를 읽는다)
+ */
+@ConfigurationProperties(prefix = "point.read")
+public record PointReadProperties(
+        @DefaultValue("false") boolean committedSnapshot,
+        @DefaultValue("100000") int maximumSize
+) {
+}
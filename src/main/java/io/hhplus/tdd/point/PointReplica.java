@@ -0,0 +1,279 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 복제 노드 (point.replication.role=REPLICA)
+ * - 원본의 복제 스트림(PointReplicationSource)에 연결해서 받은 기록을 순번 순서대로 반영하고, 끊기면 마지막으로 받은 순번 다음부터 다시 받는다.
+ * - 내역은 받은 스레드가 순서대로 인덱스(와 켜져 있으면 자신의 저널)에 채운다. 잔액은 사용자 id 로 나눈 applyThreads 개의 스레드가
+ *   이전 잔액에 금액을 더하고 빼서 저장하고 공개한다. (같은 사용자는 한 스레드가 순서대로 저장하므로 사용자 lock 을 쓰지 않는다)
+ *   UserPointTable 은 호출마다 잠들어서 반영이 원본을 따라가지 못하므로, 잔액 저장소는 PRIMITIVE 여야 한다. (point.store.type=primitive)
+ * - 받았지만 잔액을 반영하지 못한 기록이 maxLag 건 쌓이면 반영할 때까지 받지 않는다. (원본의 스트림도 소켓 버퍼가 차면 멈춘다)
+ *   원본보다 maxLag 건 넘게 뒤처지면 healthy=false 로 알리고 조회를 거절한다.
+ * - 저널이 켜져 있으면 재시작할 때 저널로 복구하고 복구한 순번 다음부터 받는다.
+ * - 지연은 반영하지 못한 기록 수(lag)와 원본을 모두 따라잡았다고 마지막으로 확인한 뒤 지난 시간(lagMillis)으로 알린다.
+ * - 받은 기록을 반영하다 실패하면 기록을 남기고, 다시 연결해서 반영하지 못한 기록부터 다시 받는다. (저널 저장 실패 등)
+ *   원본과 순번이 어긋났거나 잔액을 반영하지 못했으면 다시 받아도 맞출 수 없으므로 복제를 멈추고(failed),
+ *   그 이유를 상태(status)로 알린다. 멈춘 복제 노드는 조회도 거절한다. (PointReplicaInterceptor)
+ */
+@Component
+public class PointReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(PointReplica.class);
+
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final PointReplicationProperties properties;
+    private final PointStoreProperties storeProperties;
+    private final PointRepository pointRepository;
+    private final PointHistoryRepository pointHistoryRepository;
+    private final PointJournal pointJournal;
+    private final ObjectMapper objectMapper;
+
+    private ExecutorService[] appliers;
+    private HttpClient httpClient;
+    private Thread receiver;
+    private volatile boolean running = false;
+    private volatile boolean connected = false;
+    private volatile String failure;
+
+    // 기동 시 이미 반영되어 있던 순번, 받은 마지막 순번, 잔액까지 반영한 기록 수
+    private long baseSequence;
+    private volatile long receivedSequence;
+    private final LongAdder applied = new LongAdder();
+    private volatile long primarySequence;
+    private volatile long caughtUpAtMillis = System.currentTimeMillis();
+
+    public PointReplica(PointReplicationProperties properties, PointStoreProperties storeProperties, PointRepository pointRepository, PointHistoryRepository pointHistoryRepository, PointJournal pointJournal, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.storeProperties = storeProperties;
+        this.pointRepository = pointRepository;
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.pointJournal = pointJournal;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void check() {
+        if (isReplica() && storeProperties.type() != PointStoreProperties.Type.PRIMITIVE) {
+            throw new IllegalStateException("point.replication.role=replica requires point.store.type=primitive");
+        }
+    }
+
+    /**
+     * 저널 복구(PointJournalRecovery)를 포함한 기동이 끝난 뒤에 시작한다. (복구와 복제가 섞이지 않는다)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isReplica() || running) {
+            return;
+        }
+
+        baseSequence = pointJournal.isEnabled() ? pointJournal.appendedSequence() : 0L;
+        receivedSequence = baseSequence;
+        primarySequence = baseSequence;
+        appliers = new ExecutorService[properties.applyThreadCount()];
+        for (int i = 0; i < appliers.length; i++) {
+            appliers[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("point-replica-applier-" + i).daemon().factory());
+        }
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        running = true;
+        receiver = Thread.ofPlatform().name("point-replica-receiver").daemon().start(this::receive);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // 응답 본문을 읽으며 막혀 있는 수신 스레드를 깨운다.
+        httpClient.shutdownNow();
+        receiver.interrupt();
+        try {
+            receiver.join(properties.reconnectInterval().toMillis() + 1_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ExecutorService applier : appliers) {
+            applier.shutdown();
+        }
+        for (ExecutorService applier : appliers) {
+            try {
+                applier.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public boolean isReplica() {
+        return properties.role() == PointReplicationProperties.Role.REPLICA;
+    }
+
+    public PointReplicationStatus status() {
+        long appliedSequence = appliedSequence();
+        long primary = Math.max(primarySequence, appliedSequence);
+        return new PointReplicationStatus(PointReplicationProperties.Role.REPLICA, connected, appliedSequence, primary, primary - appliedSequence, lagMillis(), failure, !failed() && !lagging());
+    }
+
+    /**
+     * 복제를 멈췄으면 true (다시 시작하려면 원인을 해결하고 재기동한다)
+     */
+    public boolean failed() {
+        return failure != null;
+    }
+
+    /**
+     * 원본보다 maxLag 건 넘게 뒤처져 있으면 true
+     */
+    public boolean lagging() {
+        return lag() > properties.maxLag();
+    }
+
+    /**
+     * 원본에 있지만 아직 반영하지 못한 기록 수
+     */
+    public long lag() {
+        return Math.max(0L, primarySequence - appliedSequence());
+    }
+
+    /**
+     * 원본을 모두 따라잡았다고 마지막으로 확인한 뒤 지난 시간
+     */
+    public long lagMillis() {
+        return Math.max(0L, System.currentTimeMillis() - caughtUpAtMillis);
+    }
+
+    private long appliedSequence() {
+        return baseSequence + applied.sum();
+    }
+
+    private void receive() {
+        while (running && !failed()) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(properties.primary() + "/replication/stream?after=" + receivedSequence)).build();
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                    if (response.statusCode() != 200) {
+                        throw new IOException("replication stream rejected with status " + response.statusCode());
+                    }
+                    connected = true;
+                    for (String line = reader.readLine(); line != null && running && !failed(); line = reader.readLine()) {
+                        accept(objectMapper.readValue(line, PointReplicationRecord.class));
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("point replication stream from {} disconnected: {}", properties.primary(), e.toString());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IllegalStateException e) {
+                // 원본과 순번이 어긋났다. (다시 받아도 같은 순번에서 어긋난다)
+                if (running) {
+                    fail(e);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (running) {
+                    log.error("failed to apply point replication stream from {}, reconnecting after receivedSequence={}", properties.primary(), receivedSequence, e);
+                }
+            } finally {
+                connected = false;
+            }
+            if (failed()) {
+                return;
+            }
+
+            try {
+                Thread.sleep(properties.reconnectInterval().toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void accept(PointReplicationRecord record) {
+        PointHistory history = record.history();
+        if (history != null) {
+            // 다시 연결했을 때 이미 받은 기록이 오더라도 한 번만 반영한다.
+            if (history.id() <= receivedSequence) {
+                return;
+            }
+            awaitApplied();
+            pointHistoryRepository.replicate(history);
+            receivedSequence = history.id();
+            appliers[partition(history.userId())].execute(() -> applyBalance(history));
+        }
+        if (record.primarySequence() > primarySequence) {
+            primarySequence = record.primarySequence();
+        }
+        markIfCaughtUp();
+    }
+
+    // 받았지만 잔액을 반영하지 못한 기록이 maxLag 건 아래로 줄 때까지 더 받지 않는다.
+    private void awaitApplied() {
+        while (receivedSequence - appliedSequence() >= properties.maxLag() && running && !failed()) {
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+    }
+
+    private void applyBalance(PointHistory history) {
+        long id = history.userId();
+        try {
+            UserPoint current = pointRepository.selectById(id).orElse(UserPoint.empty(id));
+            long point = history.type() == TransactionType.CHARGE ? current.point() + history.amount() : current.point() - history.amount();
+            pointRepository.insertOrUpdate(new UserPoint(id, point, history.updateMillis()));
+            // 원본과 같은 결과(잔액, 충전/사용 시각)를 공개한다.
+            pointRepository.publish(new UserPoint(id, point, history.updateMillis()), history.id());
+        } catch (RuntimeException e) {
+            // 이 사용자의 잔액이 원본과 달라졌으므로 더 반영하지 않는다.
+            fail(new IllegalStateException("failed to apply replicated point history " + history, e));
+        } finally {
+            applied.increment();
+            markIfCaughtUp();
+        }
+    }
+
+    private void fail(RuntimeException e) {
+        if (failure == null) {
+            failure = e.toString();
+            log.error("point replication from {} stopped", properties.primary(), e);
+        }
+    }
+
+    private void markIfCaughtUp() {
+        if (appliedSequence() >= primarySequence) {
+            caughtUpAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    private int partition(long id) {
+        int hash = Long.hashCode(id);
+        return Math.floorMod(hash ^ (hash >>> 16), appliers.length);
+    }
+}
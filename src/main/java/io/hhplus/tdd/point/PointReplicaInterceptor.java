@@ -0,0 +1,49 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 복제 노드의 PointController 요청
+ * - 조회 응답에는 복제 지연을 헤더로 붙인다. (요청을 받은 시점의 값)
+ *   X-Replication-Lag : 원본에 있지만 아직 반영하지 못한 기록 수
+ *   X-Replication-Lag-Millis : 원본을 모두 따라잡았다고 마지막으로 확인한 뒤 지난 시간
+ * - 조회가 아닌 요청(충전/사용, 일괄 처리)은 READ_ONLY_REPLICA 로 거절한다.
+ * - 복제가 멈춘 뒤에는 더 이상 원본을 따라가지 않으므로 조회도 REPLICA_FAILED 로 거절한다.
+ * - 원본보다 point.replication.max-lag 건 넘게 뒤처져 있으면 조회를 REPLICA_LAGGING 으로 거절한다. (따라잡으면 다시 받는다)
+ */
+@Component
+@RequiredArgsConstructor
+public class PointReplicaInterceptor implements HandlerInterceptor {
+
+    public static final String LAG_HEADER = "X-Replication-Lag";
+    public static final String LAG_MILLIS_HEADER = "X-Replication-Lag-Millis";
+
+    private final PointReplica pointReplica;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!pointReplica.isReplica()) {
+            return true;
+        }
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            throw new PointException(PointErrorCode.READ_ONLY_REPLICA);
+        }
+        if (pointReplica.failed()) {
+            throw new PointException(PointErrorCode.REPLICA_FAILED);
+        }
+        if (pointReplica.lagging()) {
+            throw new PointException(PointErrorCode.REPLICA_LAGGING);
+        }
+
+        response.setHeader(LAG_HEADER, Long.toString(pointReplica.lag()));
+        response.setHeader(LAG_MILLIS_HEADER, Long.toString(pointReplica.lagMillis()));
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/replication")
+public class PointReplicationController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final PointReplicationSource pointReplicationSource;
+    private final PointReplica pointReplica;
+
+    /**
+     * 복제 스트림 - after 다음 순번부터의 기록을 NDJSON 으로 연결이 끊길 때까지 이어서 보낸다. (원본 노드만)
+     */
+    @GetMapping("stream")
+    public void stream(@RequestParam(defaultValue = "0") long after, HttpServletResponse response) throws IOException {
+        if (!pointReplicationSource.isPrimary()) {
+            throw new PointException(PointErrorCode.NOT_REPLICATION_PRIMARY);
+        }
+        response.setContentType(NDJSON);
+        try (OutputStream out = response.getOutputStream()) {
+            pointReplicationSource.stream(after, out);
+        }
+    }
+
+    /**
+     * 이 노드의 복제 상태 (복제 노드는 반영한 순번과 지연)
+     */
+    @GetMapping("status")
+    public PointReplicationStatus status() {
+        if (pointReplica.isReplica()) {
+            return pointReplica.status();
+        }
+        if (pointReplicationSource.isPrimary()) {
+            long committed = pointReplicationSource.committedSequence();
+            return new PointReplicationStatus(PointReplicationProperties.Role.PRIMARY, true, committed, committed, 0L, 0L, null, true);
+        }
+        return new PointReplicationStatus(PointReplicationProperties.Role.NONE, false, 0L, 0L, 0L, 0L, null, true);
+    }
+}
@@ -0,0 +1,41 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 원본(primary) / 복제(replica) 노드 설정
+ * - primary : role 이 REPLICA 일 때 따라갈 원본 노드의 주소 (예) http://localhost:8080)
+ * - heartbeatInterval : 원본이 새 기록이 없을 때 복제 노드에 자신의 순번을 알리는 주기 (복제 지연 시간의 정밀도)
+ * - pollInterval : 원본이 새 기록을 확인하는 주기
+ * - reconnectInterval : 복제 노드가 원본과 연결이 끊긴 뒤 다시 연결하기까지 기다리는 시간
+ * - applyThreads : 복제 노드가 받은 잔액을 저장하는 스레드 수 (사용자 id 로 나누므로 같은 사용자는 순서대로 저장, 0 이면 사용 가능한 CPU 수)
+ * - maxLag : 복제 노드가 받았지만 잔액을 반영하지 못한 기록이 이만큼 쌓이면 원본에서 받는 것을 멈추고,
+ *   원본보다 이만큼 뒤처지면 상태를 healthy=false 로 알리고 조회를 REPLICA_LAGGING 으로 거절한다.
+ */
+@ConfigurationProperties(prefix = "point.replication")
+public record PointReplicationProperties(
+        @DefaultValue("NONE") Role role,
+        @DefaultValue("") String primary,
+        @DefaultValue("100ms") Duration heartbeatInterval,
+        @DefaultValue("1ms") Duration pollInterval,
+        @DefaultValue("1s") Duration reconnectInterval,
+        @DefaultValue("0") int applyThreads,
+        @DefaultValue("100000") long maxLag
+) {
+
+    /**
+     * - NONE : 복제하지 않는다.
+     * - PRIMARY : 충전/사용을 처리하고, 저널에 반영된 기록을 복제 노드에 보낸다. (저널이 켜져 있어야 한다)
+     * - REPLICA : 원본의 기록을 받아 자신의 잔액과 내역에 반영하고 조회만 처리한다. (충전/사용은 거절한다)
+     */
+    public enum Role {
+        NONE, PRIMARY, REPLICA
+    }
+
+    public int applyThreadCount() {
+        return applyThreads > 0 ? applyThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,13 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 원본 노드가 복제 노드에 보내는 한 줄 (NDJSON)
+ * - history : 저널 순번 순서의 충전/사용 내역 (id 가 저널 순번), 새 기록이 없을 때 보내는 heartbeat 이면 null
+ *   잔액은 내역의 금액을 더하고 빼서 만들 수 있으므로 따로 보내지 않는다. (저널 복구와 같은 방식)
+ * - primarySequence : 보낸 시점에 원본이 응답해도 되는 마지막 순번 (복제 지연 계산용)
+ */
+public record PointReplicationRecord(
+        PointHistory history,
+        long primarySequence
+) {
+}
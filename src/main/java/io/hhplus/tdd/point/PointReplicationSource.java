@@ -0,0 +1,100 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 원본 노드의 복제 스트림 (point.replication.role=PRIMARY)
+ * - 복제 노드가 마지막으로 받은 순번 다음부터, 저널에서 응답해도 되는 순번(committedSequence)까지의 기록을 NDJSON 으로 보낸다.
+ *   저널을 그대로 읽으므로 원본에 따로 대기열을 두지 않고, 오래 끊겼던 복제 노드도 저널에 남은 처음부터 따라올 수 있다.
+ *   연결마다 저널 reader 하나가 읽던 세그먼트의 매핑과 위치를 들고 있다.
+ *   스냅샷이 지운 세그먼트의 순번부터 받으려는 복제 노드는 따라올 수 없으므로 스트림을 시작하지 못한다. (저널을 비우고 다시 받아야 한다)
+ * - 새 기록이 없으면 pollInterval 마다 다시 확인하고, heartbeatInterval 동안 보낸 것이 없으면 자신의 순번만 보낸다.
+ * - 복제 노드가 연결을 끊거나 원본이 종료될 때까지 요청 스레드 하나를 차지한다. (복제 노드 수만큼)
+ */
+@Component
+public class PointReplicationSource {
+
+    private final PointReplicationProperties properties;
+    private final PointJournal pointJournal;
+    private final ObjectMapper objectMapper;
+
+    private volatile boolean running = true;
+
+    public PointReplicationSource(PointReplicationProperties properties, PointJournal pointJournal, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.pointJournal = pointJournal;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void check() {
+        if (properties.role() == PointReplicationProperties.Role.PRIMARY && !pointJournal.isEnabled()) {
+            throw new IllegalStateException("point.replication.role=primary requires point.journal.enabled=true");
+        }
+    }
+
+    public boolean isPrimary() {
+        return properties.role() == PointReplicationProperties.Role.PRIMARY;
+    }
+
+    /**
+     * 원본이 응답해도 되는 마지막 순번
+     */
+    public long committedSequence() {
+        return pointJournal.committedSequence();
+    }
+
+    /**
+     * afterSequence 다음 순번부터 기록을 보내고, 연결이 끊기거나 종료될 때까지 새 기록을 이어서 보낸다.
+     */
+    public void stream(long afterSequence, OutputStream out) throws IOException {
+        long sent = afterSequence;
+        long heartbeatNanos = properties.heartbeatInterval().toNanos();
+        long pollNanos = Math.max(1, properties.pollInterval().toNanos());
+        long lastWrittenAt = 0;
+        // 스트림마다 reader 하나로 이어서 읽어서, 확인할 때마다 세그먼트를 다시 매핑하지 않는다.
+        PointJournal.Reader reader = pointJournal.reader(afterSequence);
+        while (running) {
+            long committed = pointJournal.committedSequence();
+            if (committed > sent) {
+                try {
+                    sent = reader.read(committed, history -> write(out, new PointReplicationRecord(history, committed)));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            } else if (System.nanoTime() - lastWrittenAt >= heartbeatNanos) {
+                write(out, new PointReplicationRecord(null, committed));
+            } else {
+                LockSupport.parkNanos(pollNanos);
+                continue;
+            }
+            // 복제 노드가 끊겼으면 여기서 IOException 으로 끝난다.
+            out.flush();
+            lastWrittenAt = System.nanoTime();
+        }
+    }
+
+    // 웹 서버가 멈추기 전에(종료 이벤트 시점) 스트림을 끝내서, 복제 노드의 연결이 종료를 막지 않게 한다.
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        running = false;
+    }
+
+    private void write(OutputStream out, PointReplicationRecord record) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(record));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 복제 상태
+ * - appliedSequence : 잔액과 내역에 모두 반영한 마지막 순번 (원본은 응답해도 되는 마지막 순번)
+ * - primarySequence : 마지막으로 받은 원본의 순번
+ * - lag : 원본에 있지만 아직 반영하지 못한 기록 수
+ * - lagMillis : 원본을 모두 따라잡았다고 마지막으로 확인한 뒤 지난 시간 (연결되어 있으면 heartbeat 주기 이내)
+ * - failure : 복제를 멈춘 이유 (원본과 순번이 어긋났거나 잔액을 반영하지 못한 경우, 멈추지 않았으면 null)
+ * - healthy : 조회를 받을 수 있는지 (복제가 멈췄거나 lag 이 point.replication.max-lag 보다 크면 false)
+ */
+public record PointReplicationStatus(
+        PointReplicationProperties.Role role,
+        boolean connected,
+        long appliedSequence,
+        long primarySequence,
+        long lag,
+        long lagMillis,
+        String failure,
+        boolean healthy
+) {
+}
@@ -1,24 +1,241 @@
 package io.hhplus.tdd.point;
 
 import io.hhplus.tdd.database.UserPointTable;
-import lombok.RequiredArgsConstructor;
 
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 
-
+/**
+ * 포인트 저장소
+ * - 캐시가 켜져 있으면 insertOrUpdate 는 테이블에 저장한 값을 캐시에도 반영하고(write-through),
+ *   selectById 는 캐시에 없을 때만 테이블을 읽어 캐시에 채운다(read-through).
+ * - 서비스가 유일한 writer 이므로 캐시의 값은 항상 마지막으로 저장된 값과 같다.
+ * - 잔액은 point.store.type 에 따라 UserPointTable 또는 PrimitiveBalanceStore 에 저장한다.
+ *   point.write.mode 가 SHARDED 이면 shard 마다 PrimitiveBalanceStore 를 따로 둔다. (ShardedBalanceStore, point.store.type=primitive 필요)
+ * - 기동 시 복구한 잔액은 테이블에 다시 쓰지 않고 스냅샷 배열 그대로 들고 있다가,
+ *   복구 이후 한 번도 저장되지 않은 사용자를 조회할 때만 읽는다. (저장된 사용자는 표시해 두고 테이블을 읽는다)
+ * - 조회한 UserPoint 에는 잔액을 읽기 전의 변경 순번(PointVersions)을 담는다.
+ *   사용자 lock 을 잡고 저장하는 경로는 beginUpdate/endUpdate 로 감싸고, lock 없이 저장하는 경로는 compareAndSet 을 쓴다.
+ * - point.read.committed-snapshot 이 켜져 있으면 충전/사용을 마친 writer 가 publish 로 결과를 공개하고,
+ *   selectCommitted 는 lock 없이 사용자 별 불변 객체 하나를 읽는다. (잔액과 내역 id 가 항상 같은 충전/사용의 것)
+ *   기동 후 서비스를 거치지 않은 저장(restore, insertOrUpdate 직접 호출)은 공개하지 않는다.
+ *   공개한 사용자가 point.read.maximum-size 명이 되면 새 사용자는 공개하지 않는다. (이미 공개한 사용자만 갱신)
+ *   한 번 공개한 결과를 지우면 늦게 도착한 이전 결과가 다시 공개될 수 있어서, 제거하는 대신 더 늘리지 않는다.
+ * - 저장한 잔액을 되돌렸거나 저널 반영에 실패하면 invalidateCommitted 로 공개된 결과를 무효(userPoint 없음)로 바꾼다.
+ *   다음 공개 전까지 selectCommitted 는 비어 있으므로, 조회는 lock 경로와 같은 저장소의 잔액을 읽는다.
+ */
 @Repository
-@RequiredArgsConstructor
 public class PointRepository {
 
-    private final UserPointTable userPointTable;
+    private final BalanceStore balanceStore;
+    private final UserPointCache cache;
+    private final PointVersions versions = new PointVersions();
+    private final ConcurrentHashMap<Long, CommittedPoint> committed;
+    private final int committedMaximumSize;
+    private volatile RecoveredPoints recovered = new RecoveredPoints(PointSnapshot.empty());
+
+    public PointRepository(UserPointTable userPointTable, PointCacheProperties properties, PointStoreProperties storeProperties, PointReadProperties readProperties,
+                           PointWriteProperties writeProperties, PointShardProperties shardProperties) {
+        this.balanceStore = balanceStore(userPointTable, storeProperties, writeProperties, shardProperties);
+        this.cache = properties.enabled() ? new UserPointCache(properties.maximumSize()) : null;
+        this.committed = readProperties.committedSnapshot() ? new ConcurrentHashMap<>() : null;
+        this.committedMaximumSize = readProperties.maximumSize();
+    }
+
+    private static BalanceStore balanceStore(UserPointTable userPointTable, PointStoreProperties storeProperties,
+                                             PointWriteProperties writeProperties, PointShardProperties shardProperties) {
+        if (writeProperties.mode() == PointWriteProperties.Mode.SHARDED) {
+            if (storeProperties.type() != PointStoreProperties.Type.PRIMITIVE) {
+                throw new IllegalStateException("point.write.mode=sharded requires point.store.type=primitive");
+            }
+            return new ShardedBalanceStore(shardProperties.shardCount(), storeProperties.initialCapacity(), storeProperties.offHeap());
+        }
+        return switch (storeProperties.type()) {
+            case TABLE -> new TableBalanceStore(userPointTable);
+            case PRIMITIVE -> new PrimitiveBalanceStore(storeProperties.initialCapacity(), storeProperties.offHeap());
+        };
+    }
+
+    /**
+     * 마지막으로 공개된 충전/사용 결과 (lock 을 잡지 않고 저장소도 읽지 않는다)
+     */
+    public Optional<CommittedPoint> selectCommitted(long id) {
+        return committed == null ? Optional.empty() : Optional.ofNullable(committed.get(id)).filter(point -> point.userPoint() != null);
+    }
+
+    /**
+     * 충전/사용을 마친 writer 가 결과를 공개한다.
+     * 같은 사용자의 내역 id 는 저장 순서대로 오르므로, 늦게 도착한 이전 결과가 최신 결과를 덮어쓰지 않는다.
+     */
+    public void publish(UserPoint userPoint, long lastHistoryId) {
+        if (committed == null) {
+            return;
+        }
+        // 동시에 들어온 새 사용자만큼은 넘을 수 있다.
+        if (committed.size() >= committedMaximumSize && !committed.containsKey(userPoint.id())) {
+            return;
+        }
+        CommittedPoint next = new CommittedPoint(userPoint, lastHistoryId);
+        committed.merge(userPoint.id(), next, (current, candidate) -> candidate.lastHistoryId() > current.lastHistoryId() ? candidate : current);
+    }
+
+    /**
+     * 공개된 결과가 저장소의 잔액과 다를 수 있을 때(잔액을 되돌렸거나 저널 반영에 실패했을 때) 호출한다.
+     * 결과를 지우지 않고 무효로 표시하므로, lastHistoryId 이하의 늦게 도착한 결과는 공개되지 않고 그 뒤의 결과부터 다시 공개된다.
+     * @param lastHistoryId 실패한 충전/사용이 남긴 마지막 내역 id (내역을 남기지 못했으면 0)
+     */
+    public void invalidateCommitted(long id, long lastHistoryId) {
+        if (committed == null) {
+            return;
+        }
+        if (committed.size() >= committedMaximumSize && !committed.containsKey(id)) {
+            return;
+        }
+        CommittedPoint invalid = new CommittedPoint(null, lastHistoryId);
+        committed.merge(id, invalid, (current, candidate) -> new CommittedPoint(null, Math.max(current.lastHistoryId(), candidate.lastHistoryId())));
+    }
 
     public Optional<UserPoint> selectById(long id) {
-        return Optional.ofNullable(userPointTable.selectById(id));
+        long version = versions.version(id);
+        return Optional.ofNullable(select(id)).map(userPoint -> userPoint.withVersion(version));
+    }
+
+    /**
+     * 낙관적 충전/사용용 조회. 저장된 잔액이 없으면 빈 포인트에 변경 순번을 담아 반환한다.
+     */
+    public UserPoint selectForUpdate(long id) {
+        long version = versions.version(id);
+        UserPoint userPoint = select(id);
+        return (userPoint != null ? userPoint : UserPoint.empty(id)).withVersion(version);
+    }
+
+    /**
+     * expected 를 읽은 이후로 저장된 적이 없으면 next 를 저장하고, 같은 변경 안에서 afterSave 를 실행한다. (내역 저장)
+     * afterSave 가 실패하면 잔액을 expected 로 되돌리고 예외를 그대로 던진다.
+     * @return 저장된 포인트 (변경 순번 포함), 그 사이 다른 저장이 있었으면 null
+     */
+    public UserPoint compareAndSet(UserPoint expected, UserPoint next, Consumer<UserPoint> afterSave) {
+        if (!versions.tryAcquire(expected.id(), expected.version())) {
+            return null;
+        }
+        UserPoint saved = null;
+        try {
+            saved = insertOrUpdate(next);
+            try {
+                afterSave.accept(saved);
+            } catch (RuntimeException e) {
+                insertOrUpdate(expected);
+                invalidateCommitted(expected.id(), 0L);
+                saved = null;
+                throw e;
+            }
+        } finally {
+            long version = versions.release(expected.id());
+            if (saved != null) {
+                saved = saved.withVersion(version);
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * expected 를 읽은 이후로 진행 중이거나 끝난 저장이 없는지 (잔액 부족 판단이 최신 잔액 기준인지 확인용)
+     */
+    public boolean isCurrent(UserPoint expected) {
+        return versions.isCurrent(expected.id(), expected.version());
+    }
+
+    /**
+     * 사용자 lock 을 잡은 상태에서 잔액을 읽기 전에 호출한다. 진행 중인 compareAndSet 이 있으면 끝날 때까지 기다린다.
+     */
+    public void beginUpdate(long id) {
+        versions.acquireShared(id);
+    }
+
+    /**
+     * @return 오른 변경 순번
+     */
+    public long endUpdate(long id) {
+        return versions.releaseShared(id);
+    }
+
+    private UserPoint select(long id) {
+        if (cache == null) {
+            return selectFromStore(id);
+        }
+
+        UserPoint cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long writeStamp = cache.writeStamp(id);
+        UserPoint userPoint = selectFromStore(id);
+        if (userPoint != null) {
+            cache.putIfAbsent(userPoint, writeStamp);
+        }
+        return userPoint;
     }
 
     public UserPoint insertOrUpdate(UserPoint userPoint) {
-        return userPointTable.insertOrUpdate(userPoint.id(), userPoint.point());
+        UserPoint saved = balanceStore.insertOrUpdate(userPoint.id(), userPoint.point());
+        if (cache != null) {
+            cache.put(saved);
+        }
+        recovered.overwrite(saved.id());
+        return saved;
+    }
+
+    /**
+     * 기동 시 복구한 잔액을 채운다. 요청을 받기 전에 호출한다.
+     */
+    public void restore(PointSnapshot snapshot) {
+        recovered = new RecoveredPoints(snapshot);
+    }
+
+    private UserPoint selectFromStore(long id) {
+        UserPoint recoveredPoint = recovered.find(id);
+        return recoveredPoint != null ? recoveredPoint : balanceStore.selectById(id);
+    }
+
+    BalanceStore balanceStore() {
+        return balanceStore;
+    }
+
+    public Optional<UserPointCache.CacheStats> cacheStats() {
+        return Optional.ofNullable(cache).map(UserPointCache::stats);
+    }
+
+    /**
+     * 복구한 잔액과, 복구 이후 저장되어 더 이상 유효하지 않은 사용자 표시 (스냅샷 위치 별 1 bit)
+     */
+    private static final class RecoveredPoints {
+
+        private final PointSnapshot snapshot;
+        private final AtomicLongArray overwritten;
+
+        RecoveredPoints(PointSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.overwritten = new AtomicLongArray((snapshot.size() + Long.SIZE - 1) / Long.SIZE);
+        }
+
+        UserPoint find(long id) {
+            int index = snapshot.indexOf(id);
+            if (index < 0 || (overwritten.get(index / Long.SIZE) & (1L << index)) != 0) {
+                return null;
+            }
+            return snapshot.get(index);
+        }
+
+        void overwrite(long id) {
+            int index = snapshot.indexOf(id);
+            if (index >= 0) {
+                overwritten.getAndAccumulate(index / Long.SIZE, 1L << index, (bits, bit) -> bits | bit);
+            }
+        }
     }
 }
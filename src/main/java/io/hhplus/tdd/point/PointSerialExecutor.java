@@ -0,0 +1,48 @@
+package io.hhplus.tdd.point;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 사용자 별 직렬 실행기
+ * - 사용자 id 마다 마지막으로 등록된 작업(tail)을 두고, 새 작업은 tail 이 끝난 뒤에 실행되도록 이어 붙인다.
+ * - 같은 사용자의 작업은 등록 순서대로 하나씩 실행되고, 다른 사용자의 작업은 서로 기다리지 않는다.
+ * - 호출한 스레드는 작업을 등록만 하고 바로 반환되며, 작업은 가상 스레드에서 실행된다.
+ * - 앞선 작업이 실패해도 다음 작업은 실행되며, 대기 중인 작업이 없는 사용자의 tail 은 제거된다.
+ */
+@Component
+public class PointSerialExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ConcurrentHashMap<Long, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    public <T> CompletableFuture<T> submit(long key, Supplier<T> task) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T> next = (CompletableFuture<T>) tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.supplyAsync(task, executor)
+                : tail.handleAsync((result, throwable) -> task.get(), executor));
+        next.whenComplete((result, throwable) -> tails.remove(key, next));
+
+        // 호출한 쪽에서 결과를 완료/취소해도 뒤에 이어진 작업의 순서가 깨지지 않도록 사본을 반환한다.
+        return next.copy();
+    }
+
+    /**
+     * 실행 중이거나 대기 중인 작업이 있는 사용자 수
+     */
+    public int size() {
+        return tails.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+}
@@ -5,29 +5,63 @@ import io.hhplus.tdd.exception.PointErrorCode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PointService {
 
+    private static final int MAX_HISTORY_LIMIT = 1000;
+
     private final PointRepository pointRepository;
     private final PointHistoryRepository pointHistoryRepository;
 
     private final ServiceLockFactory lockFactory;
 
+    private final PointCombiner pointCombiner;
+    private final PointWriteProperties writeProperties;
+
+    private final PointSerialExecutor serialExecutor;
+
+    private final PointBatchProcessor pointBatchProcessor;
+
+    private final PointMetrics pointMetrics;
+
+    private final HotUserTracker hotUserTracker;
+
+    private final PointShardEngine pointShardEngine;
+
     /**
      * 포인트 조회
+     * - 기동 후 충전/사용한 적이 있으면 마지막으로 끝난 충전/사용의 결과를 lock 과 저장소 조회 없이 반환한다.
      * @param id 사용자 id
      * @return 포인트
      */
     public UserPoint getUserPoint(long id) {
-        return pointRepository.selectById(id)
+        return pointRepository.selectCommitted(id)
+                .map(CommittedPoint::userPoint)
+                .or(() -> pointRepository.selectById(id))
                 .orElseThrow(() -> new PointException(PointErrorCode.USER_ID_NOT_EXIST));
     }
 
+    /**
+     * 마지막으로 끝난 충전/사용의 포인트와 그때 남긴 마지막 내역 id 조회
+     * - 기동 후 충전/사용이 없었으면 저장된 포인트와 내역 id 0 을 반환한다.
+     * @param id 사용자 id
+     * @return 포인트와 내역 id
+     */
+    public CommittedPoint getCommittedPoint(long id) {
+        return pointRepository.selectCommitted(id)
+                .orElseGet(() -> new CommittedPoint(getUserPoint(id), 0L));
+    }
+
     /**
      * 포인트 충전/사용 내역 조회
      * @param id 사용자 id
@@ -37,6 +71,43 @@ public class PointService {
         return pointHistoryRepository.selectAllByuserId(id);
     }
 
+    /**
+     * 포인트 충전/사용 집계 조회 (내역을 읽지 않고 저장 시 갱신해 둔 값을 반환한다)
+     * @param id 사용자 id
+     * @return 충전/사용 합계, 건수, 마지막 충전/사용 시각
+     */
+    public PointSummary getUserPointSummary(long id) {
+        return pointHistoryRepository.selectSummary(id);
+    }
+
+    /**
+     * 포인트 충전/사용 내역 페이지 조회
+     * @param id 사용자 id
+     * @param query 커서, 개수, 기간, 트랜잭션 종류 조건
+     * @return 포인트 내역 페이지
+     */
+    public PointHistoryPage getUserPointHistoryPage(long id, PointHistoryQuery query) {
+        validateHistoryLimit(query);
+        return pointHistoryRepository.selectPage(id, query);
+    }
+
+    /**
+     * 포인트 충전/사용 내역 스트리밍 조회 (내보내기용)
+     * @param id 사용자 id
+     * @param query 기간, 트랜잭션 종류 조건 (limit 은 한 번에 읽어오는 단위)
+     * @return 포인트 내역 stream
+     */
+    public Stream<PointHistory> streamUserPointHistory(long id, PointHistoryQuery query) {
+        validateHistoryLimit(query);
+        return pointHistoryRepository.stream(id, query);
+    }
+
+    private void validateHistoryLimit(PointHistoryQuery query) {
+        if (query.limit() < 1 || query.limit() > MAX_HISTORY_LIMIT) {
+            throw new PointException(PointErrorCode.HISTORY_LIMIT_OUT_OF_RANGE);
+        }
+    }
+
     /**
      * 포인트 충전
      * @param id 사용자 id
@@ -44,36 +115,75 @@ public class PointService {
      * @return 충전 후 포인트
      */
     public UserPoint charge(long id, long amount) {
-        long MAX_VALUE = 2_000_000_000L;
+        try {
+            return applyCharge(id, amount);
+        } catch (PointException e) {
+            pointMetrics.recordRejection(TransactionType.CHARGE, e.getErrorCode());
+            throw e;
+        }
+    }
 
+    private UserPoint applyCharge(long id, long amount) {
         // 충전 금액 검증
-        if (amount < 0) {
-            throw new PointException(PointErrorCode.CHARGE_AMOUNT_LESS_THAN_ZERO);
+        PointCommand command = PointCommand.charge(id, amount);
+        command.validate();
+
+        hotUserTracker.record(id);
+        if (writeProperties.mode() == PointWriteProperties.Mode.SHARDED) {
+            return pointShardEngine.execute(command);
         }
-        if (amount > MAX_VALUE) {
-            throw new PointException(PointErrorCode.CHARGE_AMOUNT_GREATER_THAN_MAX);
+        if (useCombiner(id)) {
+            return pointCombiner.execute(command);
+        }
+        if (writeProperties.mode() == PointWriteProperties.Mode.OPTIMISTIC) {
+            UserPoint savedUserPoint = applyOptimistic(command);
+            if (savedUserPoint != null) {
+                return savedUserPoint;
+            }
         }
 
-        ReentrantLock lock = lockFactory.getLock(id);
-
-        lock.lock();
+        long waitStartedAt = System.nanoTime();
+        Lock lock = lockFactory.acquire(id);
+        long lockedAt = System.nanoTime();
+        pointMetrics.recordLockWait(TransactionType.CHARGE, lockedAt - waitStartedAt);
 
+        UserPoint savedUserPoint = null;
+        long historyId;
+        pointRepository.beginUpdate(id);
+        long version;
         try {
             // 포인트 충전
             UserPoint userPoint = pointRepository.selectById(id).orElse(UserPoint.empty(id));
+            pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_SELECT, System.nanoTime() - lockedAt);
             UserPoint chargedPoint = userPoint.charge(amount);
-            UserPoint savedUserPoint = pointRepository.insertOrUpdate(chargedPoint);
+            pointHistoryRepository.reserve(1);
+            try {
+                long startedAt = System.nanoTime();
+                savedUserPoint = pointRepository.insertOrUpdate(chargedPoint);
+                startedAt = recordTableCall(PointMetrics.TableCall.USER_POINT_INSERT_OR_UPDATE, startedAt);
 
-            // 히스토리 저장
-            PointHistory chargeHistory = PointHistory.createChargeHistory(savedUserPoint.id(), savedUserPoint.point(), savedUserPoint.updateMillis());
-            pointHistoryRepository.insert(chargeHistory);
-
-            return savedUserPoint;
+                // 히스토리 저장
+                PointHistory chargeHistory = PointHistory.createChargeHistory(savedUserPoint.id(), amount, savedUserPoint.updateMillis());
+                historyId = pointHistoryRepository.insert(chargeHistory).id();
+                recordTableCall(PointMetrics.TableCall.POINT_HISTORY_INSERT, startedAt);
+            } catch (RuntimeException e) {
+                // 대기열에 넣지 못한 자리는 돌려준다.
+                pointHistoryRepository.release(1);
+                // 내역(저널)을 저장하지 못했으면 잔액을 되돌려서, 실패로 응답한 충전이 잔액에만 남았다가 재시작하면 사라지는 일이 없게 한다.
+                if (savedUserPoint != null) {
+                    pointRepository.insertOrUpdate(userPoint);
+                    pointRepository.invalidateCommitted(id, 0L);
+                }
+                throw e;
+            }
         } finally {
+            version = pointRepository.endUpdate(id);
             lock.unlock();
+            pointMetrics.recordLockHold(TransactionType.CHARGE, System.nanoTime() - lockedAt);
         }
 
-
+        // 저널이 디스크에 반영될 때까지 기다리는 동안 같은 사용자의 다음 요청이 막히지 않도록 lock 을 놓고 기다린다.
+        return publishDurable(savedUserPoint.withVersion(version), historyId);
     }
 
     /**
@@ -82,35 +192,229 @@ public class PointService {
      * @param amount 사용포인트
      */
     public UserPoint use(long id, long amount) {
+        try {
+            return applyUse(id, amount);
+        } catch (PointException e) {
+            pointMetrics.recordRejection(TransactionType.USE, e.getErrorCode());
+            throw e;
+        }
+    }
+
+    private UserPoint applyUse(long id, long amount) {
         // 사용 금액 검증
         // 사용 금액이 0 보다 작으면 예외 발생
-        if (amount < 0) {
-            throw new PointException(PointErrorCode.USE_AMOUNT_LESS_THAN_ZERO);
-        }
+        PointCommand command = PointCommand.use(id, amount);
+        command.validate();
 
-        ReentrantLock lock = lockFactory.getLock(id);
+        hotUserTracker.record(id);
+        if (writeProperties.mode() == PointWriteProperties.Mode.SHARDED) {
+            return pointShardEngine.execute(command);
+        }
+        if (useCombiner(id)) {
+            return pointCombiner.execute(command);
+        }
+        if (writeProperties.mode() == PointWriteProperties.Mode.OPTIMISTIC) {
+            UserPoint updatedUserPoint = applyOptimistic(command);
+            if (updatedUserPoint != null) {
+                return updatedUserPoint;
+            }
+        }
 
-        lock.lock();
+        long waitStartedAt = System.nanoTime();
+        Lock lock = lockFactory.acquire(id);
+        long lockedAt = System.nanoTime();
+        pointMetrics.recordLockWait(TransactionType.USE, lockedAt - waitStartedAt);
 
+        UserPoint updatedUserPoint = null;
+        long historyId;
+        pointRepository.beginUpdate(id);
+        long version;
         try {
 
             // 사용 금액이 잔액보다 크면 예외 발생
             Optional<UserPoint> userPoint = pointRepository.selectById(id);
+            pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_SELECT, System.nanoTime() - lockedAt);
             if (userPoint.isEmpty() || userPoint.get().point() < amount) {
                 throw new PointException(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT);
             }
 
             // 포인트 사용
             UserPoint usedPoint = userPoint.get().use(amount);
-            UserPoint updatedUserPoint = pointRepository.insertOrUpdate(usedPoint);
+            pointHistoryRepository.reserve(1);
+            try {
+                long startedAt = System.nanoTime();
+                updatedUserPoint = pointRepository.insertOrUpdate(usedPoint);
+                startedAt = recordTableCall(PointMetrics.TableCall.USER_POINT_INSERT_OR_UPDATE, startedAt);
 
-            // 히스토리 저장
-            PointHistory useHistory = PointHistory.createUseHistory(updatedUserPoint.id(), updatedUserPoint.point(), updatedUserPoint.updateMillis());
-            pointHistoryRepository.insert(useHistory);
-
-            return updatedUserPoint;
+                // 히스토리 저장
+                PointHistory useHistory = PointHistory.createUseHistory(updatedUserPoint.id(), amount, updatedUserPoint.updateMillis());
+                historyId = pointHistoryRepository.insert(useHistory).id();
+                recordTableCall(PointMetrics.TableCall.POINT_HISTORY_INSERT, startedAt);
+            } catch (RuntimeException e) {
+                pointHistoryRepository.release(1);
+                if (updatedUserPoint != null) {
+                    pointRepository.insertOrUpdate(userPoint.get());
+                    pointRepository.invalidateCommitted(id, 0L);
+                }
+                throw e;
+            }
         } finally {
+            version = pointRepository.endUpdate(id);
             lock.unlock();
+            pointMetrics.recordLockHold(TransactionType.USE, System.nanoTime() - lockedAt);
         }
+
+        return publishDurable(updatedUserPoint.withVersion(version), historyId);
+    }
+
+    /**
+     * lock 없이 충전/사용 (OPTIMISTIC)
+     * - 변경 순번과 함께 잔액을 읽고, 그 사이 다른 저장이 없었을 때만 잔액과 내역을 저장한다.
+     * - 충돌하면 maxBackoff 안에서 늘려 가며 기다린 뒤 다시 읽는다.
+     * @return 저장된 포인트, maxAttempts 번 모두 충돌했으면 null (lock 방식으로 처리한다)
+     */
+    private UserPoint applyOptimistic(PointCommand command) {
+        long id = command.userId();
+        PointWriteProperties.Optimistic optimistic = writeProperties.optimistic();
+        for (int attempt = 0; attempt < optimistic.maxAttempts(); attempt++) {
+            if (attempt > 0) {
+                pointMetrics.recordOptimisticConflict();
+                backoff(attempt, optimistic.maxBackoff());
+            }
+
+            long startedAt = System.nanoTime();
+            UserPoint current = pointRepository.selectForUpdate(id);
+            recordTableCall(PointMetrics.TableCall.USER_POINT_SELECT, startedAt);
+            UserPoint next;
+            try {
+                next = command.applyTo(current);
+            } catch (PointException e) {
+                // 다른 저장과 겹쳐 읽은 잔액으로 판단했을 수 있으므로, 읽은 이후로 저장이 없었을 때만 실패로 처리한다.
+                if (pointRepository.isCurrent(current)) {
+                    throw e;
+                }
+                continue;
+            }
+
+            pointHistoryRepository.reserve(1);
+            long[] historyId = new long[1];
+            UserPoint saved = null;
+            try {
+                saved = pointRepository.compareAndSet(current, next,
+                        userPoint -> historyId[0] = pointHistoryRepository.insert(command.toHistory(userPoint.updateMillis())).id());
+            } finally {
+                // 충돌했거나 저장에 실패해서 대기열에 넣지 않은 자리는 돌려준다.
+                if (saved == null) {
+                    pointHistoryRepository.release(1);
+                }
+            }
+            if (saved != null) {
+                return publishDurable(saved, historyId[0]);
+            }
+        }
+        pointMetrics.recordOptimisticFallback();
+        return null;
+    }
+
+    /**
+     * 저널 반영을 기다리고, 반영된 결과만 조회 경로에 공개한다.
+     * 반영에 실패하면 잔액은 이미 저장되어 있으므로, 공개된 결과를 무효로 해서 조회가 저장소의 잔액을 읽게 한다.
+     */
+    private UserPoint publishDurable(UserPoint userPoint, long historyId) {
+        try {
+            pointHistoryRepository.awaitDurable();
+        } catch (RuntimeException e) {
+            pointRepository.invalidateCommitted(userPoint.id(), historyId);
+            throw e;
+        }
+        pointRepository.publish(userPoint, historyId);
+        return userPoint;
+    }
+
+    // 1us 부터 두 배씩 늘린 값과 maxBackoff 중 작은 값 안에서 임의로 기다린다.
+    private static void backoff(int attempt, Duration maxBackoff) {
+        long ceilingNanos = Math.min(maxBackoff.toNanos(), 1_000L << Math.min(attempt, 30));
+        if (ceilingNanos > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceilingNanos) + 1);
+        }
+    }
+
+    private boolean useCombiner(long id) {
+        return switch (writeProperties.mode()) {
+            case LOCK, OPTIMISTIC, SHARDED -> false;
+            case COMBINING -> true;
+            case ADAPTIVE -> hotUserTracker.isHot(id);
+        };
+    }
+
+    // 호출 시간을 기록하고, 다음 호출의 시작 시각으로 쓸 현재 시각을 반환한다.
+    private long recordTableCall(PointMetrics.TableCall call, long startedAt) {
+        long now = System.nanoTime();
+        pointMetrics.recordTableCall(call, now - startedAt);
+        return now;
+    }
+
+    /**
+     * 요청이 몰리고 있는 사용자 조회
+     * @return hot user 목록 (최근 요청 수 추정치가 많은 순)
+     */
+    public List<HotUser> getHotUsers() {
+        return hotUserTracker.hotUsers();
+    }
+
+    /**
+     * 포인트 일괄 충전/사용
+     * - 사용자 별로 묶어서 처리하고, 서로 다른 사용자는 동시에 처리한다.
+     * - 충전/사용과 같은 검증을 하며, 실패한 요청은 예외 대신 해당 요청의 결과로 반환한다.
+     * - SHARDED 방식이면 사용자 lock 대신 사용자를 소유한 shard 스레드가 처리한다. (충전/사용과 같은 writer)
+     * @param commands 충전/사용 요청 목록
+     * @return 요청과 같은 순서의 처리 결과
+     */
+    public List<PointBatchResult> batch(List<PointCommand> commands) {
+        if (writeProperties.mode() == PointWriteProperties.Mode.SHARDED) {
+            return pointBatchProcessor.process(commands, pointShardEngine::executeAll);
+        }
+        return pointBatchProcessor.process(commands);
+    }
+
+    /**
+     * 포인트 비동기 조회
+     * - 같은 사용자의 비동기 요청은 사용자 별 직렬 실행기에서 등록 순서대로 처리되므로, 앞서 요청한 충전/사용 결과가 반영된 포인트를 조회한다.
+     * @param id 사용자 id
+     * @return 포인트 (없으면 USER_ID_NOT_EXIST 로 실패)
+     */
+    public CompletableFuture<UserPoint> getUserPointAsync(long id) {
+        return serialExecutor.submit(id, () -> getUserPoint(id));
+    }
+
+    /**
+     * 포인트 충전/사용 내역 비동기 조회
+     * @param id 사용자 id
+     * @return 포인트 내역
+     */
+    public CompletableFuture<List<PointHistory>> getUserPointHistoryAsync(long id) {
+        return serialExecutor.submit(id, () -> getUserPointHistory(id));
+    }
+
+    /**
+     * 포인트 비동기 충전
+     * - 요청 스레드는 lock 을 기다리지 않고 바로 반환된다.
+     * - 실제 충전은 동기 충전과 같은 경로로 처리하므로, 동기 요청과 섞여 들어와도 정합성이 유지된다.
+     * @param id 사용자 id
+     * @param amount 충전포인트
+     * @return 충전 후 포인트
+     */
+    public CompletableFuture<UserPoint> chargeAsync(long id, long amount) {
+        return serialExecutor.submit(id, () -> charge(id, amount));
+    }
+
+    /**
+     * 포인트 비동기 사용
+     * @param id 사용자 id
+     * @param amount 사용포인트
+     * @return 사용 후 포인트
+     */
+    public CompletableFuture<UserPoint> useAsync(long id, long amount) {
+        return serialExecutor.submit(id, () -> use(id, amount));
     }
 }
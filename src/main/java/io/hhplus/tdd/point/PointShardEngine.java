@@ -0,0 +1,207 @@
+package io.hhplus.tdd.point;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 사용자 id 를 shard 로 나누고, shard 마다 전용 스레드 하나가 충전/사용을 처리하는 실행기 (point.write.mode=SHARDED)
+ * - 요청은 사용자를 소유한 shard 의 대기열(여러 요청 스레드가 넣고 shard 스레드 하나만 꺼내는 lock-free 큐)에 쌓이고,
+ *   요청 스레드는 결과를 기다린다.
+ * - shard 스레드는 자기 사용자의 유일한 writer 이므로 사용자 lock 없이 잔액을 읽고 저장한다.
+ *   잔액은 shard 마다 따로 둔 저장소(ShardedBalanceStore)에 저장하므로, shard 끼리 잔액 저장소나 그 lock 을 함께 쓰지 않는다.
+ *   (그래서 이 방식은 point.store.type=primitive 에서만 쓸 수 있다. 하나의 UserPointTable 을 여러 shard 가 쓰지 않는다)
+ * - 내역은 id 가 곧 저널 순번이고 복구와 복제가 그 한 순서를 따르므로, 모든 shard 가 하나의 내역 저장소(PointHistoryRepository)에 기록한다.
+ *   shard 가 나누는 것은 사용자 소유권과 잔액이고, 내역 id 부여와 저널 기록은 shard 사이에서도 순서대로 이뤄진다.
+ * - 한 번 깨어날 때 쌓인 요청을 maxDrain 개까지 꺼내 사용자 별로 묶어 적용하고(PointCombiner 와 같은 방식),
+ *   저널 반영은 꺼낸 요청 전체에 한 번만 기다린다.
+ * - shard 스레드는 첫 요청이 들어올 때 시작한다. (다른 처리 방식에서는 스레드를 만들지 않는다)
+ */
+@Component
+public class PointShardEngine {
+
+    private final PointCombiner pointCombiner;
+    private final PointHistoryRepository pointHistoryRepository;
+    private final PointShardProperties properties;
+
+    private volatile Shard[] shards;
+    private volatile boolean running = true;
+
+    public PointShardEngine(PointCombiner pointCombiner, PointHistoryRepository pointHistoryRepository, PointShardProperties properties) {
+        this.pointCombiner = pointCombiner;
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.properties = properties;
+    }
+
+    public UserPoint execute(PointCommand command) {
+        PointCombiner.PendingCommand pending = new PointCombiner.PendingCommand(command, new CompletableFuture<>());
+        shardFor(command.userId()).submit(pending);
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 요청을 모두 소유 shard 에 넣고 처리될 때까지 기다린다. (결과는 각 요청의 result 로 전달된다)
+     */
+    void executeAll(List<PointCombiner.PendingCommand> pendings) {
+        for (PointCombiner.PendingCommand pending : pendings) {
+            shardFor(pending.command().userId()).submit(pending);
+        }
+        for (PointCombiner.PendingCommand pending : pendings) {
+            pending.result().handle((result, throwable) -> null).join();
+        }
+    }
+
+    /**
+     * shard 수 (스레드가 시작되지 않았으면 0)
+     */
+    public int size() {
+        Shard[] current = shards;
+        return current == null ? 0 : current.length;
+    }
+
+    private Shard shardFor(long id) {
+        Shard[] current = shards();
+        return current[shardIndex(id, current.length)];
+    }
+
+    /**
+     * 사용자를 소유한 shard 의 번호 (ShardedBalanceStore 도 같은 번호의 저장소에 잔액을 둔다)
+     */
+    static int shardIndex(long id, int shardCount) {
+        int hash = Long.hashCode(id);
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    private Shard[] shards() {
+        Shard[] current = shards;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (shards == null) {
+                if (!running) {
+                    throw new IllegalStateException("point shard engine is shut down");
+                }
+                Shard[] created = new Shard[properties.shardCount()];
+                for (int i = 0; i < created.length; i++) {
+                    created[i] = new Shard(i);
+                }
+                for (Shard shard : created) {
+                    shard.thread.start();
+                }
+                shards = created;
+            }
+            return shards;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Shard[] current;
+        synchronized (this) {
+            running = false;
+            current = shards;
+        }
+        if (current == null) {
+            return;
+        }
+        for (Shard shard : current) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : current) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Shard implements Runnable {
+
+        private final ConcurrentLinkedQueue<PointCombiner.PendingCommand> queue = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean parked;
+
+        private Shard(int index) {
+            this.thread = Thread.ofPlatform().name("point-shard-" + index).daemon().unstarted(this);
+        }
+
+        void submit(PointCombiner.PendingCommand pending) {
+            queue.add(pending);
+            if (!running && queue.remove(pending)) {
+                pending.result().completeExceptionally(new IllegalStateException("point shard engine is shut down"));
+                return;
+            }
+            // parked 를 세운 뒤에 큐를 다시 확인하므로, 여기서 false 를 읽었으면 shard 스레드가 이 요청을 보고 잠든다.
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            // 아래 자료구조는 이 스레드만 쓰므로 동기화하지 않는다.
+            Map<Long, List<PointCombiner.PendingCommand>> byUser = new LinkedHashMap<>();
+            List<PointCombiner.Applied> applied = new ArrayList<>();
+            int maxDrain = Math.max(1, properties.maxDrain());
+            while (running) {
+                PointCombiner.PendingCommand pending = queue.poll();
+                if (pending == null) {
+                    idle();
+                    continue;
+                }
+
+                for (int drained = 1; pending != null; drained++) {
+                    byUser.computeIfAbsent(pending.command().userId(), key -> new ArrayList<>()).add(pending);
+                    pending = drained < maxDrain ? queue.poll() : null;
+                }
+                byUser.forEach((id, batch) -> {
+                    PointCombiner.Applied result = pointCombiner.apply(id, batch);
+                    if (result != null) {
+                        applied.add(result);
+                    }
+                });
+                if (!applied.isEmpty()) {
+                    try {
+                        pointHistoryRepository.awaitDurable();
+                        applied.forEach(pointCombiner::complete);
+                    } catch (RuntimeException e) {
+                        applied.forEach(result -> pointCombiner.fail(result, e));
+                    }
+                }
+                byUser.clear();
+                applied.clear();
+            }
+
+            IllegalStateException shutdown = new IllegalStateException("point shard engine is shut down");
+            for (PointCombiner.PendingCommand pending = queue.poll(); pending != null; pending = queue.poll()) {
+                pending.result().completeExceptionally(shutdown);
+            }
+        }
+
+        private void idle() {
+            parked = true;
+            if (running && queue.isEmpty()) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * SHARDED 처리 방식 설정
+ * - shards : 사용자 id 를 나누는 shard 수 (shard 마다 스레드 하나, 0 이면 사용 가능한 CPU 수)
+ * - maxDrain : shard 스레드가 한 번에 꺼내 처리하는 최대 요청 수 (저널 반영은 이 묶음 당 한 번 기다린다)
+ */
+@ConfigurationProperties(prefix = "point.shard")
+public record PointShardProperties(
+        @DefaultValue("0") int shards,
+        @DefaultValue("256") int maxDrain
+) {
+
+    public int shardCount() {
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,445 @@
+package io.hhplus.tdd.point;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 잔액 스냅샷
+ * - 저널의 sequence 번 레코드까지 반영한 사용자 별 잔액과 내역 집계를 id 오름차순의 primitive 배열로 들고 있다.
+ *   잔액은 충전 합계 - 사용 합계이므로 따로 두지 않는다.
+ * - 같은 시점까지의 내역(보관 파일로 옮긴 내역은 빼고)도 파일에 함께 남겨서, 기동 시 저널을 처음부터 읽지 않고 내역 인덱스를 채운다.
+ *   내역은 메모리에 올리지 않고 필요할 때(forEachHistory) 파일에서 순서대로 읽는다.
+ * - 파일에는 사용자 배열을 열(column) 단위로 쓰고, 그 뒤에 내역을 행 단위로 이어 쓴다.
+ *   magic(4) | version(4) | sequence(8) | count(4)
+ *   | ids | totalCharged | totalUsed | transactionCount | updateMillis | lastActivityMillis (각 8 x count)
+ *   | 내역(HISTORY_SIZE x historyCount) | historyCount(8) | crc32c(4)
+ *   내역 : id(8) | userId(8) | type(1) | amount(8) | updateMillis(8)
+ */
+public final class PointSnapshot {
+
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 20;
+    private static final int USER_COLUMNS = 6;
+    private static final int HISTORY_SIZE = 33;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int HISTORY_CHUNK_SIZE = CHUNK_SIZE / HISTORY_SIZE * HISTORY_SIZE;
+
+    private static final byte CHARGE = 1;
+    private static final byte USE = 2;
+
+    private static final PointSnapshot EMPTY = new PointSnapshot(0, new long[0], new long[0], new long[0], new long[0], new long[0], new long[0], null, 0);
+
+    private final long sequence;
+    private final long[] ids;
+    private final long[] totalCharged;
+    private final long[] totalUsed;
+    private final long[] transactionCounts;
+    private final long[] updateMillis;
+    private final long[] lastActivityMillis;
+
+    // 내역을 읽을 파일과 건수 (파일에서 읽은 스냅샷만 내역이 있다)
+    private final Path file;
+    private final long historyCount;
+
+    private PointSnapshot(long sequence, long[] ids, long[] totalCharged, long[] totalUsed, long[] transactionCounts, long[] updateMillis, long[] lastActivityMillis, Path file, long historyCount) {
+        this.sequence = sequence;
+        this.ids = ids;
+        this.totalCharged = totalCharged;
+        this.totalUsed = totalUsed;
+        this.transactionCounts = transactionCounts;
+        this.updateMillis = updateMillis;
+        this.lastActivityMillis = lastActivityMillis;
+        this.file = file;
+        this.historyCount = historyCount;
+    }
+
+    public static PointSnapshot empty() {
+        return EMPTY;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long historyCount() {
+        return historyCount;
+    }
+
+    /**
+     * @return 스냅샷 안에서의 위치, 없으면 음수
+     */
+    public int indexOf(long id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    public UserPoint get(int index) {
+        return new UserPoint(ids[index], totalCharged[index] - totalUsed[index], updateMillis[index]);
+    }
+
+    public UserPoint find(long id) {
+        int index = indexOf(id);
+        return index < 0 ? null : get(index);
+    }
+
+    public PointSummary summary(int index) {
+        return new PointSummary(ids[index], totalCharged[index], totalUsed[index], transactionCounts[index], lastActivityMillis[index]);
+    }
+
+    /**
+     * 스냅샷에 남긴 내역을 id 순서대로 파일에서 읽는다.
+     */
+    public void forEachHistory(Consumer<PointHistory> consumer) {
+        if (historyCount == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(historyOffset(ids.length));
+            for (long remaining = historyCount; remaining > 0; ) {
+                int count = (int) Math.min(remaining, HISTORY_CHUNK_SIZE / HISTORY_SIZE);
+                ByteBuffer chunk = readFully(channel, count * HISTORY_SIZE, null);
+                for (int i = 0; i < count; i++) {
+                    long id = chunk.getLong();
+                    long userId = chunk.getLong();
+                    TransactionType type = chunk.get() == CHARGE ? TransactionType.CHARGE : TransactionType.USE;
+                    consumer.accept(new PointHistory(id, userId, chunk.getLong(), type, chunk.getLong()));
+                }
+                remaining -= count;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read point snapshot histories: " + file, e);
+        }
+    }
+
+    /**
+     * 이 스냅샷에 이후 기록을 반영해 새 스냅샷을 만든다.
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * 사용자 배열만 메모리에 올리고, 내역은 crc 만 확인하고 넘긴다.
+     */
+    public static PointSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer header = readFully(channel, HEADER_SIZE, crc);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("not a point snapshot: " + file);
+            }
+            long sequence = header.getLong();
+            int count = header.getInt();
+            long historyBytes = channel.size() - historyOffset(count) - TRAILER_SIZE;
+            if (historyBytes < 0 || historyBytes % HISTORY_SIZE != 0) {
+                throw new IOException("truncated point snapshot: " + file);
+            }
+
+            long[] ids = readColumn(channel, count, crc);
+            long[] totalCharged = readColumn(channel, count, crc);
+            long[] totalUsed = readColumn(channel, count, crc);
+            long[] transactionCounts = readColumn(channel, count, crc);
+            long[] updateMillis = readColumn(channel, count, crc);
+            long[] lastActivityMillis = readColumn(channel, count, crc);
+            for (long remaining = historyBytes; remaining > 0; ) {
+                int length = (int) Math.min(remaining, HISTORY_CHUNK_SIZE);
+                readFully(channel, length, crc);
+                remaining -= length;
+            }
+            long historyCount = readFully(channel, Long.BYTES, crc).getLong();
+            int expected = (int) crc.getValue();
+            if (historyCount * HISTORY_SIZE != historyBytes || readFully(channel, Integer.BYTES, null).getInt() != expected) {
+                throw new IOException("corrupted point snapshot: " + file);
+            }
+            return new PointSnapshot(sequence, ids, totalCharged, totalUsed, transactionCounts, updateMillis, lastActivityMillis, file, historyCount);
+        }
+    }
+
+    /**
+     * 사용자 배열 다음에 histories 가 넘겨 주는 내역을 이어 쓴다. (내역은 id 순서대로 넘겨야 한다)
+     * 임시 파일에 쓰고 디스크에 반영한 뒤 이름을 바꾸므로, 쓰다가 죽어도 온전하지 않은 스냅샷이 남지 않는다.
+     * @return 남긴 내역 수
+     */
+    public long write(Path file, Consumer<Consumer<PointHistory>> histories) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long written;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(sequence)
+                    .putInt(ids.length)
+                    .flip();
+            writeFully(channel, header, crc);
+            writeColumn(channel, ids, crc);
+            writeColumn(channel, totalCharged, crc);
+            writeColumn(channel, totalUsed, crc);
+            writeColumn(channel, transactionCounts, crc);
+            writeColumn(channel, updateMillis, crc);
+            writeColumn(channel, lastActivityMillis, crc);
+
+            HistoryWriter writer = new HistoryWriter(channel, crc);
+            try {
+                histories.accept(writer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+            written = writer.count;
+
+            writeFully(channel, ByteBuffer.allocate(Long.BYTES).putLong(written).flip(), crc);
+            writeFully(channel, ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).flip(), null);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return written;
+    }
+
+    private static long historyOffset(int count) {
+        return HEADER_SIZE + (long) USER_COLUMNS * Long.BYTES * count;
+    }
+
+    private static long[] readColumn(FileChannel channel, int count, CRC32C crc) throws IOException {
+        long[] column = new long[count];
+        for (int offset = 0; offset < count; ) {
+            int length = Math.min(count - offset, CHUNK_SIZE / Long.BYTES);
+            readFully(channel, length * Long.BYTES, crc).asLongBuffer().get(column, offset, length);
+            offset += length;
+        }
+        return column;
+    }
+
+    private static void writeColumn(FileChannel channel, long[] column, CRC32C crc) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        for (int offset = 0; offset < column.length; ) {
+            int length = Math.min(column.length - offset, CHUNK_SIZE / Long.BYTES);
+            chunk.clear();
+            chunk.asLongBuffer().put(column, offset, length);
+            chunk.limit(length * Long.BYTES);
+            writeFully(channel, chunk, crc);
+            offset += length;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, int length, CRC32C crc) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("unexpected end of point snapshot");
+            }
+        }
+        buffer.flip();
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 내역을 HISTORY_CHUNK_SIZE 만큼 모아서 쓴다.
+     */
+    private static final class HistoryWriter implements Consumer<PointHistory> {
+
+        private final FileChannel channel;
+        private final CRC32C crc;
+        private final ByteBuffer chunk = ByteBuffer.allocate(HISTORY_CHUNK_SIZE);
+        private long count = 0;
+
+        private HistoryWriter(FileChannel channel, CRC32C crc) {
+            this.channel = channel;
+            this.crc = crc;
+        }
+
+        @Override
+        public void accept(PointHistory pointHistory) {
+            if (chunk.remaining() < HISTORY_SIZE) {
+                flush();
+            }
+            chunk.putLong(pointHistory.id())
+                    .putLong(pointHistory.userId())
+                    .put(pointHistory.type() == TransactionType.CHARGE ? CHARGE : USE)
+                    .putLong(pointHistory.amount())
+                    .putLong(pointHistory.updateMillis());
+            count++;
+        }
+
+        void flush() {
+            try {
+                writeFully(channel, chunk.flip(), crc);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chunk.clear();
+        }
+    }
+
+    /**
+     * 스냅샷 이후의 내역을 순번 순서대로 받아 사용자 별 변경분만 모아 두었다가, 기존 배열과 병합해 새 스냅샷을 만든다.
+     * 변경분은 id 를 키로 하는 open addressing 배열에 모으므로 내역 한 건 당 객체를 만들지 않는다.
+     * (만든 스냅샷은 잔액과 집계만 들고 있고, 내역은 파일에 쓸 때 넘긴다)
+     */
+    public static final class Builder {
+
+        private final PointSnapshot base;
+        private long sequence;
+
+        private long[] keys = new long[1024];
+        private long[] charged = new long[1024];
+        private long[] used = new long[1024];
+        private long[] counts = new long[1024];
+        private long[] lastMillis = new long[1024];
+        private long[] maxMillis = new long[1024];
+        private boolean[] occupied = new boolean[1024];
+        private int size = 0;
+
+        private Builder(PointSnapshot base) {
+            this.base = base;
+            this.sequence = base.sequence;
+        }
+
+        public void apply(PointHistory pointHistory) {
+            if (pointHistory.id() <= sequence) {
+                return;
+            }
+            sequence = pointHistory.id();
+
+            int slot = slotOf(pointHistory.userId());
+            if (!occupied[slot]) {
+                occupied[slot] = true;
+                keys[slot] = pointHistory.userId();
+                if (++size * 2 > keys.length) {
+                    grow();
+                    slot = slotOf(pointHistory.userId());
+                }
+            }
+            if (pointHistory.type() == TransactionType.CHARGE) {
+                charged[slot] += pointHistory.amount();
+            } else {
+                used[slot] += pointHistory.amount();
+            }
+            counts[slot]++;
+            lastMillis[slot] = pointHistory.updateMillis();
+            maxMillis[slot] = Math.max(maxMillis[slot], pointHistory.updateMillis());
+        }
+
+        public PointSnapshot build() {
+            long[] changed = new long[size];
+            int count = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (occupied[slot]) {
+                    changed[count++] = keys[slot];
+                }
+            }
+            Arrays.sort(changed);
+
+            // id 오름차순인 기존 배열과 변경된 id 를 병합한다.
+            int capacity = base.ids.length;
+            for (long id : changed) {
+                if (base.indexOf(id) < 0) {
+                    capacity++;
+                }
+            }
+            long[][] from = {base.ids, base.totalCharged, base.totalUsed, base.transactionCounts, base.updateMillis, base.lastActivityMillis};
+            long[][] to = new long[USER_COLUMNS][capacity];
+
+            int source = 0;
+            int target = 0;
+            for (long id : changed) {
+                int index = base.indexOf(id);
+                int until = index < 0 ? -index - 1 : index;
+                for (int column = 0; column < USER_COLUMNS; column++) {
+                    System.arraycopy(from[column], source, to[column], target, until - source);
+                }
+                target += until - source;
+                source = until;
+
+                int slot = slotOf(id);
+                boolean existing = index >= 0;
+                to[0][target] = id;
+                to[1][target] = (existing ? base.totalCharged[index] : 0) + charged[slot];
+                to[2][target] = (existing ? base.totalUsed[index] : 0) + used[slot];
+                to[3][target] = (existing ? base.transactionCounts[index] : 0) + counts[slot];
+                to[4][target] = lastMillis[slot];
+                to[5][target] = Math.max(existing ? base.lastActivityMillis[index] : 0, maxMillis[slot]);
+                target++;
+                if (existing) {
+                    source++;
+                }
+            }
+            for (int column = 0; column < USER_COLUMNS; column++) {
+                System.arraycopy(from[column], source, to[column], target, base.ids.length - source);
+            }
+
+            return new PointSnapshot(sequence, to[0], to[1], to[2], to[3], to[4], to[5], null, 0);
+        }
+
+        private int slotOf(long id) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(id) & mask;
+            while (occupied[slot] && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCharged = charged;
+            long[] oldUsed = used;
+            long[] oldCounts = counts;
+            long[] oldLastMillis = lastMillis;
+            long[] oldMaxMillis = maxMillis;
+            boolean[] oldOccupied = occupied;
+
+            int capacity = oldKeys.length * 2;
+            keys = new long[capacity];
+            charged = new long[capacity];
+            used = new long[capacity];
+            counts = new long[capacity];
+            lastMillis = new long[capacity];
+            maxMillis = new long[capacity];
+            occupied = new boolean[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldOccupied[i]) {
+                    int slot = slotOf(oldKeys[i]);
+                    occupied[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    charged[slot] = oldCharged[i];
+                    used[slot] = oldUsed[i];
+                    counts[slot] = oldCounts[i];
+                    lastMillis[slot] = oldLastMillis[i];
+                    maxMillis[slot] = oldMaxMillis[i];
+                }
+            }
+        }
+
+        private static long mix(long id) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return hash ^ (hash >>> 32);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 잔액 스냅샷 설정 (저널이 켜져 있을 때만 동작한다)
+ * - enabled : false 이면 기동 시 저널 전체를 다시 읽어 잔액과 내역을 복구한다. (저널 세그먼트도 지우지 않는다)
+ * - directory : 스냅샷 파일을 저장할 디렉터리
+ * - interval : 스냅샷을 만드는 주기
+ * - retain : 남겨 둘 스냅샷 파일 수 (최신 스냅샷이 깨졌을 때 이전 스냅샷으로 복구한다. 가장 오래된 스냅샷까지의 저널 세그먼트는 지운다)
+ */
+@ConfigurationProperties(prefix = "point.snapshot")
+public record PointSnapshotProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/snapshot") Path directory,
+        @DefaultValue("1m") Duration interval,
+        @DefaultValue("2") int retain
+) {
+}
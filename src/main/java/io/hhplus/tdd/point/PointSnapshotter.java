@@ -0,0 +1,191 @@
+package io.hhplus.tdd.point;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 스냅샷 생성기
+ * - interval 마다 최신 스냅샷에 그 이후의 저널 기록을 반영해 새 스냅샷을 만든다.
+ *   내역은 이전 스냅샷 파일의 내역에 그 이후의 저널 기록을 이어 쓰고, 그사이 보관 파일로 옮긴 내역은 뺀다.
+ * - 저널 파일만 읽으므로 충전/사용을 멈추지 않으며, 스냅샷은 읽기 시작한 시점까지 기록된 순번과 일치한다.
+ * - 파일 이름은 반영한 마지막 순번이라서, 이름 순으로 가장 뒤의 파일이 최신 스냅샷이다.
+ * - 마지막으로 쓴 스냅샷의 순번을 기억해 두고, 그 뒤로 새 기록이 없으면 파일을 읽지 않는다.
+ * - 스냅샷이 retain 개 쌓이면 가장 오래된 스냅샷까지의 저널 세그먼트를 지운다.
+ *   (최신 스냅샷이 깨져서 이전 스냅샷으로 복구하더라도 그 뒤의 기록은 저널에 남아 있다)
+ */
+@Component
+public class PointSnapshotter {
+
+    private static final Logger log = LoggerFactory.getLogger(PointSnapshotter.class);
+
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final PointSnapshotProperties properties;
+    private final PointJournal pointJournal;
+    private final PointHistoryArchive pointHistoryArchive;
+
+    private ScheduledExecutorService scheduler;
+    // 마지막으로 쓴(처음에는 읽은) 스냅샷의 순번, 아직 모르면 -1 (snapshot 안에서만 읽고 쓴다)
+    private long writtenSequence = -1;
+
+    public PointSnapshotter(PointSnapshotProperties properties, PointJournal pointJournal, PointHistoryArchive pointHistoryArchive) {
+        this.properties = properties;
+        this.pointJournal = pointJournal;
+        this.pointHistoryArchive = pointHistoryArchive;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("point-snapshotter").daemon().factory());
+        long intervalMillis = Math.max(1, properties.interval().toMillis());
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled() && pointJournal.isEnabled();
+    }
+
+    /**
+     * 읽을 수 있는 가장 최신 스냅샷, 없으면 빈 스냅샷
+     */
+    public PointSnapshot latest() {
+        if (!isEnabled()) {
+            return PointSnapshot.empty();
+        }
+
+        for (Path file : snapshotFiles().reversed()) {
+            try {
+                PointSnapshot snapshot = PointSnapshot.read(file);
+                if (snapshot.sequence() <= pointJournal.appendedSequence()) {
+                    return snapshot;
+                }
+                log.warn("point snapshot is ahead of the journal, skipped. file={}", file);
+            } catch (IOException e) {
+                log.warn("failed to read point snapshot, falling back to the previous one. file={}", file, e);
+            }
+        }
+        return PointSnapshot.empty();
+    }
+
+    /**
+     * 최신 스냅샷 이후의 기록을 반영해 새 스냅샷을 저장한다.
+     * @return 저장한 스냅샷의 순번 (새로 반영할 기록이 없으면 최신 스냅샷의 순번)
+     */
+    public synchronized long snapshot() {
+        if (!isEnabled()) {
+            return 0L;
+        }
+        if (writtenSequence < 0) {
+            writtenSequence = latest().sequence();
+        }
+        if (writtenSequence == pointJournal.appendedSequence()) {
+            return writtenSequence;
+        }
+
+        long startedAt = System.nanoTime();
+        PointSnapshot latest = latest();
+        PointSnapshot.Builder builder = latest.toBuilder();
+        long sequence = pointJournal.replay(latest.sequence(), builder::apply);
+        PointSnapshot snapshot = builder.build();
+        long histories;
+        try {
+            Files.createDirectories(properties.directory());
+            histories = snapshot.write(properties.directory().resolve(String.format("%020d%s", snapshot.sequence(), SNAPSHOT_SUFFIX)), sink -> {
+                latest.forEachHistory(pointHistory -> {
+                    if (!isArchived(pointHistory)) {
+                        sink.accept(pointHistory);
+                    }
+                });
+                pointJournal.replay(latest.sequence(), sequence, pointHistory -> {
+                    if (!isArchived(pointHistory)) {
+                        sink.accept(pointHistory);
+                    }
+                });
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write point snapshot", e);
+        }
+        writtenSequence = snapshot.sequence();
+        deleteOldSnapshots();
+        retireJournal();
+
+        log.info("point snapshot written. sequence={}, users={}, histories={}, elapsed={}ms",
+                snapshot.sequence(), snapshot.size(), histories, (System.nanoTime() - startedAt) / 1_000_000);
+        return snapshot.sequence();
+    }
+
+    // 보관 파일로 옮긴 내역은 보관 파일에서 읽으므로 스냅샷에 남기지 않는다.
+    private boolean isArchived(PointHistory pointHistory) {
+        return pointHistoryArchive.isEnabled() && pointHistory.id() <= pointHistoryArchive.archivedUpTo(pointHistory.userId());
+    }
+
+    private void retireJournal() {
+        List<Path> files = snapshotFiles();
+        if (files.size() < Math.max(1, properties.retain())) {
+            return;
+        }
+        String oldest = files.get(0).getFileName().toString();
+        long sequence = Long.parseLong(oldest.substring(0, oldest.length() - SNAPSHOT_SUFFIX.length()));
+        int retired = pointJournal.retireUpTo(sequence);
+        if (retired > 0) {
+            log.info("point journal segments retired. segments={}, upToSequence={}", retired, pointJournal.retiredSequence());
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // 다음 주기에 다시 시도한다.
+            log.error("failed to take point snapshot", e);
+        }
+    }
+
+    private void deleteOldSnapshots() {
+        List<Path> files = snapshotFiles();
+        for (Path file : files.subList(0, Math.max(0, files.size() - Math.max(1, properties.retain())))) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("failed to delete old point snapshot. file={}", file, e);
+            }
+        }
+    }
+
+    private List<Path> snapshotFiles() {
+        if (!Files.isDirectory(properties.directory())) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to list point snapshots", e);
+        }
+    }
+}
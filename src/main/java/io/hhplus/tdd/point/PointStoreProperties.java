@@ -0,0 +1,27 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 잔액 저장소 설정
+ * - type : 잔액을 저장할 곳
+ * - offHeap : type 이 PRIMITIVE 일 때 슬롯 배열을 힙 밖(direct buffer)에 둘지 여부
+ * - initialCapacity : type 이 PRIMITIVE 일 때 처음에 확보해 둘 사용자 수 (넘으면 구간 별로 두 배씩 늘린다)
+ */
+@ConfigurationProperties(prefix = "point.store")
+public record PointStoreProperties(
+        @DefaultValue("TABLE") Type type,
+        @DefaultValue("false") boolean offHeap,
+        @DefaultValue("1048576") int initialCapacity
+) {
+
+    /**
+     * 잔액 저장소 종류
+     * - TABLE : UserPointTable (사용자 당 boxing 된 Long 키와 UserPoint 객체를 보관)
+     * - PRIMITIVE : PrimitiveBalanceStore (사용자 당 long 3 개를 open addressing 배열에 보관)
+     */
+    public enum Type {
+        TABLE, PRIMITIVE
+    }
+}
@@ -0,0 +1,32 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 사용자 별 포인트 내역 집계
+ * - totalCharged : 충전 금액 합계
+ * - totalUsed : 사용 금액 합계
+ * - transactionCount : 충전/사용 건수
+ * - lastActivityMillis : 마지막 충전/사용 시각 (내역이 없으면 0)
+ */
+public record PointSummary(
+        long userId,
+        long totalCharged,
+        long totalUsed,
+        long transactionCount,
+        long lastActivityMillis
+) {
+
+    public static PointSummary empty(long userId) {
+        return new PointSummary(userId, 0L, 0L, 0L, 0L);
+    }
+
+    public PointSummary plus(PointHistory pointHistory) {
+        boolean charge = pointHistory.type() == TransactionType.CHARGE;
+        return new PointSummary(
+                userId,
+                charge ? totalCharged + pointHistory.amount() : totalCharged,
+                charge ? totalUsed : totalUsed + pointHistory.amount(),
+                transactionCount + 1,
+                Math.max(lastActivityMillis, pointHistory.updateMillis())
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package io.hhplus.tdd.point;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 잔액 변경 순번 (낙관적 충전/사용의 compare-and-set 용)
+ * - 사용자 id 를 STRIPES 개의 칸에 나눠 담고, 칸마다 [변경 순번 47 bit][낙관적 writer 1 bit][lock writer 수 16 bit] 를 long 하나로 둔다.
+ *   같은 칸의 사용자는 순번을 공유하므로 다른 사용자의 변경도 충돌로 보일 수 있다. (한 번 더 재시도하는 정도의 비용)
+ * - lock writer(사용자 lock 을 잡고 저장하는 경로) 끼리는 사용자 lock 으로 이미 순서가 정해지므로 서로 기다리지 않고 수만 센다.
+ *   칸을 차지한 낙관적 writer 가 있으면 끝날 때까지 기다린 뒤 잔액을 읽는다.
+ * - 낙관적 writer 는 진행 중인 writer 가 없고 순번이 잔액을 읽기 전과 같을 때만 CAS 로 칸을 차지한다.
+ * - writer 가 끝나면 순번이 하나 오른다.
+ */
+final class PointVersions {
+
+    private static final int STRIPE_BITS = 16;
+    private static final long EXCLUSIVE = 1L << 16;
+    private static final int SEQUENCE_SHIFT = 17;
+    private static final long SEQUENCE_UNIT = 1L << SEQUENCE_SHIFT;
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = 10_000L;
+
+    private final AtomicLongArray stripes = new AtomicLongArray(1 << STRIPE_BITS);
+
+    /**
+     * 지금의 변경 순번. 잔액을 읽기 전에 읽어야 한다.
+     */
+    long version(long id) {
+        return stripes.get(index(id)) >>> SEQUENCE_SHIFT;
+    }
+
+    /**
+     * version 을 읽은 이후로 진행 중이거나 끝난 writer 가 없는지
+     */
+    boolean isCurrent(long id, long version) {
+        return stripes.get(index(id)) == version << SEQUENCE_SHIFT;
+    }
+
+    /**
+     * 낙관적 writer 로 칸을 차지한다. version 을 읽은 이후로 다른 writer 가 있었으면 false
+     */
+    boolean tryAcquire(long id, long version) {
+        long expected = version << SEQUENCE_SHIFT;
+        return stripes.compareAndSet(index(id), expected, expected | EXCLUSIVE);
+    }
+
+    /**
+     * @return 오른 변경 순번
+     */
+    long release(long id) {
+        return stripes.addAndGet(index(id), SEQUENCE_UNIT - EXCLUSIVE) >>> SEQUENCE_SHIFT;
+    }
+
+    /**
+     * lock writer 로 들어간다. 칸을 차지한 낙관적 writer 가 있으면 끝날 때까지 기다린다.
+     * (수를 먼저 올리므로 그 뒤로 새 낙관적 writer 는 칸을 차지하지 못한다)
+     */
+    void acquireShared(long id) {
+        int index = index(id);
+        stripes.incrementAndGet(index);
+        for (int spins = 0; (stripes.get(index) & EXCLUSIVE) != 0; spins++) {
+            if (spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return 오른 변경 순번
+     */
+    long releaseShared(long id) {
+        return stripes.addAndGet(index(id), SEQUENCE_UNIT - 1) >>> SEQUENCE_SHIFT;
+    }
+
+    private static int index(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - STRIPE_BITS));
+    }
+}
@@ -0,0 +1,20 @@
+package io.hhplus.tdd.point;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class PointWebConfig implements WebMvcConfigurer {
+
+    private final PointClusterInterceptor pointClusterInterceptor;
+    private final PointReplicaInterceptor pointReplicaInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(pointClusterInterceptor).addPathPatterns("/point/**");
+        registry.addInterceptor(pointReplicaInterceptor).addPathPatterns("/point/**");
+    }
+}
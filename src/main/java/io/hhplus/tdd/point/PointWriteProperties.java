@@ -0,0 +1,40 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 포인트 충전/사용 처리 방식 설정
+ * - optimistic : OPTIMISTIC 방식의 재시도 설정
+ */
+@ConfigurationProperties(prefix = "point.write")
+public record PointWriteProperties(
+        @DefaultValue("LOCK") Mode mode,
+        @DefaultValue Optimistic optimistic
+) {
+
+    /**
+     * - LOCK : 요청마다 사용자 lock 을 잡고 조회/저장/내역 저장을 각각 수행
+     * - COMBINING : 같은 사용자에게 몰린 요청을 lock 을 잡은 스레드가 모아서 한 번의 조회/저장으로 처리
+     * - ADAPTIVE : HotUserTracker 가 판별한 hot user 는 COMBINING, 나머지 사용자는 LOCK 방식으로 처리
+     * - OPTIMISTIC : lock 없이 잔액을 읽고 변경 순번이 그대로일 때만 저장 (compare-and-set), 충돌하면 재시도하고
+     *   maxAttempts 번 모두 충돌하면 LOCK 방식으로 처리
+     * - SHARDED : 사용자 id 를 shard 로 나누고, 사용자를 소유한 shard 의 전용 스레드가 lock 없이 shard 별 잔액 저장소에 처리 (PointShardEngine)
+     *   point.store.type=primitive 가 필요하다.
+     */
+    public enum Mode {
+        LOCK, COMBINING, ADAPTIVE, OPTIMISTIC, SHARDED
+    }
+
+    /**
+     * - maxAttempts : lock 방식으로 넘어가기 전까지 compare-and-set 을 시도하는 횟수
+     * - maxBackoff : 충돌 후 다음 시도까지 기다리는 시간의 상한 (1us 부터 두 배씩 늘린 값 안에서 임의로 고른다)
+     */
+    public record Optimistic(
+            @DefaultValue("4") int maxAttempts,
+            @DefaultValue("1ms") Duration maxBackoff
+    ) {
+    }
+}
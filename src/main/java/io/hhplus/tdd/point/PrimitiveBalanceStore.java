@@ -0,0 +1,201 @@
+package io.hhplus.tdd.point;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * primitive 잔액 저장소
+ * - 사용자 별 (id, point, updateMillis) 를 long 3 개(24 byte) 슬롯에 담아 open addressing(linear probing) 배열에 보관한다.
+ *   boxing 된 키나 사용자 별 객체가 없으므로, 사용자 수가 많아도 GC 가 훑을 객체가 늘지 않는다.
+ * - 슬롯 배열은 ByteBuffer 이며, offHeap 이면 direct buffer 로 힙 밖에 둔다.
+ * - id 를 SEGMENT_COUNT 개 구간으로 나누고 구간마다 StampedLock 을 둔다.
+ *   저장은 write lock 을 잡고 point 와 updateMillis 를 함께 바꾸고, 조회는 optimistic read 후 검증해서 둘이 어긋난 값을 읽지 않는다.
+ * - 구간의 사용률이 LOAD_FACTOR 를 넘으면 그 구간만 두 배 크기로 옮긴다.
+ */
+public class PrimitiveBalanceStore implements BalanceStore {
+
+    private static final int SEGMENT_COUNT = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int SLOT_SIZE = 3 * Long.BYTES;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    // 슬롯의 키는 id ^ Long.MIN_VALUE 로 저장해서 0 을 빈 슬롯 표시로 쓴다. 그래서 id 가 Long.MIN_VALUE 인 사용자는 따로 둔다.
+    private static final long EMPTY = 0L;
+
+    private final boolean offHeap;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private volatile UserPoint minValueUser;
+
+    public PrimitiveBalanceStore(int initialCapacity, boolean offHeap) {
+        this.offHeap = offHeap;
+        int segmentCapacity = tableSizeFor((int) Math.ceil(Math.max(1, initialCapacity) / (double) SEGMENT_COUNT / LOAD_FACTOR));
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        if (id == Long.MIN_VALUE) {
+            UserPoint userPoint = minValueUser;
+            return userPoint != null ? userPoint : UserPoint.empty(id);
+        }
+        UserPoint userPoint = segmentFor(id).get(id);
+        return userPoint != null ? userPoint : UserPoint.empty(id);
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        long updateMillis = System.currentTimeMillis();
+        if (id == Long.MIN_VALUE) {
+            UserPoint userPoint = new UserPoint(id, amount, updateMillis);
+            minValueUser = userPoint;
+            return userPoint;
+        }
+        segmentFor(id).put(id, amount, updateMillis);
+        return new UserPoint(id, amount, updateMillis);
+    }
+
+    /**
+     * 저장된 사용자 수
+     */
+    public long size() {
+        long size = minValueUser != null ? 1 : 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * 슬롯 배열이 차지하는 byte 수 (offHeap 이면 힙 밖의 메모리)
+     */
+    public long capacityBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.capacityBytes();
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(long id) {
+        return segments[(int) (mix(id) >>> SEGMENT_SHIFT)];
+    }
+
+    private static long mix(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(MIN_SEGMENT_CAPACITY, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+    }
+
+    private final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private ByteBuffer slots;
+        private int size;
+
+        Segment(int capacity) {
+            this.slots = allocate(capacity);
+        }
+
+        UserPoint get(long id) {
+            long stamp = lock.tryOptimisticRead();
+            UserPoint userPoint = find(slots, id);
+            if (lock.validate(stamp)) {
+                return userPoint;
+            }
+
+            stamp = lock.readLock();
+            try {
+                return find(slots, id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void put(long id, long point, long updateMillis) {
+            long stamp = lock.writeLock();
+            try {
+                int offset = probe(slots, id);
+                if (slots.getLong(offset) == EMPTY) {
+                    slots.putLong(offset, id ^ Long.MIN_VALUE);
+                    if (++size > slots.capacity() / SLOT_SIZE * LOAD_FACTOR) {
+                        resize();
+                        offset = probe(slots, id);
+                    }
+                }
+                slots.putLong(offset + Long.BYTES, point);
+                slots.putLong(offset + 2 * Long.BYTES, updateMillis);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long capacityBytes() {
+            long stamp = lock.readLock();
+            try {
+                return (long) slots.capacity();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // 조회 중에 다른 스레드가 저장해도 빈 슬롯은 항상 남아 있으므로 탐색은 끝난다. (읽은 값은 validate 로 버려질 수 있다)
+        private UserPoint find(ByteBuffer slots, long id) {
+            int offset = probe(slots, id);
+            if (slots.getLong(offset) == EMPTY) {
+                return null;
+            }
+            return new UserPoint(id, slots.getLong(offset + Long.BYTES), slots.getLong(offset + 2 * Long.BYTES));
+        }
+
+        private void resize() {
+            ByteBuffer oldSlots = slots;
+            ByteBuffer newSlots = allocate(oldSlots.capacity() / SLOT_SIZE * 2);
+            for (int offset = 0; offset < oldSlots.capacity(); offset += SLOT_SIZE) {
+                long key = oldSlots.getLong(offset);
+                if (key != EMPTY) {
+                    int target = probe(newSlots, key ^ Long.MIN_VALUE);
+                    newSlots.putLong(target, key);
+                    newSlots.putLong(target + Long.BYTES, oldSlots.getLong(offset + Long.BYTES));
+                    newSlots.putLong(target + 2 * Long.BYTES, oldSlots.getLong(offset + 2 * Long.BYTES));
+                }
+            }
+            slots = newSlots;
+        }
+
+        // id 가 있는 슬롯, 없으면 id 를 넣을 빈 슬롯의 byte offset
+        // (mask 를 버퍼 크기에서 구하므로, optimistic read 중에 배열이 바뀌어도 범위를 벗어나지 않는다)
+        private static int probe(ByteBuffer slots, long id) {
+            int mask = slots.capacity() / SLOT_SIZE - 1;
+            long key = id ^ Long.MIN_VALUE;
+            int index = (int) mix(id) & mask;
+            while (true) {
+                int offset = index * SLOT_SIZE;
+                long current = slots.getLong(offset);
+                if (current == key || current == EMPTY) {
+                    return offset;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private ByteBuffer allocate(int capacity) {
+            int bytes = Math.multiplyExact(capacity, SLOT_SIZE);
+            return offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+        }
+    }
+}
@@ -1,15 +1,281 @@
 package io.hhplus.tdd.point;
 
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
 import org.springframework.stereotype.Component;
 
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
+/**
+ * 사용자 별 lock 제공
+ * - getLock 으로 받은 lock 은 한 번의 lock/unlock 쌍에만 사용한다. (REF_COUNTED 방식은 unlock 시점에 참조를 반납한다)
+ * - 충전/사용 요청은 acquire 로 잡는다. 한 사용자에게 요청이 몰려도 기다리는 스레드 수와 시간이 제한되어,
+ *   요청 스레드가 한 사용자의 lock 뒤에 모두 묶이지 않고 POINT_BUSY 로 바로 실패한다.
+ */
 @Component
 public class ServiceLockFactory {
-    private final ConcurrentHashMap<Long, ReentrantLock> lockMap = new ConcurrentHashMap<>();
 
-    public ReentrantLock getLock(long id) {
-        return lockMap.computeIfAbsent(id, key -> new ReentrantLock());
+    private final KeyedLocks locks;
+    private final long timeoutNanos;
+    private final int maxWaiters;
+
+    public ServiceLockFactory(ServiceLockProperties properties) {
+        this.locks = switch (properties.strategy()) {
+            case PER_KEY -> new PerKeyLocks(properties.fair());
+            case STRIPED -> new StripedLocks(properties.stripes(), properties.fair());
+            case REF_COUNTED -> new RefCountedLocks(properties.fair());
+        };
+        this.timeoutNanos = properties.timeout().toNanos();
+        this.maxWaiters = properties.maxWaiters();
+    }
+
+    public Lock getLock(long id) {
+        return locks.get(id);
+    }
+
+    /**
+     * 사용자 lock 을 잡아서 반환한다. (unlock 은 호출한 쪽에서 한다)
+     * - 이미 maxWaiters 개의 스레드가 기다리고 있으면 기다리지 않고, timeout 안에 잡지 못하면 POINT_BUSY 로 실패한다.
+     */
+    public Lock acquire(long id) {
+        Lock lock = locks.get(id);
+        boolean crowded = maxWaiters > 0 && locks.queueLength(lock) >= maxWaiters;
+        if (!crowded && timeoutNanos <= 0) {
+            lock.lock();
+            return lock;
+        }
+
+        try {
+            // 대기 스레드가 가득 찼으면 기다리지 않고 한 번만 시도한다. (실패하면 REF_COUNTED 방식의 참조도 반납된다)
+            // 인자 없는 tryLock 은 fair lock 에서도 기다리는 스레드를 앞지르므로, 대기 시간 0 의 tryLock 으로 공정성을 지킨다.
+            if (lock.tryLock(crowded ? 0L : timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return lock;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        throw new PointException(PointErrorCode.POINT_BUSY);
+    }
+
+    /**
+     * 현재 메모리에 유지되고 있는 lock 개수
+     */
+    public int size() {
+        return locks.size();
+    }
+
+    /**
+     * lock 을 기다리는 스레드가 가장 많은 사용자 순으로 최대 limit 명의 대기 스레드 수
+     * - 유지 중인 lock 을 모두 훑으므로 요청 처리 경로가 아닌 곳에서 주기적으로만 호출한다.
+     * - STRIPED 방식은 여러 사용자가 lock 을 공유해서 사용자 별로 나눌 수 없으므로 비어 있다.
+     */
+    public Map<Long, Integer> waitingThreads(int limit) {
+        return locks.waitingThreads(limit);
+    }
+
+    private interface KeyedLocks {
+
+        Lock get(long id);
+
+        int size();
+
+        // get 으로 받은 lock 을 기다리는 스레드 수 (추정치)
+        int queueLength(Lock lock);
+
+        Map<Long, Integer> waitingThreads(int limit);
+    }
+
+    private static Map<Long, Integer> topWaiting(Stream<Map.Entry<Long, ReentrantLock>> locks, int limit) {
+        Map<Long, Integer> waiting = new LinkedHashMap<>();
+        locks.map(entry -> Map.entry(entry.getKey(), entry.getValue().getQueueLength()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .forEach(entry -> waiting.put(entry.getKey(), entry.getValue()));
+        return waiting;
+    }
+
+    private static final class PerKeyLocks implements KeyedLocks {
+
+        private final ConcurrentHashMap<Long, ReentrantLock> lockMap = new ConcurrentHashMap<>();
+        private final boolean fair;
+
+        private PerKeyLocks(boolean fair) {
+            this.fair = fair;
+        }
+
+        @Override
+        public Lock get(long id) {
+            return lockMap.computeIfAbsent(id, key -> new ReentrantLock(fair));
+        }
+
+        @Override
+        public int size() {
+            return lockMap.size();
+        }
+
+        @Override
+        public int queueLength(Lock lock) {
+            return ((ReentrantLock) lock).getQueueLength();
+        }
+
+        @Override
+        public Map<Long, Integer> waitingThreads(int limit) {
+            return topWaiting(lockMap.entrySet().stream(), limit);
+        }
+    }
+
+    private static final class StripedLocks implements KeyedLocks {
+
+        private final ReentrantLock[] stripes;
+        private final int mask;
+
+        private StripedLocks(int stripeCount, boolean fair) {
+            // stripeCount 이상인 가장 작은 2의 거듭제곱 (1 은 1, 2의 거듭제곱은 그대로)
+            int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+            this.stripes = new ReentrantLock[size];
+            this.mask = size - 1;
+            for (int i = 0; i < size; i++) {
+                stripes[i] = new ReentrantLock(fair);
+            }
+        }
+
+        @Override
+        public Lock get(long id) {
+            int hash = Long.hashCode(id);
+            return stripes[(hash ^ (hash >>> 16)) & mask];
+        }
+
+        @Override
+        public int size() {
+            return stripes.length;
+        }
+
+        @Override
+        public int queueLength(Lock lock) {
+            return ((ReentrantLock) lock).getQueueLength();
+        }
+
+        @Override
+        public Map<Long, Integer> waitingThreads(int limit) {
+            return Map.of();
+        }
+    }
+
+    private static final class RefCountedLocks implements KeyedLocks {
+
+        private final ConcurrentHashMap<Long, Entry> lockMap = new ConcurrentHashMap<>();
+        private final boolean fair;
+
+        private RefCountedLocks(boolean fair) {
+            this.fair = fair;
+        }
+
+        @Override
+        public Lock get(long id) {
+            Entry entry = lockMap.compute(id, (key, current) -> {
+                Entry acquired = current == null ? new Entry(fair) : current;
+                acquired.refs++;
+                return acquired;
+            });
+            return new Handle(id, entry);
+        }
+
+        @Override
+        public int size() {
+            return lockMap.size();
+        }
+
+        @Override
+        public int queueLength(Lock lock) {
+            return ((Handle) lock).entry.lock.getQueueLength();
+        }
+
+        @Override
+        public Map<Long, Integer> waitingThreads(int limit) {
+            return topWaiting(lockMap.entrySet().stream().map(entry -> Map.entry(entry.getKey(), entry.getValue().lock)), limit);
+        }
+
+        private void release(long id) {
+            lockMap.computeIfPresent(id, (key, entry) -> --entry.refs == 0 ? null : entry);
+        }
+
+        // refs 는 ConcurrentHashMap 의 compute 안에서만 변경된다.
+        private static final class Entry {
+            private final ReentrantLock lock;
+            private int refs;
+
+            private Entry(boolean fair) {
+                this.lock = new ReentrantLock(fair);
+            }
+        }
+
+        private final class Handle implements Lock {
+
+            private final long id;
+            private final Entry entry;
+
+            private Handle(long id, Entry entry) {
+                this.id = id;
+                this.entry = entry;
+            }
+
+            @Override
+            public void lock() {
+                entry.lock.lock();
+            }
+
+            @Override
+            public void lockInterruptibly() throws InterruptedException {
+                try {
+                    entry.lock.lockInterruptibly();
+                } catch (InterruptedException e) {
+                    release(id);
+                    throw e;
+                }
+            }
+
+            @Override
+            public boolean tryLock() {
+                if (entry.lock.tryLock()) {
+                    return true;
+                }
+                release(id);
+                return false;
+            }
+
+            @Override
+            public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+                boolean acquired = false;
+                try {
+                    acquired = entry.lock.tryLock(time, unit);
+                    return acquired;
+                } finally {
+                    if (!acquired) {
+                        release(id);
+                    }
+                }
+            }
+
+            @Override
+            public void unlock() {
+                entry.lock.unlock();
+                release(id);
+            }
+
+            @Override
+            public Condition newCondition() {
+                return entry.lock.newCondition();
+            }
+        }
     }
 }
@@ -0,0 +1,33 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 사용자 별 lock 설정
+ * - strategy : lock 을 만들고 보관하는 방식
+ * - stripes : STRIPED 방식에서 사용할 lock 개수 (2의 거듭제곱으로 올림)
+ * - fair : true 이면 기다린 순서대로 lock 을 넘겨준다. (처리량은 줄지만 오래 기다리는 요청이 없다)
+ * - timeout : 충전/사용 요청이 lock 을 기다리는 최대 시간 (0 이면 제한 없음, 넘으면 POINT_BUSY)
+ * - maxWaiters : 한 사용자의 lock 을 기다릴 수 있는 최대 요청 수 (0 이면 제한 없음, 넘으면 기다리지 않고 POINT_BUSY)
+ */
+@ConfigurationProperties(prefix = "point.lock")
+public record ServiceLockProperties(
+        @DefaultValue("PER_KEY") Strategy strategy,
+        @DefaultValue("1024") int stripes,
+        @DefaultValue("false") boolean fair,
+        @DefaultValue("0") Duration timeout,
+        @DefaultValue("0") int maxWaiters
+) {
+
+    /**
+     * - PER_KEY : 사용자 id 마다 lock 을 만들고 제거하지 않는다.
+     * - STRIPED : 고정된 개수의 lock 배열을 두고 사용자 id 의 hash 로 나눠 쓴다. (서로 다른 사용자가 lock 을 공유할 수 있다)
+     * - REF_COUNTED : 사용자 id 마다 lock 을 만들되, 잡고 있거나 기다리는 스레드가 없으면 제거한다.
+     */
+    public enum Strategy {
+        PER_KEY, STRIPED, REF_COUNTED
+    }
+}
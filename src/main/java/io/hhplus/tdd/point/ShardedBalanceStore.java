@@ -0,0 +1,45 @@
+package io.hhplus.tdd.point;
+
+/**
+ * shard 별 잔액 저장소 (point.write.mode=SHARDED)
+ * - 사용자 id 를 PointShardEngine 과 같은 방식으로 나누고, shard 마다 PrimitiveBalanceStore 를 하나씩 둔다.
+ *   사용자의 잔액은 그 사용자를 소유한 shard 스레드만 저장하므로, shard 끼리는 저장소도 lock 도 나누지 않는다.
+ * - 조회는 어느 스레드에서든 소유 shard 의 저장소를 읽는다. (PrimitiveBalanceStore 의 optimistic read)
+ */
+public class ShardedBalanceStore implements BalanceStore {
+
+    private final PrimitiveBalanceStore[] shards;
+
+    public ShardedBalanceStore(int shardCount, int initialCapacity, boolean offHeap) {
+        this.shards = new PrimitiveBalanceStore[shardCount];
+        int shardCapacity = (int) Math.ceil(Math.max(1, initialCapacity) / (double) shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new PrimitiveBalanceStore(shardCapacity, offHeap);
+        }
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        return shardFor(id).selectById(id);
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        return shardFor(id).insertOrUpdate(id, amount);
+    }
+
+    /**
+     * shard 별 저장된 사용자 수
+     */
+    public long[] sizes() {
+        long[] sizes = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size();
+        }
+        return sizes;
+    }
+
+    private PrimitiveBalanceStore shardFor(long id) {
+        return shards[PointShardEngine.shardIndex(id, shards.length)];
+    }
+}
@@ -0,0 +1,25 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+
+/**
+ * UserPointTable 을 그대로 사용하는 잔액 저장소
+ */
+public class TableBalanceStore implements BalanceStore {
+
+    private final UserPointTable userPointTable;
+
+    public TableBalanceStore(UserPointTable userPointTable) {
+        this.userPointTable = userPointTable;
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        return userPointTable.selectById(id);
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        return userPointTable.insertOrUpdate(id, amount);
+    }
+}
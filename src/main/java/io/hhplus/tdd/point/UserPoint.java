@@ -1,20 +1,35 @@
 package io.hhplus.tdd.point;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * version : 잔액을 읽을 때의 변경 순번 (PointRepository.compareAndSet 에 넘긴다, 저장소에서 읽지 않은 값은 0)
+ * - 서버 안에서만 쓰는 값이라 API 응답(JSON)에는 포함하지 않는다.
+ */
 public record UserPoint(
         long id,
         long point,
-        long updateMillis
+        long updateMillis,
+        @JsonIgnore long version
 ) {
 
+    public UserPoint(long id, long point, long updateMillis) {
+        this(id, point, updateMillis, 0L);
+    }
+
     public static UserPoint empty(long id) {
         return new UserPoint(id, 0, System.currentTimeMillis());
     }
 
     public UserPoint charge(long amount) {
-        return new UserPoint(id, point + amount, System.currentTimeMillis());
+        return new UserPoint(id, point + amount, System.currentTimeMillis(), version);
     }
 
     public UserPoint use(long amount) {
-        return new UserPoint(id, point - amount, System.currentTimeMillis());
+        return new UserPoint(id, point - amount, System.currentTimeMillis(), version);
+    }
+
+    public UserPoint withVersion(long version) {
+        return new UserPoint(id, point, updateMillis, version);
     }
 }
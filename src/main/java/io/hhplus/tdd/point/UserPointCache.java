@@ -0,0 +1,124 @@
+package io.hhplus.tdd.point;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 크기가 제한된 UserPoint LRU 캐시
+ * - 사용자 id 로 나눈 segment 마다 access-order LinkedHashMap 을 두어 lock 경합을 줄인다.
+ * - 조회/적중/미스/제거 횟수를 집계한다.
+ * - segment 마다 put 횟수(쓰기 순번)를 세어, 조회 미스로 저장소를 읽는 사이 쓰기가 있었으면 읽은 값을 채우지 않는다.
+ *   (새 값이 채워졌다가 제거된 뒤에 늦게 도착한 이전 값이 다시 들어가지 않는다)
+ */
+public class UserPointCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserPointCache(int maximumSize) {
+        int segmentSize = Math.max(1, maximumSize / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    public UserPoint get(long id) {
+        Segment segment = segmentFor(id);
+        segment.lock.lock();
+        try {
+            UserPoint userPoint = segment.get(id);
+            if (userPoint == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            return userPoint;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void put(UserPoint userPoint) {
+        Segment segment = segmentFor(userPoint.id());
+        segment.lock.lock();
+        try {
+            segment.writes++;
+            segment.put(userPoint.id(), userPoint);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 조회 미스로 저장소를 읽기 전에 호출한다.
+     * @return 사용자가 속한 segment 의 쓰기 순번 (putIfAbsent 에 넘긴다)
+     */
+    public long writeStamp(long id) {
+        return segmentFor(id).writes;
+    }
+
+    /**
+     * 조회 미스로 저장소에서 읽은 값을 채울 때 사용한다.
+     * 읽기 전의 쓰기 순번(writeStamp) 이후로 같은 segment 에 write-through 가 있었으면, 더 최신 값이 들어왔다가 제거되었을 수 있으므로 채우지 않는다.
+     */
+    public void putIfAbsent(UserPoint userPoint, long writeStamp) {
+        Segment segment = segmentFor(userPoint.id());
+        segment.lock.lock();
+        try {
+            if (segment.writes == writeStamp) {
+                segment.putIfAbsent(userPoint.id(), userPoint);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment segmentFor(long id) {
+        return segments[(Long.hashCode(id) & 0x7fffffff) % SEGMENT_COUNT];
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, long size) {
+    }
+
+    private final class Segment extends LinkedHashMap<Long, UserPoint> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int maximumSize;
+        // lock 을 잡고 올리고, writeStamp 는 lock 없이 읽는다.
+        private volatile long writes;
+
+        private Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserPoint> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
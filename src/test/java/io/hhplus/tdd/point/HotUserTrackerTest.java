@@ -0,0 +1,65 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotUserTrackerTest {
+
+    // window 는 테스트에서 직접 넘기도록 충분히 길게 둔다.
+    private final HotUserTracker tracker = new HotUserTracker(new HotUserProperties(4, 4096, Duration.ofHours(1), 0.01, 100, 100));
+
+    /**
+     * 전체 요청의 절반이 몰린 사용자만 hot user 로 판별된다.
+     */
+    @Test
+    void 요청이_몰린_사용자_판별() {
+        // given
+        long hotUserId = 1L;
+        Random random = new Random(42);
+
+        // when
+        for (int window = 0; window < 3; window++) {
+            for (int i = 0; i < 20_000; i++) {
+                tracker.record(i % 2 == 0 ? hotUserId : 1_000 + random.nextInt(100_000));
+            }
+            tracker.rollover(1);
+        }
+        tracker.record(hotUserId);
+
+        // then
+        assertThat(tracker.isHot(hotUserId)).isTrue();
+        assertThat(tracker.hotUsers())
+                .extracting(HotUser::userId)
+                .containsExactly(hotUserId);
+        assertThat(tracker.estimate(hotUserId)).isGreaterThan(8_000); // window 마다 절반으로 줄어든 누적치 ((10000 / 2 + 10000) / 2 + 10000) / 2 + 1 = 8751
+    }
+
+    /**
+     * 요청이 끊기면 window 가 지나면서 hot user 에서 해제된다.
+     */
+    @Test
+    void 요청이_끊기면_hot_user_해제() {
+        // given
+        long hotUserId = 1L;
+        for (int i = 0; i < 1_000; i++) {
+            tracker.record(hotUserId);
+        }
+        assertThat(tracker.isHot(hotUserId)).isTrue();
+
+        // when
+        for (int window = 0; window < 5; window++) {
+            for (int i = 0; i < 1_000; i++) {
+                tracker.record(1_000 + i);
+            }
+            tracker.rollover(1);
+        }
+
+        // then
+        assertThat(tracker.isHot(hotUserId)).isFalse();
+        assertThat(tracker.hotUsers()).isEmpty();
+    }
+}
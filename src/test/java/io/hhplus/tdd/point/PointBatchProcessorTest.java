@@ -0,0 +1,152 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class PointBatchProcessorTest {
+
+    private PointRepository pointRepository;
+    private PointHistoryRepository pointHistoryRepository;
+    private PointBatchProcessor pointBatchProcessor;
+
+    @BeforeEach
+    void setUp() {
+        pointRepository = new PointRepository(new UserPointTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100_000), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ofMillis(1)),
+                new PointJournal(new PointJournalProperties(false, Path.of("data/journal"), PointJournalProperties.FsyncPolicy.GROUP, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5))),
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        pointHistoryRepository.start();
+        ServiceLockFactory lockFactory = new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.PER_KEY, 0, false, Duration.ZERO, 0));
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry(), lockFactory, new PointMetricsProperties(10, Duration.ofSeconds(10)));
+        PointCombiner pointCombiner = new PointCombiner(pointRepository, pointHistoryRepository, lockFactory, pointMetrics);
+        pointBatchProcessor = new PointBatchProcessor(pointCombiner, lockFactory, new PointBatchProperties(4, 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pointBatchProcessor.shutdown();
+        pointHistoryRepository.shutdown();
+    }
+
+    /**
+     * 사용자 별로 요청 순서대로 적용되고, 실패한 요청은 해당 요청의 결과로만 남는다.
+     */
+    @Test
+    void 일괄_처리_요청별_결과() {
+        // given
+        pointRepository.insertOrUpdate(new UserPoint(1L, 100L, System.currentTimeMillis()));
+        List<PointCommand> commands = List.of(
+                PointCommand.charge(1L, 50L),
+                PointCommand.charge(2L, 300L),
+                PointCommand.use(1L, 500L),
+                PointCommand.charge(2L, PointCommand.MAX_CHARGE_AMOUNT + 1),
+                new PointCommand(3L, null, 10L),
+                PointCommand.use(1L, 150L),
+                PointCommand.use(2L, 100L)
+        );
+
+        // when
+        List<PointBatchResult> results = pointBatchProcessor.process(commands);
+
+        // then
+        assertThat(results)
+                .extracting(PointBatchResult::userId, result -> result.userPoint() == null ? null : result.userPoint().point(), result -> result.error() == null ? null : result.error().code())
+                .containsExactly(
+                        tuple(1L, 150L, null),
+                        tuple(2L, 300L, null),
+                        tuple(1L, null, PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT.getCode()),
+                        tuple(2L, null, PointErrorCode.CHARGE_AMOUNT_GREATER_THAN_MAX.getCode()),
+                        tuple(3L, null, PointErrorCode.TRANSACTION_TYPE_REQUIRED.getCode()),
+                        tuple(1L, 0L, null),
+                        tuple(2L, 200L, null)
+                );
+        assertThat(pointRepository.selectById(1L)).hasValueSatisfying(userPoint -> assertThat(userPoint.point()).isZero());
+        assertThat(pointRepository.selectById(2L)).hasValueSatisfying(userPoint -> assertThat(userPoint.point()).isEqualTo(200L));
+        assertThat(pointHistoryRepository.selectAllByuserId(1L))
+                .extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(
+                        tuple(TransactionType.CHARGE, 50L),
+                        tuple(TransactionType.USE, 150L)
+                );
+        assertThat(pointHistoryRepository.selectAllByuserId(3L)).isEmpty();
+    }
+
+    /**
+     * 다른 스레드가 사용자 lock 을 잡고 있으면 그 사용자의 요청은 timeout 뒤에 POINT_BUSY 로 실패하고, 나머지 사용자는 처리된다.
+     */
+    @Test
+    void 사용자_lock_대기_제한() throws Exception {
+        // given
+        PointServiceFixture fixture = PointServiceFixture.builder()
+                .lock(new ServiceLockProperties(ServiceLockProperties.Strategy.PER_KEY, 0, false, Duration.ofMillis(50), 0))
+                .batch(4, 10)
+                .build();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            Lock lock = fixture.lockFactory().getLock(1L);
+            lock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        locked.await();
+
+        // when
+        List<PointBatchResult> results;
+        try {
+            results = fixture.pointBatchProcessor().process(List.of(PointCommand.charge(1L, 100L), PointCommand.charge(2L, 100L)));
+        } finally {
+            release.countDown();
+            holder.join();
+            fixture.shutdown();
+        }
+
+        // then
+        assertThat(results)
+                .extracting(PointBatchResult::userId, result -> result.error() == null ? null : result.error().code())
+                .containsExactly(
+                        tuple(1L, PointErrorCode.POINT_BUSY.getCode()),
+                        tuple(2L, null)
+                );
+    }
+
+    @Test
+    void 일괄_처리_최대_건수_초과() {
+        // given
+        List<PointCommand> commands = Collections.nCopies(11, PointCommand.charge(1L, 100L));
+
+        // when, then
+        assertThatThrownBy(() -> pointBatchProcessor.process(commands))
+                .isInstanceOf(PointException.class)
+                .hasMessage(PointErrorCode.BATCH_SIZE_EXCEEDED.getMessage());
+    }
+}
@@ -0,0 +1,91 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PATCH /point/{id}/charge 부하 테스트 (./gradlew loadTest 로 실행)
+ * - write-behind 적용 전(요청 스레드에서 내역 저장)과 후의 p99 응답시간을 비교한다.
+ * - 테이블의 임의 지연(throttle)에 따라 응답시간이 달라지므로 기본 test 에서는 제외한다.
+ */
+@Tag("load")
+class PointChargeLatencyTest {
+
+    private static final int THREAD_COUNT = 20;
+    private static final int REQUEST_PER_THREAD = 10;
+
+    @Test
+    void 충전_p99_응답시간_비교() throws Exception {
+        // given
+        HistoryWriteBehindProperties before = new HistoryWriteBehindProperties(false, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO);
+        HistoryWriteBehindProperties after = new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO);
+
+        // when
+        long beforeP99 = p99(chargeLatencies(before));
+        long afterP99 = p99(chargeLatencies(after));
+
+        // then
+        System.out.printf("charge p99 latency - before: %dms, after: %dms%n", beforeP99, afterP99);
+        assertThat(afterP99).isLessThan(beforeP99);
+    }
+
+    private List<Long> chargeLatencies(HistoryWriteBehindProperties properties) throws InterruptedException {
+        PointServiceFixture fixture = PointServiceFixture.builder()
+                .writeBehind(properties)
+                .build();
+        PointService pointService = fixture.pointService();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PointController(pointService, new ObjectMapper(), new PointIdempotencyStore(new PointIdempotencyProperties(100_000, Duration.ofMinutes(10), 64, 1_000)), new PointClusterRouter(new PointClusterProperties(false, "", List.of(), 160, Duration.ofSeconds(1), Duration.ofSeconds(10)), new ObjectMapper()))).build();
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            long id = i + 1; // 사용자 별 lock 대기가 섞이지 않도록 스레드마다 다른 사용자로 요청
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < REQUEST_PER_THREAD; j++) {
+                        long start = System.nanoTime();
+                        mockMvc.perform(patch("/point/{id}/charge", id)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("100"))
+                                .andExpect(status().isOk());
+                        latencies.add((System.nanoTime() - start) / 1_000_000);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+        fixture.shutdown();
+
+        assertThat(latencies).hasSize(THREAD_COUNT * REQUEST_PER_THREAD);
+        return latencies;
+    }
+
+    private long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
@@ -0,0 +1,246 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.TddApplication;
+import io.hhplus.tdd.exception.PointErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 여러 노드로 사용자를 나누어 처리
+ * - localhost 에 노드 3개를 띄우고, 어느 노드로 요청해도 사용자를 소유한 노드에서만 처리되는지 확인한다.
+ * - 실행할 때마다 이전 실행의 기록이 복구되지 않도록 저널, snapshot, 보관은 끈다.
+ */
+class PointClusterTest {
+
+    private static final int NODES = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private HttpClient httpClient;
+
+    @AfterEach
+    void tearDown() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    /**
+     * 사용자는 노드에 고르게 나뉘고, 노드를 하나 늘리면 새 노드로 옮겨 가는 사용자만 소유 노드가 바뀐다.
+     */
+    @Test
+    void ring_분배와_노드_추가() {
+        // given
+        int users = 100_000;
+        List<String> nodes = List.of("http://node-0:8080", "http://node-1:8080", "http://node-2:8080");
+        PointClusterRing ring = new PointClusterRing(nodes, 160);
+        PointClusterRing grown = new PointClusterRing(List.of(nodes.get(0), nodes.get(1), nodes.get(2), "http://node-3:8080"), 160);
+
+        // when
+        Map<String, Integer> counts = new HashMap<>();
+        int moved = 0;
+        for (long id = 0; id < users; id++) {
+            String owner = ring.owner(id);
+            counts.merge(owner, 1, Integer::sum);
+            if (!grown.owner(id).equals(owner)) {
+                assertThat(grown.owner(id)).isEqualTo("http://node-3:8080");
+                moved++;
+            }
+        }
+
+        // then
+        assertThat(counts.values()).hasSize(NODES).allSatisfy(count -> assertThat(count).isBetween(users / 4, users * 5 / 12));
+        assertThat(moved).isBetween(users / 8, users * 3 / 8);
+    }
+
+    /**
+     * 여러 노드에 같은 사용자의 충전/사용과 일괄 처리가 동시에 몰려도 잔액이 맞고,
+     * 잔액과 내역은 소유 노드에만 남으며 어느 노드로 조회해도 같은 잔액을 받는다.
+     */
+    @Test
+    void 노드_3개_동시_요청() throws Exception {
+        // given
+        List<String> nodes = startNodes();
+        httpClient = HttpClient.newHttpClient();
+        int users = 30;
+        int threadCount = 8;
+        int requestsPerThread = 120;
+        for (long id = 0; id < users; id++) {
+            send(nodes.get(0), "PATCH", "/point/" + id + "/charge", "1000000");
+        }
+
+        // when
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            int idx = i;
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        long id = j % users;
+                        String node = nodes.get((idx + j) % NODES);
+                        HttpResponse<String> response = switch (idx % 4) {
+                            case 0, 1 -> send(node, "PATCH", "/point/" + id + "/charge", "100");
+                            case 2 -> send(node, "PATCH", "/point/" + id + "/use", "30");
+                            default -> send(node, "POST", "/point/batch", objectMapper.writeValueAsString(
+                                    List.of(PointCommand.charge(id, 7L), PointCommand.use((id + 1) % users, 3L))));
+                        };
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await(1, TimeUnit.MINUTES);
+        executorService.shutdown();
+
+        // then
+        assertThat(failures.get()).isZero();
+        long perUser = requestsPerThread / users;
+        long expected = 1_000_000L + perUser * (4 * 100L - 2 * 30L + 2 * (7L - 3L));
+        for (long id = 0; id < users; id++) {
+            for (String node : nodes) {
+                UserPoint userPoint = objectMapper.readValue(send(node, "GET", "/point/" + id, null).body(), UserPoint.class);
+                assertThat(userPoint.point()).isEqualTo(expected);
+            }
+
+            String owner = contexts.get(0).getBean(PointClusterRouter.class).ownerOf(id);
+            for (int node = 0; node < NODES; node++) {
+                List<PointHistory> histories = contexts.get(node).getBean(PointHistoryRepository.class).selectAllByuserId(id);
+                assertThat(histories).hasSize(nodes.get(node).equals(owner) ? 1 + (int) perUser * (4 + 2 + 2 * 2) : 0);
+            }
+        }
+
+        List<PointHistory> histories = objectMapper.readValue(send(nodes.get(1), "GET", "/point/7/histories", null).body(), new TypeReference<>() {
+        });
+        assertThat(histories).hasSize(1 + (int) perUser * (4 + 2 + 2 * 2));
+    }
+
+    /**
+     * 연결하지 못한 노드의 요청은 보내지 못한 것(POINT_NODE_UNAVAILABLE)으로, 보냈지만 응답을 받지 못한 노드의 요청은
+     * 결과를 모르는 것(POINT_NODE_OUTCOME_UNKNOWN)으로 구분하고, 나누어 보낸 요청에는 받은 Idempotency-Key 로 만든 key 를 붙인다.
+     */
+    @Test
+    void 전달_실패_구분() throws Exception {
+        // given
+        ServerSocket closed = new ServerSocket(0);
+        String refused = "http://localhost:" + closed.getLocalPort();
+        closed.close();
+        List<String> received = new CopyOnWriteArrayList<>();
+        try (ServerSocket silent = new ServerSocket(0)) {
+            String self = "http://localhost:1";
+            String timeout = "http://localhost:" + silent.getLocalPort();
+            // 요청 헤더를 읽기만 하고 응답하지 않는 노드
+            Thread.ofVirtual().start(() -> {
+                try (Socket socket = silent.accept();
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                    for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+                        received.add(line);
+                    }
+                    while (reader.read() != -1) {
+                        // 보낸 쪽이 기다리다가 연결을 끊을 때까지 응답하지 않는다.
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+            PointClusterRouter router = new PointClusterRouter(
+                    new PointClusterProperties(true, self, List.of(self, refused, timeout), 160, Duration.ofSeconds(1), Duration.ofMillis(300)), objectMapper);
+            Map<String, Long> userByNode = new HashMap<>();
+            for (long id = 0; userByNode.size() < 3; id++) {
+                userByNode.putIfAbsent(router.ownerOf(id), id);
+            }
+            List<PointCommand> commands = List.of(
+                    PointCommand.charge(userByNode.get(self), 100L),
+                    PointCommand.charge(userByNode.get(refused), 100L),
+                    PointCommand.charge(userByNode.get(timeout), 100L));
+
+            // when
+            List<PointBatchResult> results = router.batch(commands, false, "batch-1", (local, key) -> local.stream()
+                    .map(command -> PointBatchResult.success(command, new UserPoint(command.userId(), command.amount(), 1L)))
+                    .toList());
+            router.shutdown();
+
+            // then
+            assertThat(results.get(0).userPoint().point()).isEqualTo(100L);
+            assertThat(results.get(1).error().code()).isEqualTo(PointErrorCode.POINT_NODE_UNAVAILABLE.name());
+            assertThat(results.get(2).error().code()).isEqualTo(PointErrorCode.POINT_NODE_OUTCOME_UNKNOWN.name());
+            assertThat(received).anySatisfy(header -> assertThat(header)
+                    .isEqualToIgnoringCase("Idempotency-Key: " + PointClusterRouter.derivedKey("batch-1", timeout)));
+        }
+    }
+
+    private List<String> startNodes() throws IOException {
+        // 모든 노드의 주소를 미리 정해야 하므로 빈 port 를 한꺼번에 잡았다가 놓는다.
+        List<ServerSocket> sockets = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            sockets.add(new ServerSocket(0));
+        }
+        List<Integer> ports = new ArrayList<>();
+        for (ServerSocket socket : sockets) {
+            ports.add(socket.getLocalPort());
+            socket.close();
+        }
+        List<String> nodes = ports.stream().map(port -> "http://localhost:" + port).toList();
+        for (int i = 0; i < NODES; i++) {
+            contexts.add(new SpringApplicationBuilder(TddApplication.class)
+                    .properties(
+                            "server.port=" + ports.get(i),
+                            "point.journal.enabled=false",
+                            "point.snapshot.enabled=false",
+                            "point.history.retention.enabled=false",
+                            "point.lock.timeout=0",
+                            "point.lock.max-waiters=0",
+                            "point.cluster.enabled=true",
+                            "point.cluster.self=" + nodes.get(i),
+                            "point.cluster.nodes=" + String.join(",", nodes)
+                    )
+                    .run());
+        }
+        assertThat(IntStream.range(0, NODES).mapToObj(i -> contexts.get(i).getBean(PointClusterRouter.class).ownerOf(0L)).distinct()).hasSize(1);
+        return nodes;
+    }
+
+    private HttpResponse<String> send(String node, String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(node + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
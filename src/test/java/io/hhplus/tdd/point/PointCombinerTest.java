@@ -0,0 +1,120 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class PointCombinerTest {
+
+    private PointRepository pointRepository;
+    private PointHistoryRepository pointHistoryRepository;
+    private PointCombiner pointCombiner;
+
+    @BeforeEach
+    void setUp() {
+        pointRepository = new PointRepository(new UserPointTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100_000), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ofMillis(1)),
+                new PointJournal(new PointJournalProperties(false, Path.of("data/journal"), PointJournalProperties.FsyncPolicy.GROUP, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5))),
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        pointHistoryRepository.start();
+        ServiceLockFactory lockFactory = new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.PER_KEY, 0, false, Duration.ZERO, 0));
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry(), lockFactory, new PointMetricsProperties(10, Duration.ofSeconds(10)));
+        pointCombiner = new PointCombiner(pointRepository, pointHistoryRepository, lockFactory, pointMetrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pointHistoryRepository.shutdown();
+    }
+
+    /**
+     * 한 묶음 안에서 잔액이 부족한 요청만 실패하고, 나머지는 도착 순서대로 적용된다.
+     */
+    @Test
+    void 묶음_처리_요청별_결과() {
+        // given
+        long id = 1L;
+        pointRepository.insertOrUpdate(new UserPoint(id, 100L, System.currentTimeMillis()));
+
+        PointCombiner.PendingCommand charge = new PointCombiner.PendingCommand(PointCommand.charge(id, 50L), new CompletableFuture<>());
+        PointCombiner.PendingCommand tooMuch = new PointCombiner.PendingCommand(PointCommand.use(id, 500L), new CompletableFuture<>());
+        PointCombiner.PendingCommand use = new PointCombiner.PendingCommand(PointCommand.use(id, 100L), new CompletableFuture<>());
+        pointCombiner.enqueue(charge);
+        pointCombiner.enqueue(tooMuch);
+        pointCombiner.enqueue(use);
+
+        // when
+        pointCombiner.combine(id);
+
+        // then
+        assertThat(charge.result().join().point()).isEqualTo(150L);
+        assertThat(tooMuch.result())
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(Exception.class)
+                .havingCause()
+                .isInstanceOf(PointException.class)
+                .withMessage(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT.getMessage());
+        assertThat(use.result().join().point()).isEqualTo(50L);
+        assertThat(pointRepository.selectById(id)).hasValueSatisfying(userPoint -> assertThat(userPoint.point()).isEqualTo(50L));
+        assertThat(pointHistoryRepository.selectAllByuserId(id))
+                .extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(
+                        tuple(TransactionType.CHARGE, 50L),
+                        tuple(TransactionType.USE, 100L)
+                );
+    }
+
+    /**
+     * 한 사용자에게 1,000 건의 충전이 동시에 몰리는 경우의 처리량
+     */
+    @Test
+    void 한_사용자_동시_요청_처리량() throws InterruptedException {
+        // given
+        long id = 1L;
+        long amount = 100L;
+        int requestCount = 1_000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(200);
+        CountDownLatch latch = new CountDownLatch(requestCount);
+
+        // when
+        long start = System.nanoTime();
+        for (int i = 0; i < requestCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    pointCombiner.execute(PointCommand.charge(id, amount));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        executorService.shutdown();
+
+        // then
+        System.out.printf("combined %d charges on one user in %dms (%.1f ops/s)%n", requestCount, elapsedMillis, requestCount * 1000.0 / elapsedMillis);
+        assertThat(pointRepository.selectById(id)).hasValueSatisfying(userPoint -> assertThat(userPoint.point()).isEqualTo(amount * requestCount));
+        assertThat(pointHistoryRepository.selectAllByuserId(id)).hasSize(requestCount);
+    }
+}
@@ -0,0 +1,214 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 공개된 충전/사용 결과 조회 (point.read.committed-snapshot)
+ */
+class PointCommittedReadTest {
+
+    private PointServiceFixture fixture;
+    private PointHistoryRepository pointHistoryRepository;
+    private PointService pointService;
+
+    @AfterEach
+    void tearDown() {
+        // 저장소만 쓰는 테스트는 서비스를 만들지 않는다.
+        if (fixture == null) {
+            return;
+        }
+        fixture.shutdown();
+    }
+
+    /**
+     * 같은 사용자에게 충전/사용/일괄 처리가 몰리는 동안 읽은 잔액은 항상 함께 읽은 내역 id 까지의 내역 합과 같고, 내역 id 는 줄어들지 않는다.
+     */
+    @Test
+    void 동시_충전_사용중_조회한_잔액과_내역_id_일치() throws Exception {
+        // given
+        long id = 1L;
+        int writers = 4;
+        int requestsPerWriter = 300;
+        setUp(new CountingTable(), PointWriteProperties.Mode.OPTIMISTIC, true);
+        pointService.charge(id, 1_000_000L);
+
+        // when
+        ExecutorService executorService = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch done = new CountDownLatch(writers);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        for (int i = 0; i < writers; i++) {
+            int idx = i;
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < requestsPerWriter; j++) {
+                        switch (idx % 3) {
+                            case 0 -> pointService.charge(id, 100L);
+                            case 1 -> pointService.use(id, 30L);
+                            default -> pointService.batch(List.of(PointCommand.charge(id, 7L), PointCommand.use(id, 3L)));
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        List<Future<List<CommittedPoint>>> readers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            readers.add(executorService.submit(() -> {
+                List<CommittedPoint> reads = new ArrayList<>();
+                while (writing.get()) {
+                    reads.add(pointService.getCommittedPoint(id));
+                }
+                return reads;
+            }));
+        }
+        done.await(1, TimeUnit.MINUTES);
+        writing.set(false);
+        List<List<CommittedPoint>> reads = new ArrayList<>();
+        for (Future<List<CommittedPoint>> reader : readers) {
+            reads.add(reader.get(1, TimeUnit.MINUTES));
+        }
+        executorService.shutdown();
+
+        // then
+        Map<Long, Long> balanceByHistoryId = new HashMap<>();
+        long balance = 0L;
+        for (PointHistory history : pointHistoryRepository.selectAllByuserId(id)) {
+            balance += history.type() == TransactionType.CHARGE ? history.amount() : -history.amount();
+            balanceByHistoryId.put(history.id(), balance);
+        }
+        for (List<CommittedPoint> readerReads : reads) {
+            assertThat(readerReads).isNotEmpty();
+            assertThat(readerReads).extracting(CommittedPoint::lastHistoryId).isSorted();
+            for (CommittedPoint read : readerReads) {
+                assertThat(read.userPoint().point()).isEqualTo(balanceByHistoryId.get(read.lastHistoryId()));
+            }
+        }
+        assertThat(pointService.getCommittedPoint(id).userPoint().point()).isEqualTo(balance);
+    }
+
+    /**
+     * 한 번 충전/사용한 사용자의 잔액 조회는 테이블을 읽지 않고, 꺼져 있으면 매번 읽는다.
+     */
+    @Test
+    void 공개된_결과는_테이블을_읽지_않음() {
+        // given
+        long id = 1L;
+        CountingTable enabledTable = new CountingTable();
+        setUp(enabledTable, PointWriteProperties.Mode.LOCK, true);
+        pointService.charge(id, 100L);
+        int enabledSelects = enabledTable.selects.get();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            assertThat(pointService.getUserPoint(id).point()).isEqualTo(100L);
+        }
+        CommittedPoint committed = pointService.getCommittedPoint(id);
+        tearDown();
+
+        CountingTable disabledTable = new CountingTable();
+        setUp(disabledTable, PointWriteProperties.Mode.LOCK, false);
+        pointService.charge(id, 100L);
+        int disabledSelects = disabledTable.selects.get();
+        for (int i = 0; i < 100; i++) {
+            assertThat(pointService.getUserPoint(id).point()).isEqualTo(100L);
+        }
+
+        // then
+        assertThat(enabledTable.selects).hasValue(enabledSelects);
+        assertThat(committed.lastHistoryId()).isEqualTo(pointHistoryRepository.selectAllByuserId(id).get(0).id());
+        assertThat(disabledTable.selects).hasValue(disabledSelects + 100);
+        assertThat(pointService.getCommittedPoint(id).lastHistoryId()).isZero();
+    }
+
+    /**
+     * 공개한 사용자가 maximumSize 명이 되면 새 사용자는 공개하지 않고, 이미 공개한 사용자는 계속 갱신한다.
+     */
+    @Test
+    void 공개하는_사용자_수_제한() {
+        // given
+        PointRepository pointRepository = new PointRepository(new CountingTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 2), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+
+        // when
+        pointRepository.publish(new UserPoint(1L, 100L, 1L), 1L);
+        pointRepository.publish(new UserPoint(2L, 100L, 1L), 2L);
+        pointRepository.publish(new UserPoint(3L, 100L, 1L), 3L);
+        pointRepository.publish(new UserPoint(1L, 200L, 2L), 4L);
+
+        // then
+        assertThat(pointRepository.selectCommitted(1L)).map(CommittedPoint::lastHistoryId).hasValue(4L);
+        assertThat(pointRepository.selectCommitted(2L)).isPresent();
+        assertThat(pointRepository.selectCommitted(3L)).isEmpty();
+    }
+
+    /**
+     * 무효로 표시한 결과는 조회되지 않고, 늦게 도착한 이전 결과는 다시 공개되지 않으며, 그 뒤의 결과부터 다시 공개된다.
+     */
+    @Test
+    void 공개된_결과_무효화() {
+        // given
+        PointRepository pointRepository = new PointRepository(new CountingTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        pointRepository.publish(new UserPoint(1L, 100L, 1L), 5L);
+
+        // when
+        pointRepository.invalidateCommitted(1L, 6L);
+        pointRepository.publish(new UserPoint(1L, 150L, 2L), 6L);
+
+        // then
+        assertThat(pointRepository.selectCommitted(1L)).isEmpty();
+        pointRepository.publish(new UserPoint(1L, 200L, 3L), 7L);
+        assertThat(pointRepository.selectCommitted(1L)).map(committed -> committed.userPoint().point()).hasValue(200L);
+    }
+
+    private void setUp(UserPointTable userPointTable, PointWriteProperties.Mode writeMode, boolean committedSnapshot) {
+        fixture = PointServiceFixture.builder()
+                .userPointTable(userPointTable)
+                .committedSnapshot(committedSnapshot)
+                .batch(4, 1000)
+                .writeMode(writeMode)
+                .optimistic(2, Duration.ofNanos(1_000))
+                .build();
+        pointHistoryRepository = fixture.pointHistoryRepository();
+        pointService = fixture.pointService();
+    }
+
+    /**
+     * throttle 없이 조회 횟수를 세는 잔액 테이블
+     */
+    private static final class CountingTable extends UserPointTable {
+
+        private final Map<Long, UserPoint> table = new ConcurrentHashMap<>();
+        private final AtomicInteger selects = new AtomicInteger();
+
+        @Override
+        public UserPoint selectById(Long id) {
+            selects.incrementAndGet();
+            return table.getOrDefault(id, UserPoint.empty(id));
+        }
+
+        @Override
+        public UserPoint insertOrUpdate(long id, long amount) {
+            UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+            table.put(id, userPoint);
+            return userPoint;
+        }
+    }
+}
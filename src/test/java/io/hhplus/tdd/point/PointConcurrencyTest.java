@@ -4,7 +4,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -13,8 +16,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * 포인트 동시성 제어 테스트
+ * - 실행할 때마다 이전 실행의 기록이 복구되지 않도록 저널은 끈다.
+ * - 모든 요청이 처리되는지 확인하므로 lock 대기 시간과 대기 요청 수는 제한하지 않는다. (제한은 PointLockOverloadTest 참고)
  */
-@SpringBootTest
+@SpringBootTest(properties = {"point.journal.enabled=false", "point.lock.timeout=0", "point.lock.max-waiters=0"})
 public class PointConcurrencyTest {
 
     @Autowired
@@ -190,6 +195,36 @@ public class PointConcurrencyTest {
         assertThat(userPoint.point()).isEqualTo(balance + chargeAmount * (threadCount/2) - useAmount * (threadCount/2));
     }
 
+    /**
+     * 비동기 API 로 하나의 id에 충전과 사용을 동시에 요청할 경우
+     */
+    @Test
+    void 비동기_충전_사용_동시성_제어_테스트() {
+        // given
+        long id = 100L;
+        long balance = 1000L;
+        long chargeAmount = 100L;
+        long useAmount = 30L;
+
+        pointRepository.insertOrUpdate(new UserPoint(id, balance, System.currentTimeMillis()));
+
+        // when
+        int requestCount = 20;
+        List<CompletableFuture<UserPoint>> results = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            results.add(i % 2 == 0
+                    ? pointService.chargeAsync(id, chargeAmount)
+                    : pointService.useAsync(id, useAmount));
+        }
+        UserPoint lastResult = results.get(requestCount - 1).join();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        // then
+        long expected = balance + chargeAmount * (requestCount / 2) - useAmount * (requestCount / 2);
+        assertThat(lastResult.point()).isEqualTo(expected); // 등록 순서대로 처리되므로 마지막 요청의 결과가 최종 잔액
+        assertThat(pointService.getUserPointAsync(id).join().point()).isEqualTo(expected);
+    }
+
     private void executorService(int threadCount, Runnable task) throws InterruptedException {
         ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
         CountDownLatch latch = new CountDownLatch(threadCount);
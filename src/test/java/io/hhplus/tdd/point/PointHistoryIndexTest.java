@@ -0,0 +1,75 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointHistoryIndexTest {
+
+    /**
+     * 압축해서 보관해도 여러 청크에 걸친 내역을 저장한 그대로 읽는다. (시각이 거꾸로 가거나 값이 큰 내역 포함)
+     */
+    @Test
+    void COMPACT_저장한_내역을_그대로_조회() {
+        // given
+        PointHistoryIndex index = new PointHistoryIndex(HistoryStoreProperties.Type.COMPACT);
+        List<PointHistory> expected = histories(1L, 2_000);
+        expected.add(new PointHistory(Long.MAX_VALUE, 1L, Long.MAX_VALUE, TransactionType.USE, -1L));
+
+        // when
+        expected.forEach(index::append);
+        index.append(new PointHistory(3L, 2L, 100L, TransactionType.CHARGE, 1L));
+
+        // then
+        assertThat(index.selectAllByUserId(1L)).containsExactlyElementsOf(expected);
+        assertThat(index.selectAllByUserId(2L)).hasSize(1);
+        assertThat(index.selectAllByUserId(3L)).isEmpty();
+    }
+
+    /**
+     * 커서 위치와 조건이 어떻든 LIST 와 같은 페이지를 반환한다.
+     */
+    @Test
+    void COMPACT_페이지_조회는_LIST_와_같음() {
+        // given
+        PointHistoryIndex list = new PointHistoryIndex(HistoryStoreProperties.Type.LIST);
+        PointHistoryIndex compact = new PointHistoryIndex(HistoryStoreProperties.Type.COMPACT);
+        List<PointHistory> histories = histories(1L, 5_000);
+        histories.forEach(list::append);
+        histories.forEach(compact::append);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 500; i++) {
+            // when
+            long afterId = histories.get(random.nextInt(histories.size())).id() - random.nextInt(2);
+            long millis = histories.get(random.nextInt(histories.size())).updateMillis();
+            PointHistoryQuery query = new PointHistoryQuery(
+                    afterId,
+                    1 + random.nextInt(100),
+                    random.nextBoolean() ? millis : null,
+                    random.nextBoolean() ? millis + 100_000 : null,
+                    random.nextBoolean() ? TransactionType.values()[random.nextInt(2)] : null);
+
+            // then
+            assertThat(compact.selectPage(1L, query)).isEqualTo(list.selectPage(1L, query));
+        }
+    }
+
+    private static List<PointHistory> histories(long userId, int count) {
+        Random random = new Random(42);
+        List<PointHistory> histories = new ArrayList<>();
+        long id = 0;
+        long millis = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            id += 1 + random.nextInt(1_000);
+            millis += random.nextInt(2_000) - 100;
+            TransactionType type = random.nextBoolean() ? TransactionType.CHARGE : TransactionType.USE;
+            histories.add(new PointHistory(id, userId, 1 + random.nextInt(1_000_000), type, millis));
+        }
+        return histories;
+    }
+}
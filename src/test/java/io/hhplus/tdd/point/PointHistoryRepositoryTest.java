@@ -0,0 +1,147 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class PointHistoryRepositoryTest {
+
+    private PointHistoryRepository pointHistoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ofMillis(1)),
+                new PointJournal(new PointJournalProperties(false, Path.of("data/journal"), PointJournalProperties.FsyncPolicy.GROUP, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5))),
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        pointHistoryRepository.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pointHistoryRepository.shutdown();
+    }
+
+    /**
+     * 테이블에 저장되기 전의 내역도 바로 조회된다.
+     */
+    @Test
+    void 저장_대기중인_내역_조회() {
+        // given
+        long id = 1L;
+
+        // when
+        pointHistoryRepository.insert(PointHistory.createChargeHistory(id, 100L, 1L));
+        pointHistoryRepository.insert(PointHistory.createChargeHistory(2L, 100L, 1L));
+        pointHistoryRepository.insert(PointHistory.createUseHistory(id, 30L, 2L));
+
+        // then
+        assertThat(pointHistoryRepository.selectAllByuserId(id))
+                .extracting(PointHistory::id, PointHistory::amount)
+                .containsExactly(
+                        tuple(1L, 100L),
+                        tuple(3L, 30L)
+                );
+    }
+
+    /**
+     * 커서로 다음 페이지를 이어서 조회하고, 트랜잭션 종류와 기간으로 필터링한다.
+     */
+    @Test
+    void 커서_페이지_조회() {
+        // given
+        long id = 1L;
+        for (int i = 1; i <= 10; i++) {
+            PointHistory pointHistory = i % 2 == 0
+                    ? PointHistory.createUseHistory(id, i, i)
+                    : PointHistory.createChargeHistory(id, i, i);
+            pointHistoryRepository.insert(pointHistory);
+        }
+        PointHistoryQuery query = new PointHistoryQuery(0L, 2, 2L, 9L, TransactionType.CHARGE);
+
+        // when
+        PointHistoryPage first = pointHistoryRepository.selectPage(id, query);
+        PointHistoryPage second = pointHistoryRepository.selectPage(id, query.after(PointHistoryCursor.decode(first.nextCursor())));
+        List<PointHistory> streamed = pointHistoryRepository.stream(id, query).toList();
+
+        // then
+        assertThat(first.histories()).extracting(PointHistory::amount).containsExactly(3L, 5L);
+        assertThat(second.histories()).extracting(PointHistory::amount).containsExactly(7L);
+        assertThat(second.nextCursor()).isNull();
+        assertThat(streamed).extracting(PointHistory::amount).containsExactly(3L, 5L, 7L);
+    }
+
+    /**
+     * 잡아 둔 자리도 대기열 크기에 포함되어, 동시에 자리를 잡아도 queueCapacity 를 넘지 않는다.
+     */
+    @Test
+    void 잡아_둔_자리까지_대기열_크기_제한() {
+        // given
+        PointHistoryRepository bounded = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(true, 3, 100, HistoryWriteBehindProperties.Backpressure.REJECT, Duration.ofMillis(1)),
+                new PointJournal(new PointJournalProperties(false, Path.of("data/journal"), PointJournalProperties.FsyncPolicy.GROUP, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5))),
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        bounded.start();
+
+        try {
+            // when
+            bounded.reserve(2);
+
+            // then
+            assertThatThrownBy(() -> bounded.reserve(2))
+                    .isInstanceOf(PointException.class)
+                    .hasMessage(PointErrorCode.HISTORY_QUEUE_FULL.getMessage());
+            bounded.release(1);
+            bounded.reserve(2);
+            assertThat(bounded.insert(PointHistory.createChargeHistory(1L, 100L, 1L)).id()).isEqualTo(1L);
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    /**
+     * 내역을 저장할 때마다 집계가 갱신되고, 저널에서 복구하는 내역으로도 같은 집계가 쌓인다.
+     */
+    @Test
+    void 저장과_복구로_집계_갱신() {
+        // given
+        long id = 1L;
+        PointHistoryRepository restored = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(false, 0, 0, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO),
+                new PointJournal(new PointJournalProperties(false, Path.of("data/journal"), PointJournalProperties.FsyncPolicy.GROUP, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5))),
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+
+        // when
+        PointHistory first = pointHistoryRepository.insert(PointHistory.createChargeHistory(id, 1_000L, 10L));
+        PointHistory second = pointHistoryRepository.insert(PointHistory.createUseHistory(id, 300L, 20L));
+        PointHistory third = pointHistoryRepository.insert(PointHistory.createChargeHistory(id, 50L, 30L));
+        List.of(first, second, third).forEach(restored::restore);
+
+        // then
+        PointSummary expected = new PointSummary(id, 1_050L, 300L, 3L, 30L);
+        assertThat(pointHistoryRepository.selectSummary(id)).isEqualTo(expected);
+        assertThat(restored.selectSummary(id)).isEqualTo(expected);
+        assertThat(pointHistoryRepository.selectSummary(2L)).isEqualTo(PointSummary.empty(2L));
+    }
+}
@@ -0,0 +1,80 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 오래된 내역을 보관 파일로 옮기기 전/후의 힙 사용량 (./gradlew loadTest 로 실행)
+ * - load.histories(기본 20,000,000) 건을 load.users(기본 200,000) 명에게 나눠 인덱스에 채우고, 가장 오래된 90% 를 보관 파일로 옮긴다.
+ * - 인덱스 저장 방식은 load.store(기본 COMPACT) 로 고른다.
+ */
+@Tag("load")
+class PointHistoryRetentionLoadTest {
+
+    private static final int HISTORIES = Integer.getInteger("load.histories", 20_000_000);
+    private static final int USERS = Integer.getInteger("load.users", 200_000);
+    private static final HistoryStoreProperties.Type STORE = HistoryStoreProperties.Type.valueOf(System.getProperty("load.store", "COMPACT"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 오래된_내역_보관_전후_힙_사용량() {
+        // given
+        PointJournal journal = new PointJournal(new PointJournalProperties(
+                true, directory.resolve("journal"), PointJournalProperties.FsyncPolicy.NONE, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5)));
+        journal.open();
+        PointHistoryArchive archive = new PointHistoryArchive(new HistoryRetentionProperties(true, directory.resolve("archive"), Duration.ofDays(30), Duration.ofHours(1)));
+        archive.open();
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(false, 0, 0, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO),
+                journal,
+                new HistoryStoreProperties(STORE),
+                archive
+        );
+
+        long heapEmpty = usedHeap();
+        for (long id = 1; id <= HISTORIES; id++) {
+            TransactionType type = id % 4 == 0 ? TransactionType.USE : TransactionType.CHARGE;
+            pointHistoryRepository.restore(new PointHistory(id, id % USERS, 100L + id % 1_000, type, id));
+        }
+        long heapBefore = usedHeap() - heapEmpty;
+
+        // when
+        long startedAt = System.nanoTime();
+        PointHistoryRepository.ArchiveResult result = pointHistoryRepository.archiveOlderThan(HISTORIES / 10 * 9 + 1);
+        long archiveMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        long heapAfter = usedHeap() - heapEmpty;
+
+        long readStartedAt = System.nanoTime();
+        int read = pointHistoryRepository.selectAllByuserId(1L).size();
+        long readMicros = (System.nanoTime() - readStartedAt) / 1_000;
+
+        // then
+        System.out.printf("store=%s, histories=%d, users=%d, archived=%d, archive file=%dMB, archive=%dms%n",
+                STORE, HISTORIES, USERS, result.histories(), result.bytes() >> 20, archiveMillis);
+        System.out.printf("heap before=%dMB, after=%dMB, first cold+hot read of %d histories=%dus%n",
+                heapBefore >> 20, heapAfter >> 20, read, readMicros);
+        assertThat(result.histories()).isEqualTo(HISTORIES / 10 * 9);
+        assertThat(read).isEqualTo(HISTORIES / USERS);
+        assertThat(heapAfter).isLessThan(heapBefore);
+
+        journal.close();
+        archive.close();
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,117 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointHistoryRetentionTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 오래된 내역을 보관 파일로 옮긴 뒤에도 보관 파일과 인덱스를 이어 같은 내역과 페이지, 집계를 조회한다.
+     */
+    @Test
+    void 보관한_내역도_이어서_조회() {
+        // given
+        PointJournal journal = journal();
+        PointHistoryArchive archive = archive();
+        PointHistoryRepository pointHistoryRepository = pointHistoryRepository(journal, archive);
+        for (long millis = 1; millis <= 10; millis++) {
+            pointHistoryRepository.insert(PointHistory.createChargeHistory(1L, 100L, millis));
+            pointHistoryRepository.insert(PointHistory.createUseHistory(1L, 10L, millis));
+            pointHistoryRepository.insert(PointHistory.createChargeHistory(2L, 1L, millis));
+        }
+        List<PointHistory> before = pointHistoryRepository.selectAllByuserId(1L);
+
+        // when
+        PointHistoryRepository.ArchiveResult result = pointHistoryRepository.archiveOlderThan(7L);
+
+        // then
+        assertThat(result.users()).isEqualTo(2);
+        assertThat(result.histories()).isEqualTo(18L);
+        assertThat(pointHistoryRepository.selectAllByuserId(1L)).isEqualTo(before);
+        assertThat(pointHistoryRepository.selectSummary(1L)).isEqualTo(new PointSummary(1L, 1_000L, 100L, 20L, 10L));
+
+        PointHistoryQuery query = new PointHistoryQuery(0L, 4, 2L, null, TransactionType.USE);
+        List<PointHistory> pages = pointHistoryRepository.stream(1L, query).toList();
+        assertThat(pages).extracting(PointHistory::updateMillis).containsExactly(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+
+        PointHistoryPage first = pointHistoryRepository.selectPage(1L, query);
+        assertThat(first.histories()).extracting(PointHistory::updateMillis).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(first.nextCursor()).isNotNull();
+
+        pointHistoryRepository.shutdown();
+        journal.close();
+        archive.close();
+    }
+
+    /**
+     * 재시작하면 보관 파일을 다시 읽고, 저널에서 복구한 내역 중 보관 파일에 있는 것은 인덱스에 올리지 않는다.
+     */
+    @Test
+    void 재시작후_보관_파일과_저널로_복구() {
+        // given
+        PointJournal journal = journal();
+        PointHistoryArchive archive = archive();
+        PointHistoryRepository pointHistoryRepository = pointHistoryRepository(journal, archive);
+        for (long millis = 1; millis <= 10; millis++) {
+            pointHistoryRepository.insert(PointHistory.createChargeHistory(1L, millis, millis));
+        }
+        pointHistoryRepository.archiveOlderThan(6L);
+        List<PointHistory> before = pointHistoryRepository.selectAllByuserId(1L);
+        pointHistoryRepository.shutdown();
+        journal.close();
+        archive.close();
+
+        // when
+        PointJournal restartedJournal = journal();
+        PointHistoryArchive restartedArchive = archive();
+        PointHistoryRepository restarted = pointHistoryRepository(restartedJournal, restartedArchive);
+        restartedJournal.replay(restarted::restore);
+        PointHistoryRepository.ArchiveResult result = restarted.archiveOlderThan(6L);
+
+        // then
+        assertThat(restarted.selectAllByuserId(1L)).isEqualTo(before);
+        assertThat(restarted.selectSummary(1L)).isEqualTo(new PointSummary(1L, 55L, 0L, 10L, 10L));
+        assertThat(result.histories()).isZero();
+        assertThat(restarted.insert(PointHistory.createChargeHistory(1L, 11L, 11L)).id()).isEqualTo(11L);
+
+        restarted.shutdown();
+        restartedJournal.close();
+        restartedArchive.close();
+    }
+
+    private PointJournal journal() {
+        PointJournal journal = new PointJournal(new PointJournalProperties(
+                true, directory.resolve("journal"), PointJournalProperties.FsyncPolicy.NONE, Duration.ofMillis(5), DataSize.ofKilobytes(64), Duration.ofSeconds(5)));
+        journal.open();
+        return journal;
+    }
+
+    private PointHistoryArchive archive() {
+        PointHistoryArchive archive = new PointHistoryArchive(new HistoryRetentionProperties(true, directory.resolve("archive"), Duration.ofDays(30), Duration.ofHours(1)));
+        archive.open();
+        return archive;
+    }
+
+    private static PointHistoryRepository pointHistoryRepository(PointJournal journal, PointHistoryArchive archive) {
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ofMillis(1)),
+                journal,
+                new HistoryStoreProperties(HistoryStoreProperties.Type.COMPACT),
+                archive
+        );
+        pointHistoryRepository.start();
+        return pointHistoryRepository;
+    }
+}
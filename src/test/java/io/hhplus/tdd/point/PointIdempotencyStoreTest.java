@@ -0,0 +1,263 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PointIdempotencyStoreTest {
+
+    /**
+     * 같은 key 로 다시 요청하면 충전을 다시 실행하지 않고 처음 결과를 돌려받는다.
+     */
+    @Test
+    void 같은_key_재요청은_처음_결과() throws Exception {
+        // given
+        PointService pointService = mock(PointService.class);
+        when(pointService.charge(1L, 100L)).thenReturn(new UserPoint(1L, 100L, 1L, 1L));
+        PointIdempotencyStore store = new PointIdempotencyStore(new PointIdempotencyProperties(1_000, Duration.ofMinutes(10), 64, 1_000));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PointController(pointService, new ObjectMapper(), store, new PointClusterRouter(new PointClusterProperties(false, "", List.of(), 160, Duration.ofSeconds(1), Duration.ofSeconds(10)), new ObjectMapper()))).build();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(patch("/point/{id}/charge", 1L)
+                            .header("Idempotency-Key", "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("100"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.point").value(100L))
+                    .andExpect(jsonPath("$.version").doesNotExist());
+        }
+
+        // then
+        verify(pointService, times(1)).charge(1L, 100L);
+        assertThat(store.replays()).isEqualTo(2);
+    }
+
+    /**
+     * 일괄 충전/사용도 같은 key 로 다시 요청하면 다시 실행하지 않고, 같은 key 로 다른 요청 목록을 보내면 실패한다.
+     */
+    @Test
+    void 일괄_요청_같은_key_재요청() throws Exception {
+        // given
+        List<PointCommand> commands = List.of(PointCommand.charge(1L, 100L), PointCommand.use(2L, 50L));
+        PointService pointService = mock(PointService.class);
+        when(pointService.batch(commands)).thenReturn(List.of(
+                PointBatchResult.success(commands.get(0), new UserPoint(1L, 100L, 1L, 1L)),
+                PointBatchResult.failure(commands.get(1), PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT)));
+        PointIdempotencyStore store = new PointIdempotencyStore(new PointIdempotencyProperties(1_000, Duration.ofMinutes(10), 64, 1_000));
+        ObjectMapper objectMapper = new ObjectMapper();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PointController(pointService, objectMapper, store, new PointClusterRouter(new PointClusterProperties(false, "", List.of(), 160, Duration.ofSeconds(1), Duration.ofSeconds(10)), objectMapper))).build();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/point/batch")
+                            .header("Idempotency-Key", "batch-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(commands)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].userPoint.point").value(100L))
+                    .andExpect(jsonPath("$[1].error.code").value(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT.name()));
+        }
+        assertThatThrownBy(() -> store.executeBatch("batch-1", List.of(PointCommand.charge(1L, 100L)), List::of))
+                .hasMessage(PointErrorCode.IDEMPOTENCY_KEY_REUSED.getMessage());
+
+        // then
+        verify(pointService, times(1)).batch(commands);
+        assertThat(store.replays()).isEqualTo(2);
+    }
+
+    /**
+     * 실행 중에 들어온 같은 key 의 요청은 같은 실행의 결과를 기다린다.
+     */
+    @Test
+    void 동시_중복_요청은_한번만_실행() throws Exception {
+        // given
+        PointIdempotencyStore store = new PointIdempotencyStore(new PointIdempotencyProperties(1_000, Duration.ofMinutes(10), 64, 1_000));
+        AtomicInteger executions = new AtomicInteger();
+        PointCommand command = PointCommand.charge(1L, 100L);
+
+        // when
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+        List<Future<UserPoint>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(executorService.submit(() -> store.execute("retry-1", command, () -> {
+                executions.incrementAndGet();
+                sleep(100);
+                return new UserPoint(1L, 100L, 1L);
+            })));
+        }
+        List<Long> points = new ArrayList<>();
+        for (Future<UserPoint> result : results) {
+            points.add(result.get(5, TimeUnit.SECONDS).point());
+        }
+        executorService.shutdown();
+
+        // then
+        assertThat(executions).hasValue(1);
+        assertThat(points).hasSize(20).containsOnly(100L);
+    }
+
+    /**
+     * 잔액 부족 같은 실패도 재요청에 그대로 돌려주고, 같은 key 로 다른 요청을 보내면 실행하지 않는다.
+     */
+    @Test
+    void 실패_결과와_key_재사용() {
+        // given
+        PointIdempotencyStore store = new PointIdempotencyStore(new PointIdempotencyProperties(1_000, Duration.ofMinutes(10), 8, 1_000));
+        AtomicInteger executions = new AtomicInteger();
+        PointCommand command = PointCommand.use(1L, 500L);
+
+        // when, then
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> store.execute("use-1", command, () -> {
+                executions.incrementAndGet();
+                throw new PointException(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT);
+            })).hasMessage(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT.getMessage());
+        }
+        assertThat(executions).hasValue(1);
+        assertThatThrownBy(() -> store.execute("use-1", PointCommand.use(1L, 1L), () -> new UserPoint(1L, 0L, 1L)))
+                .hasMessage(PointErrorCode.IDEMPOTENCY_KEY_REUSED.getMessage());
+        assertThatThrownBy(() -> store.execute("too-long-key", command, () -> new UserPoint(1L, 0L, 1L)))
+                .hasMessage(PointErrorCode.INVALID_IDEMPOTENCY_KEY.getMessage());
+    }
+
+    /**
+     * 대기열 포화처럼 다시 시도하면 성공할 수 있는 실패는 남기지 않고, 같은 key 로 다시 요청하면 새로 실행한다.
+     */
+    @Test
+    void 재시도_가능한_실패는_남기지_않음() {
+        // given
+        PointIdempotencyStore store = new PointIdempotencyStore(new PointIdempotencyProperties(1_000, Duration.ofMinutes(10), 64, 1_000));
+        PointCommand command = PointCommand.charge(1L, 100L);
+        AtomicInteger executions = new AtomicInteger();
+
+        // when
+        for (PointErrorCode errorCode : List.of(PointErrorCode.HISTORY_QUEUE_FULL, PointErrorCode.POINT_BUSY, PointErrorCode.JOURNAL_WRITE_FAILED)) {
+            assertThatThrownBy(() -> store.execute("retry-1", command, () -> {
+                executions.incrementAndGet();
+                throw new PointException(errorCode);
+            })).hasMessage(errorCode.getMessage());
+        }
+        UserPoint result = store.execute("retry-1", command, () -> new UserPoint(1L, executions.incrementAndGet(), 1L));
+
+        // then
+        assertThat(executions).hasValue(4);
+        assertThat(result.point()).isEqualTo(4L);
+    }
+
+    /**
+     * key 수는 maximumSize 를 넘지 않고, ttl 이 지난 key 는 다시 실행한다.
+     */
+    @Test
+    void 크기와_보관시간_제한() {
+        // given
+        PointIdempotencyStore bounded = new PointIdempotencyStore(new PointIdempotencyProperties(1_600, Duration.ofMinutes(10), 64, 1_000));
+        PointIdempotencyStore expiring = new PointIdempotencyStore(new PointIdempotencyProperties(1_600, Duration.ofMillis(1), 64, 1_000));
+        AtomicInteger executions = new AtomicInteger();
+
+        // when
+        for (int i = 0; i < 100_000; i++) {
+            bounded.execute("key-" + i, PointCommand.charge(i, 1L), () -> new UserPoint(0L, 1L, 1L));
+        }
+        for (int i = 0; i < 2; i++) {
+            expiring.execute("key", PointCommand.charge(1L, 1L), () -> new UserPoint(1L, executions.incrementAndGet(), 1L));
+            sleep(5);
+        }
+
+        // then
+        assertThat(bounded.size()).isLessThanOrEqualTo(1_600);
+        assertThat(bounded.evictions()).isGreaterThanOrEqualTo(100_000 - 1_600);
+        assertThat(executions).hasValue(2);
+        assertThat(expiring.size()).isEqualTo(1);
+    }
+
+    /**
+     * 일괄 요청은 결과 수만큼 maximumSize 를 차지하고, maxBatchSize 보다 큰 일괄 요청에는 key 를 붙일 수 없다.
+     */
+    @Test
+    void 일괄_결과_수_제한() {
+        // given
+        PointIdempotencyStore store = new PointIdempotencyStore(new PointIdempotencyProperties(16_000, Duration.ofMinutes(10), 64, 100));
+        List<PointCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            commands.add(PointCommand.charge(i, 1L));
+        }
+        List<PointBatchResult> results = commands.stream().map(command -> PointBatchResult.success(command, new UserPoint(command.userId(), 1L, 1L))).toList();
+
+        // when
+        for (int i = 0; i < 1_000; i++) {
+            store.executeBatch("batch-" + i, commands, () -> results);
+        }
+        commands.add(PointCommand.charge(100L, 1L));
+
+        // then
+        assertThat(store.size()).isLessThanOrEqualTo(16_000 / 100);
+        assertThatThrownBy(() -> store.executeBatch("batch-large", commands, () -> results))
+                .hasMessage(PointErrorCode.IDEMPOTENCY_BATCH_TOO_LARGE.getMessage());
+    }
+
+    /**
+     * 재요청은 저장소 지연(300ms)과 상관없이 바로 반환된다.
+     * - 평균 응답시간은 실행 환경에 따라 달라지므로 기본 test 에서는 제외한다. (./gradlew loadTest 로 실행)
+     */
+    @Test
+    @Tag("load")
+    void 재요청_응답시간() {
+        // given
+        PointIdempotencyStore store = new PointIdempotencyStore(new PointIdempotencyProperties(1_000, Duration.ofMinutes(10), 64, 1_000));
+        PointCommand command = PointCommand.charge(1L, 100L);
+        store.execute("retry-1", command, () -> {
+            sleep(300);
+            return new UserPoint(1L, 100L, 1L);
+        });
+
+        // when
+        int replays = 10_000;
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < replays; i++) {
+            store.execute("retry-1", command, () -> {
+                throw new IllegalStateException("replay must not execute");
+            });
+        }
+        long averageNanos = (System.nanoTime() - startedAt) / replays;
+
+        // then
+        System.out.printf("idempotent replay average latency: %dns%n", averageNanos);
+        assertThat(store.replays()).isEqualTo(replays);
+        assertThat(averageNanos).isLessThan(TimeUnit.MICROSECONDS.toNanos(100));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class PointJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 재시작하면 저널에서 잔액과 내역을 복구하고, 이후 내역의 id 는 복구한 내역 뒤로 이어진다.
+     */
+    @Test
+    void 재시작_후_잔액과_내역_복구() throws IOException {
+        // given
+        PointJournal journal = journal(PointJournalProperties.FsyncPolicy.GROUP);
+        PointHistoryRepository pointHistoryRepository = pointHistoryRepository(journal);
+        pointHistoryRepository.insert(PointHistory.createChargeHistory(1L, 1_000L, 1L));
+        pointHistoryRepository.insert(PointHistory.createChargeHistory(2L, 500L, 2L));
+        pointHistoryRepository.insert(PointHistory.createUseHistory(1L, 300L, 3L));
+        for (int i = 0; i < 20; i++) {
+            pointHistoryRepository.insert(PointHistory.createChargeHistory(3L, 10L, 4L));
+        }
+        pointHistoryRepository.awaitDurable();
+        pointHistoryRepository.shutdown();
+        journal.close();
+
+        // when
+        PointJournal restarted = journal(PointJournalProperties.FsyncPolicy.GROUP);
+        PointRepository pointRepository = new PointRepository(new UserPointTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100_000), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        PointHistoryRepository restartedHistoryRepository = pointHistoryRepository(restarted);
+        PointSnapshotter snapshotter = new PointSnapshotter(new PointSnapshotProperties(false, directory.resolve("snapshot"), Duration.ofMinutes(1), 2), restarted, new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1))));
+        new PointJournalRecovery(restarted, snapshotter, pointRepository, restartedHistoryRepository).recover();
+        PointHistory next = restartedHistoryRepository.insert(PointHistory.createChargeHistory(1L, 100L, 5L));
+
+        // then
+        assertThat(segments()).hasSizeGreaterThan(1);
+        assertThat(pointRepository.selectById(1L)).map(UserPoint::point).hasValue(700L);
+        assertThat(pointRepository.selectById(2L)).map(UserPoint::point).hasValue(500L);
+        assertThat(pointRepository.selectById(3L)).map(UserPoint::point).hasValue(200L);
+        assertThat(restartedHistoryRepository.selectAllByuserId(1L))
+                .extracting(PointHistory::id, PointHistory::type, PointHistory::amount)
+                .containsExactly(
+                        tuple(1L, TransactionType.CHARGE, 1_000L),
+                        tuple(3L, TransactionType.USE, 300L),
+                        tuple(24L, TransactionType.CHARGE, 100L)
+                );
+        assertThat(next.id()).isEqualTo(24L);
+
+        restartedHistoryRepository.shutdown();
+        restarted.close();
+    }
+
+    /**
+     * 쓰다가 끊긴 마지막 레코드는 버리고, 그 자리부터 이어서 기록한다.
+     */
+    @Test
+    void 끊긴_마지막_레코드는_버리고_이어서_기록() throws IOException {
+        // given
+        PointJournal journal = journal(PointJournalProperties.FsyncPolicy.ALWAYS);
+        journal.append(PointHistory.createChargeHistory(1L, 100L, 1L));
+        journal.append(PointHistory.createChargeHistory(1L, 200L, 2L));
+        journal.close();
+
+        Path last = segments().get(segments().size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0, 0, 0, 0, 1, 1, 7}), 2L * PointJournal.RECORD_SIZE);
+        }
+
+        // when
+        PointJournal restarted = journal(PointJournalProperties.FsyncPolicy.ALWAYS);
+        long sequence = restarted.append(PointHistory.createUseHistory(1L, 50L, 3L));
+        List<PointHistory> replayed = new ArrayList<>();
+        restarted.replay(replayed::add);
+
+        // then
+        assertThat(sequence).isEqualTo(3L);
+        assertThat(replayed)
+                .extracting(PointHistory::id, PointHistory::type, PointHistory::amount)
+                .containsExactly(
+                        tuple(1L, TransactionType.CHARGE, 100L),
+                        tuple(2L, TransactionType.CHARGE, 200L),
+                        tuple(3L, TransactionType.USE, 50L)
+                );
+
+        restarted.close();
+    }
+
+    /**
+     * write-behind 가 꺼져 있어도 동시에 저장한 내역의 id 가 저널의 순번과 같아서, 저널을 다시 읽으면 같은 id 로 돌아온다.
+     */
+    @Test
+    void write_behind_없이_동시_저장한_내역의_id_는_저널_순번() throws Exception {
+        // given
+        PointJournal journal = journal(PointJournalProperties.FsyncPolicy.NONE);
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(false, 0, 0, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO),
+                journal,
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        int threadCount = 8;
+        int insertsPerThread = 5;
+
+        // when
+        try (ExecutorService executorService = Executors.newFixedThreadPool(threadCount)) {
+            for (int i = 0; i < threadCount; i++) {
+                long userId = i + 1;
+                executorService.submit(() -> {
+                    for (int j = 0; j < insertsPerThread; j++) {
+                        pointHistoryRepository.insert(PointHistory.createChargeHistory(userId, j + 1, j));
+                    }
+                });
+            }
+        }
+        List<PointHistory> replayed = new ArrayList<>();
+        journal.replay(replayed::add);
+
+        // then
+        assertThat(replayed).hasSize(threadCount * insertsPerThread);
+        for (long userId = 1; userId <= threadCount; userId++) {
+            long id = userId;
+            assertThat(pointHistoryRepository.selectAllByuserId(id))
+                    .containsExactlyElementsOf(replayed.stream().filter(pointHistory -> pointHistory.userId() == id).toList());
+        }
+        journal.close();
+    }
+
+    /**
+     * reader 는 기록이 이어지는 동안 세그먼트가 넘어가도 마지막으로 읽은 순번 다음부터 이어서 읽는다.
+     */
+    @Test
+    void reader_는_세그먼트를_넘어_이어서_읽음() {
+        // given
+        PointJournal journal = journal(PointJournalProperties.FsyncPolicy.ALWAYS);
+        for (int i = 0; i < 5; i++) {
+            journal.append(PointHistory.createChargeHistory(1L, i + 1, i));
+        }
+        PointJournal.Reader reader = journal.reader(2);
+        List<PointHistory> replayed = new ArrayList<>();
+
+        // when
+        long first = reader.read(Long.MAX_VALUE, replayed::add);
+        for (int i = 5; i < 25; i++) {
+            journal.append(PointHistory.createChargeHistory(1L, i + 1, i));
+        }
+        long partial = reader.read(12, replayed::add);
+        long last = reader.read(Long.MAX_VALUE, replayed::add);
+
+        // then
+        assertThat(first).isEqualTo(5L);
+        assertThat(partial).isEqualTo(12L);
+        assertThat(last).isEqualTo(25L);
+        assertThat(replayed).extracting(PointHistory::id).containsExactlyElementsOf(LongStream.rangeClosed(3, 25).boxed().toList());
+        assertThat(replayed).extracting(PointHistory::amount).containsExactlyElementsOf(LongStream.rangeClosed(3, 25).boxed().toList());
+        journal.close();
+    }
+
+    private PointJournal journal(PointJournalProperties.FsyncPolicy fsync) {
+        // 세그먼트 하나에 레코드 10개만 들어가도록 해서 세그먼트가 넘어가는 경우도 확인한다.
+        PointJournal journal = new PointJournal(new PointJournalProperties(
+                true, directory, fsync, Duration.ofMillis(1), DataSize.ofBytes(10L * PointJournal.RECORD_SIZE), Duration.ofSeconds(5)));
+        journal.open();
+        return journal;
+    }
+
+    private PointHistoryRepository pointHistoryRepository(PointJournal journal) {
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ofMillis(1)),
+                journal,
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        pointHistoryRepository.start();
+        return pointHistoryRepository;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 한 사용자에게 요청이 몰릴 때 다른 사용자의 응답시간
+ * - 요청 스레드가 제한된 서버(WORKERS 개)를 흉내 내서, 한 사용자에게 FLOOD 건의 충전을 보내는 사이사이 다른 사용자의 충전을 보낸다.
+ * - 잔액 저장은 매번 STORE_DELAY 가 걸리므로, lock 대기를 제한하지 않으면 모든 요청 스레드가 몰린 사용자의 lock 뒤에 묶인다.
+ * - p99 응답시간은 실행 환경에 따라 달라지므로 기본 test 에서는 제외한다. (./gradlew loadTest 로 실행)
+ */
+@Tag("load")
+class PointLockOverloadTest {
+
+    private static final int WORKERS = 8;
+    private static final int FLOOD = 400;
+    private static final int OTHER_USERS = 40;
+    private static final Duration STORE_DELAY = Duration.ofMillis(10);
+
+    @Test
+    void 요청이_몰린_사용자만_실패하고_다른_사용자_응답시간_유지() throws Exception {
+        // given
+        ServiceLockProperties bounded = new ServiceLockProperties(ServiceLockProperties.Strategy.PER_KEY, 0, true, Duration.ofMillis(20), 2);
+        ServiceLockProperties unbounded = new ServiceLockProperties(ServiceLockProperties.Strategy.PER_KEY, 0, false, Duration.ZERO, 0);
+
+        // when
+        Result baseline = run(bounded, false);
+        Result boundedFlood = run(bounded, true);
+        Result unboundedFlood = run(unbounded, true);
+
+        // then
+        System.out.printf("other users p99 - baseline: %dms, flood with bounded wait: %dms, flood without bound: %dms (busy=%d)%n",
+                baseline.otherP99Millis(), boundedFlood.otherP99Millis(), unboundedFlood.otherP99Millis(), boundedFlood.busy());
+        assertThat(boundedFlood.busy()).isPositive();
+        assertThat(boundedFlood.otherFailures()).isZero();
+        assertThat(boundedFlood.otherP99Millis()).isLessThan(baseline.otherP99Millis() + 100);
+        assertThat(unboundedFlood.otherP99Millis()).isGreaterThan(boundedFlood.otherP99Millis());
+    }
+
+    private Result run(ServiceLockProperties lockProperties, boolean flood) throws Exception {
+        PointServiceFixture fixture = PointServiceFixture.builder()
+                .userPointTable(new DelayedTable())
+                .cache(true, 1_000)
+                .lock(lockProperties)
+                .build();
+        PointService pointService = fixture.pointService();
+
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        AtomicInteger busy = new AtomicInteger();
+        AtomicInteger otherFailures = new AtomicInteger();
+        List<Long> otherLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        int otherEvery = FLOOD / OTHER_USERS;
+        for (int i = 0; i < FLOOD; i++) {
+            if (flood) {
+                futures.add(workers.submit(() -> {
+                    try {
+                        pointService.charge(0L, 1L);
+                    } catch (PointException e) {
+                        if (e.getErrorCode() == PointErrorCode.POINT_BUSY) {
+                            busy.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            if (i % otherEvery == 0) {
+                long id = i / otherEvery + 1;
+                long submittedAt = System.nanoTime();
+                futures.add(workers.submit(() -> {
+                    try {
+                        pointService.charge(id, 1L);
+                        otherLatencies.add(System.nanoTime() - submittedAt);
+                    } catch (RuntimeException e) {
+                        otherFailures.incrementAndGet();
+                    }
+                }));
+                // 다른 사용자의 요청은 일정한 간격으로 들어온다.
+                LockSupport.parkNanos(STORE_DELAY.toNanos());
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        workers.shutdown();
+        fixture.shutdown();
+
+        return new Result(p99Millis(otherLatencies), busy.get(), otherFailures.get());
+    }
+
+    private static long p99Millis(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1));
+    }
+
+    private record Result(long otherP99Millis, int busy, int otherFailures) {
+    }
+
+    /**
+     * 매 저장마다 STORE_DELAY 가 걸리는 잔액 테이블 (조회는 캐시가 받는다)
+     */
+    private static final class DelayedTable extends UserPointTable {
+
+        private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+
+        @Override
+        public UserPoint selectById(Long id) {
+            return table.getOrDefault(id, UserPoint.empty(id));
+        }
+
+        @Override
+        public UserPoint insertOrUpdate(long id, long amount) {
+            LockSupport.parkNanos(STORE_DELAY.toNanos());
+            UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+            table.put(id, userPoint);
+            return userPoint;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PointMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PointServiceFixture fixture;
+    private ServiceLockFactory lockFactory;
+    private PointMetrics pointMetrics;
+    private PointService pointService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        fixture = PointServiceFixture.builder()
+                .meterRegistry(registry)
+                .build();
+        lockFactory = fixture.lockFactory();
+        pointMetrics = fixture.pointMetrics();
+        pointService = fixture.pointService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.shutdown();
+    }
+
+    /**
+     * 충전/사용 단계 별 시간과 실패 사유 별 횟수가 기록된다.
+     */
+    @Test
+    void 충전_사용_지표_기록() {
+        // given
+        long id = 1L;
+
+        // when
+        pointService.charge(id, 100L);
+        assertThatThrownBy(() -> pointService.use(id, 500L)).isInstanceOf(PointException.class);
+        assertThatThrownBy(() -> pointService.charge(id, -1L)).isInstanceOf(PointException.class);
+
+        // then
+        assertThat(registry.get("point.lock.wait").tag("type", "charge").timer().count()).isEqualTo(1);
+        assertThat(registry.get("point.lock.hold").tag("type", "use").timer().count()).isEqualTo(1);
+        assertThat(registry.get("point.table.latency").tags("table", "user_point", "call", "select").timer().count()).isEqualTo(2);
+        assertThat(registry.get("point.table.latency").tags("table", "user_point", "call", "insert_or_update").timer().count()).isEqualTo(1);
+        assertThat(registry.get("point.table.latency").tags("table", "point_history", "call", "insert").timer().count()).isEqualTo(1);
+        assertThat(registry.get("point.rejections").tags("type", "use", "code", PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT.getCode()).counter().count()).isEqualTo(1);
+        assertThat(registry.get("point.rejections").tags("type", "charge", "code", PointErrorCode.CHARGE_AMOUNT_LESS_THAN_ZERO.getCode()).counter().count()).isEqualTo(1);
+        assertThat(registry.get("point.locks.live").gauge().value()).isEqualTo(1);
+    }
+
+    /**
+     * lock 을 기다리는 스레드가 있는 사용자 별로 대기 스레드 수가 기록된다.
+     */
+    @Test
+    void 사용자_별_lock_대기_스레드_수() throws InterruptedException {
+        // given
+        long id = 7L;
+        Lock lock = lockFactory.getLock(id);
+        lock.lock();
+        CountDownLatch started = new CountDownLatch(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                Thread.ofVirtual().start(() -> {
+                    started.countDown();
+                    Lock waiting = lockFactory.getLock(id);
+                    waiting.lock();
+                    waiting.unlock();
+                });
+            }
+            started.await();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (lockFactory.waitingThreads(10).getOrDefault(id, 0) < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // when
+            pointMetrics.refreshWaitingThreads();
+
+            // then
+            assertThat(registry.get("point.lock.waiting").tag("userId", "7").gauge().value()).isEqualTo(2);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
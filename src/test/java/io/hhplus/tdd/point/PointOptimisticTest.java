@@ -0,0 +1,146 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * OPTIMISTIC 방식 충전/사용
+ * - 잔액 저장소는 throttle 이 없는 PRIMITIVE 로 두어 compare-and-set 이 실제로 겹치게 한다.
+ */
+class PointOptimisticTest {
+
+    private SimpleMeterRegistry registry;
+    private PointServiceFixture fixture;
+    private PointRepository pointRepository;
+    private PointHistoryRepository pointHistoryRepository;
+    private PointService pointService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        fixture = PointServiceFixture.builder()
+                .storeType(PointStoreProperties.Type.PRIMITIVE)
+                .meterRegistry(registry)
+                .batch(4, 1000)
+                .writeMode(PointWriteProperties.Mode.OPTIMISTIC)
+                .optimistic(2, Duration.ofNanos(1_000))
+                .build();
+        pointRepository = fixture.pointRepository();
+        pointHistoryRepository = fixture.pointHistoryRepository();
+        pointService = fixture.pointService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.shutdown();
+    }
+
+    /**
+     * 읽은 이후로 다른 저장이 있었으면 compare-and-set 은 저장하지 않고, 다시 읽은 값으로는 저장된다.
+     */
+    @Test
+    void 읽은_이후_저장이_있으면_충돌() {
+        // given
+        long id = 1L;
+        pointRepository.insertOrUpdate(new UserPoint(id, 100L, System.currentTimeMillis()));
+        UserPoint read = pointRepository.selectForUpdate(id);
+        pointRepository.beginUpdate(id);
+        pointRepository.insertOrUpdate(new UserPoint(id, 200L, System.currentTimeMillis()));
+        pointRepository.endUpdate(id);
+
+        // when
+        UserPoint conflicted = pointRepository.compareAndSet(read, read.charge(10L), saved -> {});
+        UserPoint reread = pointRepository.selectForUpdate(id);
+        UserPoint saved = pointRepository.compareAndSet(reread, reread.charge(10L), userPoint -> {});
+
+        // then
+        assertThat(conflicted).isNull();
+        assertThat(pointRepository.isCurrent(read)).isFalse();
+        assertThat(saved.point()).isEqualTo(210L);
+        assertThat(saved.version()).isGreaterThan(reread.version());
+        assertThat(pointRepository.selectById(id)).hasValueSatisfying(userPoint -> assertThat(userPoint.point()).isEqualTo(210L));
+    }
+
+    /**
+     * 한 사용자에게 충전/사용과 일괄 처리가 동시에 몰려도 잔액과 내역이 맞고, 내역 id 는 저장 순서대로 오른다.
+     * (재시도를 2 번으로 줄여 lock 방식으로 넘어가는 경로도 함께 지난다)
+     */
+    @Test
+    void 충전_사용_일괄처리_동시_요청() throws InterruptedException {
+        // given
+        long id = 1L;
+        int threadCount = 8;
+        int requestsPerThread = 500;
+        pointRepository.insertOrUpdate(new UserPoint(id, 1_000_000L, System.currentTimeMillis()));
+
+        // when
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount + 1);
+        CountDownLatch latch = new CountDownLatch(threadCount + 1);
+        for (int i = 0; i < threadCount; i++) {
+            int idx = i;
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        if (idx % 2 == 0) {
+                            pointService.charge(id, 100L);
+                        } else {
+                            pointService.use(id, 30L);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        executorService.submit(() -> {
+            try {
+                for (int j = 0; j < requestsPerThread; j++) {
+                    pointService.batch(List.of(PointCommand.charge(id, 1L)));
+                }
+            } finally {
+                latch.countDown();
+            }
+        });
+        latch.await();
+        executorService.shutdown();
+
+        // then
+        long requests = (long) threadCount / 2 * requestsPerThread;
+        assertThat(pointService.getUserPoint(id).point()).isEqualTo(1_000_000L + requests * 100L - requests * 30L + requestsPerThread);
+        List<PointHistory> histories = pointHistoryRepository.selectAllByuserId(id);
+        assertThat(histories).hasSize((int) requests * 2 + requestsPerThread);
+        assertThat(new ArrayList<>(histories)).extracting(PointHistory::id).isSorted();
+        assertThat(registry.get("point.optimistic.conflicts").counter().count()).isPositive();
+    }
+
+    /**
+     * 잔액 부족은 읽은 잔액이 최신일 때만 실패로 처리한다.
+     */
+    @Test
+    void 잔액_부족_실패() {
+        // given
+        long id = 1L;
+        pointService.charge(id, 100L);
+
+        // when, then
+        assertThatThrownBy(() -> pointService.use(id, 500L))
+                .isInstanceOf(PointException.class)
+                .hasMessage(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT.getMessage());
+        assertThat(pointService.getUserPoint(id).point()).isEqualTo(100L);
+        assertThat(registry.get("point.optimistic.fallbacks").counter().count()).isZero();
+    }
+}
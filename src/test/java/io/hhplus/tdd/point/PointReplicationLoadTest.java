@@ -0,0 +1,191 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.TddApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 복제 노드 수(0, 1, 3)에 따른 조회 처리량 부하 테스트 (./gradlew loadTest 로 실행)
+ * - 원본과 복제 노드를 각각 별도 프로세스로 띄우고, 원본에 users 명을 충전한 뒤 복제 노드가 따라잡으면
+ *   CLIENTS 개의 클라이언트가 load.duration-seconds 동안 GET /point/{id} 와 /histories 를 복제 노드에 나누어 보낸다. (복제 노드가 없으면 원본)
+ * - 캐시와 committed-snapshot 조회를 끄고 매 조회가 UserPointTable 의 throttle 에서 잠들게 해서,
+ *   노드 하나가 처리할 수 있는 조회 수가 요청 처리 스레드 수로 정해지게 한다. (CPU 가 아니라 노드 수에 따라 늘어나는지를 본다)
+ *   복제 노드는 잔액 저장소가 PRIMITIVE 여야 하므로(throttle 없음) 복제 노드의 조회는 원본보다 가볍다.
+ */
+@Tag("load")
+class PointReplicationLoadTest {
+
+    private static final int CLIENTS = 1_000;
+    private static final int USERS = 200;
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration-seconds", 20));
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(1);
+
+    @TempDir
+    private Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void 복제_노드_0개_vs_1개_vs_3개() throws Exception {
+        // given, when
+        double none = run(0);
+        double one = run(1);
+        double three = run(3);
+
+        // then
+        System.out.printf("replicas=0 : %.1f rps%n", none);
+        System.out.printf("replicas=1 : %.1f rps%n", one);
+        System.out.printf("replicas=3 : %.1f rps%n", three);
+        assertThat(three).isGreaterThan(none);
+        assertThat(three).isGreaterThan(one);
+    }
+
+    private double run(int replicas) throws Exception {
+        List<Process> processes = new ArrayList<>();
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            String primary = launch(processes, "primary-" + replicas, "--point.replication.role=primary");
+            List<String> readers = new ArrayList<>();
+            for (int i = 0; i < replicas; i++) {
+                readers.add(launch(processes, "replica-" + replicas + "-" + i,
+                        "--point.replication.role=replica", "--point.replication.primary=" + primary, "--point.replication.apply-threads=64", "--point.store.type=primitive"));
+            }
+            if (readers.isEmpty()) {
+                readers.add(primary);
+            }
+            for (String node : readers) {
+                awaitStarted(httpClient, node);
+            }
+            awaitStarted(httpClient, primary);
+
+            try (ExecutorService chargers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long id = 0; id < USERS; id++) {
+                    long userId = id;
+                    chargers.submit(() -> httpClient.send(request(primary + "/point/" + userId + "/charge", "1000"), HttpResponse.BodyHandlers.discarding()));
+                }
+            }
+            for (String node : readers) {
+                awaitCaughtUp(httpClient, primary, node);
+            }
+
+            AtomicLong completed = new AtomicLong();
+            long startedAt = System.nanoTime();
+            long deadline = startedAt + DURATION.toNanos();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CLIENTS; i++) {
+                    clients.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            String node = readers.get(random.nextInt(readers.size()));
+                            String path = "/point/" + random.nextInt(USERS) + (random.nextBoolean() ? "" : "/histories");
+                            try {
+                                HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(node + path)).timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() == 200) {
+                                    completed.incrementAndGet();
+                                }
+                            } catch (IOException e) {
+                                // 실패한 조회는 처리량에 넣지 않는다.
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            }
+                        }
+                    });
+                }
+            }
+            return completed.get() / ((System.nanoTime() - startedAt) / 1_000_000_000.0);
+        } finally {
+            processes.forEach(Process::destroy);
+            for (Process process : processes) {
+                process.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private String launch(List<Process> processes, String name, String... args) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path workDir = Files.createDirectories(tempDir.resolve(name));
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-Xmx512m",
+                "-cp", System.getProperty("java.class.path"), TddApplication.class.getName(),
+                "--server.port=" + port,
+                "--server.tomcat.max-connections=" + (CLIENTS + 100),
+                "--server.tomcat.accept-count=" + CLIENTS,
+                "--point.cache.enabled=false",
+                "--point.read.committed-snapshot=false",
+                "--point.journal.enabled=true",
+                "--point.snapshot.enabled=false",
+                "--point.history.retention.enabled=false"
+        ));
+        command.addAll(List.of(args));
+        processes.add(new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("node.log").toFile())
+                .start());
+        return "http://localhost:" + port;
+    }
+
+    private void awaitStarted(HttpClient httpClient, String node) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (httpClient.send(HttpRequest.newBuilder(URI.create(node + "/actuator/health")).build(), HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // 아직 기동 중
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("point node did not start: " + node);
+    }
+
+    private void awaitCaughtUp(HttpClient httpClient, String primary, String node) throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            long committed = status(httpClient, primary).appliedSequence();
+            PointReplicationStatus status = status(httpClient, node);
+            if (committed >= USERS && status.appliedSequence() == committed) {
+                return;
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("replica did not catch up: " + node);
+    }
+
+    private PointReplicationStatus status(HttpClient httpClient, String node) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(node + "/replication/status")).build(), HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readValue(response.body(), PointReplicationStatus.class);
+    }
+
+    private static HttpRequest request(String uri, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
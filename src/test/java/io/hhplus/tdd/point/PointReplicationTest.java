@@ -0,0 +1,245 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.hhplus.tdd.TddApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 원본/복제 노드
+ * - localhost 에 원본과 복제 노드를 띄우고, 원본의 충전/사용이 복제 노드의 잔액과 내역에 같은 순서로 반영되는지 확인한다.
+ * - 노드마다 저널 디렉터리를 따로 두고, snapshot 과 보관은 끈다. (복제 노드는 잔액 저장소가 PRIMITIVE 여야 하므로 모든 노드를 PRIMITIVE 로 띄운다)
+ */
+class PointReplicationTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        contexts.reversed().forEach(ConfigurableApplicationContext::close);
+    }
+
+    /**
+     * 원본에 동시에 들어온 충전/사용이 복제 노드에 모두 반영되고, 복제 노드는 조회에 지연을 헤더로 붙이며 충전/사용은 거절한다.
+     * 복제 노드를 재시작하면 자신의 저널로 복구하고 그다음 기록부터 이어서 받는다.
+     */
+    @Test
+    void 원본의_충전_사용이_복제_노드에_반영() throws Exception {
+        // given
+        String primary = start("primary", "point.replication.role=primary");
+        String replica = start("replica", "point.replication.role=replica", "point.replication.primary=" + primary, "point.replication.apply-threads=4");
+        int users = 10;
+        int threadCount = 8;
+        int requestsPerThread = 50;
+
+        // when
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            int idx = i;
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        long id = j % users;
+                        if (idx % 2 == 0) {
+                            send(primary, "PATCH", "/point/" + id + "/charge", "100");
+                        } else {
+                            send(primary, "PATCH", "/point/" + id + "/use", "10");
+                        }
+                    }
+                } catch (Exception ignored) {
+                    // 결과는 아래에서 원본과 비교한다.
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await(1, TimeUnit.MINUTES);
+        executorService.shutdown();
+        awaitCaughtUp(primary, replica);
+
+        // then
+        assertSameAsPrimary(primary, replica, users);
+        HttpResponse<String> read = send(replica, "GET", "/point/1", null);
+        assertThat(read.headers().firstValue(PointReplicaInterceptor.LAG_HEADER)).hasValue("0");
+        assertThat(read.headers().firstValue(PointReplicaInterceptor.LAG_MILLIS_HEADER)).isPresent();
+        assertThat(send(replica, "PATCH", "/point/1/charge", "100").statusCode()).isEqualTo(403);
+
+        // when - 복제 노드를 재시작하고 원본에 더 기록한다.
+        contexts.remove(1).close();
+        for (long id = 0; id < users; id++) {
+            send(primary, "PATCH", "/point/" + id + "/charge", "1");
+        }
+        replica = start("replica", "point.replication.role=replica", "point.replication.primary=" + primary, "point.replication.apply-threads=4");
+        awaitCaughtUp(primary, replica);
+
+        // then
+        assertSameAsPrimary(primary, replica, users);
+    }
+
+    /**
+     * 원본과 순번이 어긋난 기록을 받으면 복제를 멈추고, 그 이유를 상태로 알리며 조회도 거절한다.
+     */
+    @Test
+    void 순번이_어긋나면_복제_중지() throws Exception {
+        // given - 복제 노드의 저널은 비어 있는데 순번 5 부터 보내는 원본
+        HttpServer fakePrimary = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        fakePrimary.createContext("/replication/stream", exchange -> {
+            byte[] line = (objectMapper.writeValueAsString(new PointReplicationRecord(new PointHistory(5L, 1L, 100L, TransactionType.CHARGE, 1L), 5L)) + "\n").getBytes();
+            exchange.sendResponseHeaders(200, line.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(line);
+            }
+        });
+        fakePrimary.start();
+        try {
+            // when
+            String replica = start("replica", "point.replication.role=replica", "point.replication.primary=http://localhost:" + fakePrimary.getAddress().getPort());
+            PointReplicationStatus status = awaitFailed(replica);
+
+            // then
+            assertThat(status.failure()).contains("diverged");
+            assertThat(status.connected()).isFalse();
+            assertThat(send(replica, "GET", "/point/1", null).statusCode()).isEqualTo(503);
+        } finally {
+            fakePrimary.stop(0);
+        }
+    }
+
+    /**
+     * 원본보다 max-lag 건 넘게 뒤처지면 상태를 healthy=false 로 알리고 조회를 거절한다.
+     */
+    @Test
+    void 많이_뒤처지면_조회_거절() throws Exception {
+        // given - 기록 없이 자신의 순번만 알리는 원본 (복제 노드는 1,000 건 뒤처진 것으로 본다)
+        HttpServer fakePrimary = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        fakePrimary.createContext("/replication/stream", exchange -> {
+            byte[] line = (objectMapper.writeValueAsString(new PointReplicationRecord(null, 1_000L)) + "\n").getBytes();
+            exchange.sendResponseHeaders(200, line.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(line);
+            }
+        });
+        fakePrimary.start();
+        try {
+            // when
+            String replica = start("replica", "point.replication.role=replica", "point.replication.primary=http://localhost:" + fakePrimary.getAddress().getPort(), "point.replication.max-lag=100");
+            PointReplicationStatus status = awaitLagging(replica);
+
+            // then
+            assertThat(status.lag()).isEqualTo(1_000L);
+            assertThat(status.failure()).isNull();
+            assertThat(send(replica, "GET", "/point/1", null).statusCode()).isEqualTo(503);
+        } finally {
+            fakePrimary.stop(0);
+        }
+    }
+
+    private PointReplicationStatus awaitLagging(String replica) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            PointReplicationStatus status = objectMapper.readValue(send(replica, "GET", "/replication/status", null).body(), PointReplicationStatus.class);
+            if (!status.healthy()) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("replica did not report lagging");
+    }
+
+    private PointReplicationStatus awaitFailed(String replica) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            PointReplicationStatus status = objectMapper.readValue(send(replica, "GET", "/replication/status", null).body(), PointReplicationStatus.class);
+            if (status.failure() != null) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("replica did not stop on a diverged record");
+    }
+
+    private void assertSameAsPrimary(String primary, String replica, int users) throws Exception {
+        for (long id = 0; id < users; id++) {
+            UserPoint expected = objectMapper.readValue(send(primary, "GET", "/point/" + id, null).body(), UserPoint.class);
+            UserPoint actual = objectMapper.readValue(send(replica, "GET", "/point/" + id, null).body(), UserPoint.class);
+            assertThat(actual.point()).isEqualTo(expected.point());
+            assertThat(actual.updateMillis()).isEqualTo(expected.updateMillis());
+
+            List<PointHistory> expectedHistories = objectMapper.readValue(send(primary, "GET", "/point/" + id + "/histories", null).body(), new TypeReference<>() {
+            });
+            List<PointHistory> actualHistories = objectMapper.readValue(send(replica, "GET", "/point/" + id + "/histories", null).body(), new TypeReference<>() {
+            });
+            assertThat(actualHistories).isEqualTo(expectedHistories);
+        }
+    }
+
+    private void awaitCaughtUp(String primary, String replica) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            PointReplicationStatus primaryStatus = objectMapper.readValue(send(primary, "GET", "/replication/status", null).body(), PointReplicationStatus.class);
+            PointReplicationStatus replicaStatus = objectMapper.readValue(send(replica, "GET", "/replication/status", null).body(), PointReplicationStatus.class);
+            if (replicaStatus.connected() && replicaStatus.appliedSequence() == primaryStatus.appliedSequence()) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("replica did not catch up with primary");
+    }
+
+    private String start(String name, String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "server.port=0",
+                "point.journal.enabled=true",
+                "point.journal.directory=" + tempDir.resolve(name).resolve("journal"),
+                "point.snapshot.enabled=false",
+                "point.history.retention.enabled=false",
+                "point.lock.timeout=0",
+                "point.lock.max-waiters=0",
+                "point.store.type=primitive"
+        ));
+        all.addAll(List.of(properties));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TddApplication.class)
+                .properties(all.toArray(String[]::new))
+                .run();
+        contexts.add(context);
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private HttpResponse<String> send(String node, String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(node + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,84 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointSerialExecutorTest {
+
+    private final PointSerialExecutor serialExecutor = new PointSerialExecutor();
+
+    @AfterEach
+    void tearDown() {
+        serialExecutor.shutdown();
+    }
+
+    /**
+     * 같은 사용자의 작업은 등록 순서대로 실행되고, 앞선 작업이 실패해도 다음 작업은 실행된다.
+     */
+    @Test
+    void 사용자_별_등록_순서대로_실행() throws InterruptedException {
+        // given
+        long id = 1L;
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            int order = i;
+            results.add(serialExecutor.submit(id, () -> {
+                executed.add(order);
+                if (order == 50) {
+                    throw new IllegalStateException("fail");
+                }
+                return order;
+            }));
+        }
+        results.get(99).join();
+
+        // then
+        assertThat(executed).containsExactlyElementsOf(IntStream.range(0, 100).boxed().toList());
+        assertThat(results.get(50)).isCompletedExceptionally();
+
+        // 대기 중인 작업이 없으면 tail 이 제거된다. (tail 제거는 작업 완료 직후 비동기로 일어난다)
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (serialExecutor.size() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(serialExecutor.size()).isZero();
+    }
+
+    /**
+     * 다른 사용자의 작업은 앞 사용자의 작업이 끝나기를 기다리지 않는다.
+     */
+    @Test
+    void 다른_사용자는_서로_기다리지_않음() throws Exception {
+        // given
+        CountDownLatch blocker = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocked = serialExecutor.submit(1L, () -> {
+            try {
+                return blocker.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // when
+        Integer other = serialExecutor.submit(2L, () -> 2).get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(other).isEqualTo(2);
+        assertThat(blocked).isNotDone();
+        blocker.countDown();
+        assertThat(blocked.join()).isTrue();
+    }
+}
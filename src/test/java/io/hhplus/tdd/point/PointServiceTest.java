@@ -6,8 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +35,18 @@ class PointServiceTest {
     @Mock
     private ServiceLockFactory lockFactory;
 
+    @Mock
+    private PointCombiner pointCombiner;
+
+    @Mock
+    private PointMetrics pointMetrics;
+
+    @Mock
+    private HotUserTracker hotUserTracker;
+
+    @Spy
+    private PointWriteProperties writeProperties = new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1)));
+
     /**
      * 존재하지 않는 사용자
      */
@@ -123,6 +137,60 @@ class PointServiceTest {
                 );
     }
 
+    @Test
+    void 포인트_집계_조회_성공() {
+        // given
+        long id = 0L;
+        PointSummary expectedSummary = new PointSummary(id, 1000L, 700L, 2L, System.currentTimeMillis());
+
+        when(pointHistoryRepository.selectSummary(id))
+                .thenReturn(expectedSummary);
+
+        // when
+        PointSummary summary = pointService.getUserPointSummary(id);
+
+        // then
+        assertThat(summary).isEqualTo(expectedSummary);
+    }
+
+    /**
+     * 페이지 조회 개수가 범위를 벗어나면 예외 발생
+     */
+    @Test
+    void 포인트_내역_페이지_조회_실패() {
+        // given
+        long id = 0L;
+        PointHistoryQuery query = new PointHistoryQuery(0L, 0, null, null, null);
+
+        // when
+
+        // then
+        assertThatThrownBy(() -> pointService.getUserPointHistoryPage(id, query))
+                .isInstanceOf(PointException.class)
+                .hasMessage(PointErrorCode.HISTORY_LIMIT_OUT_OF_RANGE.getMessage());
+    }
+
+    @Test
+    void 포인트_내역_페이지_조회_성공() {
+        // given
+        long id = 0L;
+        PointHistoryQuery query = new PointHistoryQuery(0L, 1, null, null, TransactionType.CHARGE);
+        PointHistoryPage expectedPage = new PointHistoryPage(
+                List.of(new PointHistory(1L, id, 1000L, TransactionType.CHARGE, System.currentTimeMillis())),
+                PointHistoryCursor.encode(1L)
+        );
+
+        when(pointHistoryRepository.selectPage(id, query))
+                .thenReturn(expectedPage);
+
+        // when
+        PointHistoryPage page = pointService.getUserPointHistoryPage(id, query);
+
+        // then
+        assertThat(page.histories()).hasSize(1);
+        assertThat(PointHistoryCursor.decode(page.nextCursor())).isEqualTo(1L);
+    }
+
     /**
      * 충전금액이 0보다 작으면 예외 발생
      */
@@ -163,8 +231,8 @@ class PointServiceTest {
         long id = 0L;
         long amount = 100L;
 
-        when(lockFactory.getLock(id))
-                .thenReturn(new ReentrantLock());
+        when(lockFactory.acquire(id))
+                .thenReturn(lockedLock());
 
         when(pointRepository.selectById(id))
                 .thenReturn(Optional.empty());
@@ -174,6 +242,9 @@ class PointServiceTest {
         when(pointRepository.insertOrUpdate(any(UserPoint.class)))
                 .thenReturn(expectedUserPoint);
 
+        when(pointHistoryRepository.insert(any(PointHistory.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
         // when
         UserPoint userPoint = pointService.charge(id, amount);
 
@@ -183,6 +254,27 @@ class PointServiceTest {
         assertThat(userPoint.updateMillis()).isEqualTo(expectedUserPoint.updateMillis());
     }
 
+    /**
+     * 같은 사용자의 요청이 몰려 lock 을 잡지 못하면 POINT_BUSY 로 실패한다.
+     */
+    @Test
+    void 포인트_충전_요청_몰림_실패() {
+        // given
+        long id = 0L;
+        long amount = 100L;
+
+        when(lockFactory.acquire(id))
+                .thenThrow(new PointException(PointErrorCode.POINT_BUSY));
+
+        // when
+
+        // then
+        assertThatThrownBy(() -> pointService.charge(id, amount))
+                .isInstanceOf(PointException.class)
+                .hasMessage(PointErrorCode.POINT_BUSY.getMessage());
+        verify(pointMetrics).recordRejection(TransactionType.CHARGE, PointErrorCode.POINT_BUSY);
+    }
+
     /**
      * 사용금액이 0보다 작으면 예외 발생
      */
@@ -209,8 +301,8 @@ class PointServiceTest {
         long id = 0L;
         long amount = 100L;
 
-        when(lockFactory.getLock(id))
-                .thenReturn(new ReentrantLock());
+        when(lockFactory.acquire(id))
+                .thenReturn(lockedLock());
 
         // when
         when(pointRepository.selectById(id))
@@ -231,8 +323,8 @@ class PointServiceTest {
         long id = 0L;
         long amount = 100L;
 
-        when(lockFactory.getLock(id))
-                .thenReturn(new ReentrantLock());
+        when(lockFactory.acquire(id))
+                .thenReturn(lockedLock());
 
         // when
         UserPoint expectedPoint = new UserPoint(id, 50L, System.currentTimeMillis());
@@ -251,8 +343,8 @@ class PointServiceTest {
         long id = 0L;
         long amount = 100L;
 
-        when(lockFactory.getLock(id))
-                .thenReturn(new ReentrantLock());
+        when(lockFactory.acquire(id))
+                .thenReturn(lockedLock());
 
         // when
         UserPoint userPoint = new UserPoint(id, 1000L, System.currentTimeMillis());
@@ -260,6 +352,8 @@ class PointServiceTest {
                 .thenReturn(Optional.of(userPoint));
         when(pointRepository.insertOrUpdate(any(UserPoint.class)))
                 .thenReturn(userPoint.use(amount));
+        when(pointHistoryRepository.insert(any(PointHistory.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // then
         UserPoint usedPoint = pointService.use(id, amount);
@@ -267,6 +361,35 @@ class PointServiceTest {
         assertThat(usedPoint.point()).isEqualTo(userPoint.point() - amount);
     }
 
+    /**
+     * 내역(저널)을 저장하지 못하면 실패로 응답하고, 이미 저장한 잔액은 사용 전으로 되돌린다.
+     */
+    @Test
+    void 사용_내역_저장_실패시_잔액_복구() {
+        // given
+        long id = 0L;
+        long amount = 100L;
+        UserPoint userPoint = new UserPoint(id, 1000L, System.currentTimeMillis());
+
+        when(lockFactory.acquire(id))
+                .thenReturn(lockedLock());
+        when(pointRepository.selectById(id))
+                .thenReturn(Optional.of(userPoint));
+        when(pointRepository.insertOrUpdate(any(UserPoint.class)))
+                .thenReturn(userPoint.use(amount));
+        when(pointHistoryRepository.insert(any(PointHistory.class)))
+                .thenThrow(new PointException(PointErrorCode.JOURNAL_WRITE_FAILED));
+
+        // when
+
+        // then
+        assertThatThrownBy(() -> pointService.use(id, amount))
+                .isInstanceOf(PointException.class)
+                .hasMessage(PointErrorCode.JOURNAL_WRITE_FAILED.getMessage());
+        verify(pointRepository).insertOrUpdate(userPoint);
+        verify(pointHistoryRepository).release(1);
+    }
+
     @Test
     void 충전후_히스토리_저장() {
         // given
@@ -274,14 +397,16 @@ class PointServiceTest {
         long amount = 100L;
         UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
 
-        when(lockFactory.getLock(id))
-                .thenReturn(new ReentrantLock());
+        when(lockFactory.acquire(id))
+                .thenReturn(lockedLock());
 
         when(pointRepository.selectById(id))
                 .thenReturn(Optional.empty());
 
         when(pointRepository.insertOrUpdate(any(UserPoint.class)))
                 .thenReturn(userPoint);
+        when(pointHistoryRepository.insert(any(PointHistory.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // when
         pointService.charge(id, amount);
@@ -300,8 +425,8 @@ class PointServiceTest {
         UserPoint userPoint = new UserPoint(id, balance, System.currentTimeMillis());
         UserPoint expectedUserPoint = new UserPoint(id, balance - amount, System.currentTimeMillis());
 
-        when(lockFactory.getLock(id))
-                .thenReturn(new ReentrantLock());
+        when(lockFactory.acquire(id))
+                .thenReturn(lockedLock());
 
         when(pointRepository.selectById(id))
                 .thenReturn(Optional.of(userPoint));
@@ -309,6 +434,9 @@ class PointServiceTest {
         when(pointRepository.insertOrUpdate(any(UserPoint.class)))
                 .thenReturn(expectedUserPoint);
 
+        when(pointHistoryRepository.insert(any(PointHistory.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
         // when
         pointService.use(id, amount);
 
@@ -316,4 +444,11 @@ class PointServiceTest {
         verify(pointHistoryRepository)
                 .insert(PointHistory.createUseHistory(id, amount, userPoint.updateMillis()));
     }
-}
\ No newline at end of file
+
+    // acquire 는 lock 을 잡은 상태로 반환한다.
+    private static ReentrantLock lockedLock() {
+        ReentrantLock lock = new ReentrantLock();
+        lock.lock();
+        return lock;
+    }
+}
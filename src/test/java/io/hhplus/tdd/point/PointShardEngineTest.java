@@ -0,0 +1,170 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SHARDED 방식 충전/사용
+ */
+class PointShardEngineTest {
+
+    private static final int SHARDS = 4;
+
+    private RecordingTable userPointTable;
+    private PointServiceFixture fixture;
+    private PointHistoryRepository pointHistoryRepository;
+    private ServiceLockFactory lockFactory;
+    private PointShardEngine pointShardEngine;
+    private PointService pointService;
+
+    @BeforeEach
+    void setUp() {
+        userPointTable = new RecordingTable();
+        fixture = PointServiceFixture.builder()
+                .userPointTable(userPointTable)
+                .storeType(PointStoreProperties.Type.PRIMITIVE)
+                .cache(true, 1_000)
+                .batch(4, 1000)
+                .writeMode(PointWriteProperties.Mode.SHARDED)
+                .shards(SHARDS, 64)
+                .build();
+        pointHistoryRepository = fixture.pointHistoryRepository();
+        lockFactory = fixture.lockFactory();
+        pointShardEngine = fixture.pointShardEngine();
+        pointService = fixture.pointService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.shutdown();
+    }
+
+    /**
+     * 여러 사용자에게 충전/사용/일괄 처리가 동시에 몰려도 잔액과 내역이 맞고,
+     * 사용자의 잔액은 소유 shard 의 저장소에만 저장되며(UserPointTable 은 쓰지 않는다) 사용자 lock 은 만들어지지 않는다.
+     */
+    @Test
+    void 충전_사용_일괄처리_동시_요청() throws InterruptedException {
+        // given
+        int users = 16;
+        int threadCount = 8;
+        int requestsPerThread = 192;
+        for (long id = 0; id < users; id++) {
+            pointService.charge(id, 1_000_000L);
+        }
+
+        // when
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            int idx = i;
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        long id = j % users;
+                        switch (idx % 4) {
+                            case 0, 1 -> pointService.charge(id, 100L);
+                            case 2 -> pointService.use(id, 30L);
+                            default -> pointService.batch(List.of(PointCommand.charge(id, 7L), PointCommand.use(id, 3L)));
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await(1, TimeUnit.MINUTES);
+        executorService.shutdown();
+
+        // then
+        long perUser = requestsPerThread / users;
+        long expected = 1_000_000L + perUser * (4 * 100L - 2 * 30L + 2 * (7L - 3L));
+        for (long id = 0; id < users; id++) {
+            assertThat(pointService.getUserPoint(id).point()).isEqualTo(expected);
+            List<PointHistory> histories = pointHistoryRepository.selectAllByuserId(id);
+            assertThat(histories).hasSize(1 + (int) perUser * (4 + 2 + 2 * 2));
+            assertThat(new ArrayList<>(histories)).extracting(PointHistory::id).isSorted();
+        }
+        long[] expectedSizes = new long[SHARDS];
+        for (long id = 0; id < users; id++) {
+            expectedSizes[PointShardEngine.shardIndex(id, SHARDS)]++;
+        }
+        assertThat(fixture.pointRepository().balanceStore()).isInstanceOfSatisfying(ShardedBalanceStore.class,
+                store -> assertThat(store.sizes()).containsExactly(expectedSizes));
+        assertThat(userPointTable.writers).isEmpty();
+        assertThat(pointShardEngine.size()).isEqualTo(SHARDS);
+        assertThat(lockFactory.size()).isZero();
+    }
+
+    /**
+     * 잔액 부족은 요청한 스레드에 그대로 전달되고, 종료 후의 요청은 실패한다.
+     */
+    @Test
+    void 잔액_부족_실패와_종료_후_요청() {
+        // given
+        long id = 1L;
+        pointService.charge(id, 100L);
+
+        // when, then
+        assertThatThrownBy(() -> pointService.use(id, 500L))
+                .isInstanceOf(PointException.class)
+                .hasMessage(PointErrorCode.BALANCE_LESS_THAN_USE_AMOUNT.getMessage());
+        assertThat(pointService.use(id, 40L).point()).isEqualTo(60L);
+
+        pointShardEngine.shutdown();
+        assertThatThrownBy(() -> pointService.charge(id, 100L))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(pointService.getUserPoint(id).point()).isEqualTo(60L);
+    }
+
+    /**
+     * SHARDED 방식은 여러 shard 가 하나의 UserPointTable 에 저장하지 않도록 primitive 저장소에서만 만들 수 있다.
+     */
+    @Test
+    void 테이블_저장소로는_만들_수_없음() {
+        assertThatThrownBy(() -> PointServiceFixture.builder()
+                .writeMode(PointWriteProperties.Mode.SHARDED)
+                .build())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("point.store.type=primitive");
+    }
+
+    /**
+     * throttle 없이 저장한 스레드를 사용자 별로 기록하는 잔액 테이블
+     */
+    private static final class RecordingTable extends UserPointTable {
+
+        private final Map<Long, UserPoint> table = new ConcurrentHashMap<>();
+        private final Map<Long, Set<String>> writers = new ConcurrentHashMap<>();
+
+        @Override
+        public UserPoint selectById(Long id) {
+            return table.getOrDefault(id, UserPoint.empty(id));
+        }
+
+        @Override
+        public UserPoint insertOrUpdate(long id, long amount) {
+            writers.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+            UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+            table.put(id, userPoint);
+            return userPoint;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기동 시 잔액 복구 시간 (./gradlew loadTest 로 실행)
+ * - load.users(기본 10,000,000) 명이 한 번씩 충전한 뒤 스냅샷을 만들고, 그 이후 load.tail 건을 더 기록한다.
+ * - 저널 전체를 다시 읽어 잔액을 계산하는 경우와, 최신 스냅샷을 읽고 그 이후의 기록만 반영하는 경우를 비교한다.
+ * - 잔액만 비교한다. (내역은 스냅샷 파일에 함께 남지만, 인덱스를 채우는 시간은 두 경우 모두 내역 수에 비례한다)
+ */
+@Tag("load")
+class PointSnapshotStartupTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 10_000_000);
+    private static final int TAIL = Integer.getInteger("load.tail", 100_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 사용자_천만명_잔액_복구_시간() {
+        // given
+        PointJournal journal = journal();
+        long now = System.currentTimeMillis();
+        for (long id = 1; id <= USERS; id++) {
+            journal.append(PointHistory.createChargeHistory(id, 1_000L, now));
+        }
+        PointSnapshotter snapshotter = new PointSnapshotter(new PointSnapshotProperties(true, directory.resolve("snapshot"), Duration.ofMinutes(1), 2), journal, new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1))));
+        long snapshotStartedAt = System.nanoTime();
+        snapshotter.snapshot();
+        long snapshotMillis = (System.nanoTime() - snapshotStartedAt) / 1_000_000;
+        for (long i = 0; i < TAIL; i++) {
+            journal.append(PointHistory.createUseHistory(i % USERS + 1, 10L, now));
+        }
+        journal.close();
+
+        PointJournal restarted = journal();
+        PointSnapshotter restartedSnapshotter = new PointSnapshotter(new PointSnapshotProperties(true, directory.resolve("snapshot"), Duration.ofMinutes(1), 2), restarted, new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1))));
+
+        // when
+        long journalStartedAt = System.nanoTime();
+        PointSnapshot.Builder fromJournal = PointSnapshot.empty().toBuilder();
+        restarted.replay(fromJournal::apply);
+        int journalUsers = fromJournal.build().size();
+        long journalMillis = (System.nanoTime() - journalStartedAt) / 1_000_000;
+
+        long snapshotLoadStartedAt = System.nanoTime();
+        PointSnapshot latest = restartedSnapshotter.latest();
+        PointSnapshot.Builder fromSnapshot = latest.toBuilder();
+        restarted.replay(latest.sequence(), fromSnapshot::apply);
+        PointSnapshot recovered = fromSnapshot.build();
+        long snapshotLoadMillis = (System.nanoTime() - snapshotLoadStartedAt) / 1_000_000;
+
+        // then
+        System.out.printf("users=%d, tail=%d, snapshot write=%dms%n", USERS, TAIL, snapshotMillis);
+        System.out.printf("balance recovery - journal only: %dms, snapshot + tail: %dms%n", journalMillis, snapshotLoadMillis);
+        assertThat(journalUsers).isEqualTo(USERS);
+        assertThat(recovered.size()).isEqualTo(USERS);
+        assertThat(recovered.find(1L)).extracting(UserPoint::point).isEqualTo(990L);
+        assertThat(recovered.find(USERS)).extracting(UserPoint::point).isEqualTo(TAIL >= USERS ? 990L : 1_000L);
+        assertThat(snapshotLoadMillis).isLessThan(journalMillis);
+
+        restarted.close();
+    }
+
+    private PointJournal journal() {
+        PointJournal journal = new PointJournal(new PointJournalProperties(
+                true, directory.resolve("journal"), PointJournalProperties.FsyncPolicy.NONE, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5)));
+        journal.open();
+        return journal;
+    }
+}
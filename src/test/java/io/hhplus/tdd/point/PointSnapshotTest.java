@@ -0,0 +1,163 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 최신 스냅샷에 그 이후의 기록만 반영해 잔액을 복구하고, 복구 이후 저장된 사용자는 테이블의 값을 읽는다.
+     */
+    @Test
+    void 스냅샷과_이후_기록으로_잔액_복구() {
+        // given
+        PointJournal journal = journal();
+        journal.append(PointHistory.createChargeHistory(1L, 1_000L, 1L));
+        journal.append(PointHistory.createChargeHistory(2L, 500L, 2L));
+        long snapshotSequence = snapshotter(journal).snapshot();
+        journal.append(PointHistory.createUseHistory(1L, 300L, 3L));
+        journal.append(PointHistory.createChargeHistory(3L, 70L, 4L));
+        journal.close();
+
+        // when
+        PointJournal restarted = journal();
+        PointRepository pointRepository = new PointRepository(new UserPointTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100_000), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(false, 0, 0, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO),
+                restarted,
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        new PointJournalRecovery(restarted, snapshotter(restarted), pointRepository, pointHistoryRepository).recover();
+
+        // then
+        assertThat(snapshotSequence).isEqualTo(2L);
+        assertThat(pointRepository.selectById(1L)).map(UserPoint::point).hasValue(700L);
+        assertThat(pointRepository.selectById(2L)).map(UserPoint::point).hasValue(500L);
+        assertThat(pointRepository.selectById(3L)).map(UserPoint::point).hasValue(70L);
+        assertThat(pointHistoryRepository.selectAllByuserId(1L)).hasSize(2);
+
+        pointRepository.insertOrUpdate(new UserPoint(2L, 800L, 5L));
+        assertThat(pointRepository.selectById(2L)).map(UserPoint::point).hasValue(800L);
+
+        restarted.close();
+    }
+
+    /**
+     * 최신 스냅샷 파일이 깨져 있으면 이전 스냅샷을 읽는다.
+     */
+    @Test
+    void 최신_스냅샷이_깨지면_이전_스냅샷_사용() throws IOException {
+        // given
+        PointJournal journal = journal();
+        PointSnapshotter snapshotter = snapshotter(journal);
+        journal.append(PointHistory.createChargeHistory(1L, 100L, 1L));
+        snapshotter.snapshot();
+        journal.append(PointHistory.createChargeHistory(1L, 200L, 2L));
+        snapshotter.snapshot();
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory.resolve("snapshot"))) {
+            files = list.sorted().toList();
+        }
+        try (FileChannel channel = FileChannel.open(files.get(files.size() - 1), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 30L);
+        }
+
+        // when
+        PointSnapshot latest = snapshotter.latest();
+
+        // then
+        assertThat(files).hasSize(2);
+        assertThat(latest.sequence()).isEqualTo(1L);
+        assertThat(latest.find(1L)).extracting(UserPoint::point).isEqualTo(100L);
+
+        journal.close();
+    }
+
+    /**
+     * 스냅샷이 retain 개 쌓이면 가장 오래된 스냅샷까지의 저널 세그먼트를 지우고,
+     * 재시작하면 스냅샷의 내역과 집계에 그 이후의 저널 기록만 이어서 복구한다.
+     */
+    @Test
+    void 스냅샷이_덮은_세그먼트를_지우고_복구() throws IOException {
+        // given - 세그먼트 하나에 레코드 10개
+        DataSize segmentSize = DataSize.ofBytes(10L * PointJournal.RECORD_SIZE);
+        PointJournal journal = journal(segmentSize);
+        PointSnapshotter snapshotter = snapshotter(journal);
+        for (int i = 0; i < 25; i++) {
+            journal.append(PointHistory.createChargeHistory(1L, 10L, i));
+        }
+        snapshotter.snapshot();
+        for (int i = 0; i < 10; i++) {
+            journal.append(PointHistory.createUseHistory(1L, 5L, 100L + i));
+        }
+        snapshotter.snapshot();
+        journal.append(PointHistory.createChargeHistory(2L, 70L, 200L));
+        journal.close();
+
+        // when
+        PointJournal restarted = journal(segmentSize);
+        PointRepository pointRepository = new PointRepository(new UserPointTable(), new PointCacheProperties(false, 0), new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024), new PointReadProperties(true, 100_000), new PointWriteProperties(PointWriteProperties.Mode.LOCK, new PointWriteProperties.Optimistic(4, Duration.ofMillis(1))), new PointShardProperties(0, 256));
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                new PointHistoryTable(),
+                new HistoryWriteBehindProperties(false, 0, 0, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ZERO),
+                restarted,
+                new HistoryStoreProperties(HistoryStoreProperties.Type.LIST),
+                new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+        );
+        new PointJournalRecovery(restarted, snapshotter(restarted), pointRepository, pointHistoryRepository).recover();
+        PointHistory next = pointHistoryRepository.insert(PointHistory.createChargeHistory(2L, 1L, 300L));
+
+        // then
+        List<Path> segments;
+        try (Stream<Path> list = Files.list(directory.resolve("journal"))) {
+            segments = list.filter(path -> path.toString().endsWith(".journal")).toList();
+        }
+        assertThat(restarted.retiredSequence()).isEqualTo(20L);
+        assertThat(segments).hasSize(2);
+        assertThat(pointRepository.selectById(1L)).map(UserPoint::point).hasValue(200L);
+        assertThat(pointRepository.selectById(2L)).map(UserPoint::point).hasValue(70L);
+        assertThat(pointHistoryRepository.selectAllByuserId(1L)).extracting(PointHistory::id)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 35).boxed().toList());
+        assertThat(pointHistoryRepository.selectSummary(1L)).isEqualTo(new PointSummary(1L, 250L, 50L, 35L, 109L));
+        assertThat(next.id()).isEqualTo(37L);
+
+        restarted.close();
+    }
+
+    private PointJournal journal() {
+        return journal(DataSize.ofKilobytes(64));
+    }
+
+    private PointJournal journal(DataSize segmentSize) {
+        PointJournal journal = new PointJournal(new PointJournalProperties(
+                true, directory.resolve("journal"), PointJournalProperties.FsyncPolicy.NONE, Duration.ofMillis(5), segmentSize, Duration.ofSeconds(5)));
+        journal.open();
+        return journal;
+    }
+
+    private PointSnapshotter snapshotter(PointJournal journal) {
+        return new PointSnapshotter(new PointSnapshotProperties(true, directory.resolve("snapshot"), Duration.ofMinutes(1), 2), journal, new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1))));
+    }
+}
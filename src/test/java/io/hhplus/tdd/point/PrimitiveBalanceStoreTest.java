@@ -0,0 +1,99 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrimitiveBalanceStoreTest {
+
+    /**
+     * 저장된 적 없는 사용자는 잔액 0 으로 조회되고, 저장한 잔액은 다시 저장하면 덮어쓴다.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void 잔액_저장_조회(boolean offHeap) {
+        // given
+        PrimitiveBalanceStore store = new PrimitiveBalanceStore(16, offHeap);
+
+        // when
+        store.insertOrUpdate(1L, 1_000L);
+        store.insertOrUpdate(1L, 700L);
+        store.insertOrUpdate(0L, 10L);
+        store.insertOrUpdate(Long.MIN_VALUE, 20L);
+
+        // then
+        assertThat(store.selectById(1L).point()).isEqualTo(700L);
+        assertThat(store.selectById(0L).point()).isEqualTo(10L);
+        assertThat(store.selectById(Long.MIN_VALUE).point()).isEqualTo(20L);
+        assertThat(store.selectById(2L)).isEqualTo(UserPoint.empty(2L));
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    /**
+     * 초기 용량을 넘게 저장해도 구간 별로 늘어나며 기존 잔액을 잃지 않는다.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void 초기_용량을_넘으면_늘어남(boolean offHeap) {
+        // given
+        PrimitiveBalanceStore store = new PrimitiveBalanceStore(16, offHeap);
+        long initialBytes = store.capacityBytes();
+        int users = 100_000;
+
+        // when
+        for (long id = 1; id <= users; id++) {
+            store.insertOrUpdate(id, id * 10);
+        }
+
+        // then
+        assertThat(store.size()).isEqualTo(users);
+        assertThat(store.capacityBytes()).isGreaterThan(initialBytes);
+        for (long id = 1; id <= users; id++) {
+            assertThat(store.selectById(id).point()).isEqualTo(id * 10);
+        }
+    }
+
+    /**
+     * 여러 스레드가 저장과 늘리기를 하는 중에 읽어도, 저장된 적 있는 사용자의 잔액이 0 이나 다른 사용자의 값으로 보이지 않는다.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void 동시에_저장하고_조회(boolean offHeap) throws InterruptedException {
+        // given
+        PrimitiveBalanceStore store = new PrimitiveBalanceStore(16, offHeap);
+        int threadCount = 8;
+        int usersPerThread = 20_000;
+        boolean[] mismatch = {false};
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        // when
+        for (int t = 0; t < threadCount; t++) {
+            long base = (long) t * usersPerThread;
+            executorService.submit(() -> {
+                try {
+                    for (long id = base + 1; id <= base + usersPerThread; id++) {
+                        store.insertOrUpdate(id, id);
+                        if (store.selectById(id).point() != id || store.selectById(base + 1).point() != base + 1) {
+                            mismatch[0] = true;
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // then
+        assertThat(mismatch[0]).isFalse();
+        assertThat(store.size()).isEqualTo((long) threadCount * usersPerThread);
+    }
+}
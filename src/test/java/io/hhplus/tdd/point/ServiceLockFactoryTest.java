@@ -0,0 +1,145 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.exception.PointErrorCode;
+import io.hhplus.tdd.exception.PointException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServiceLockFactoryTest {
+
+    @Test
+    void STRIPED_lock_개수는_고정() {
+        // given
+        ServiceLockFactory lockFactory = new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.STRIPED, 1000, false, Duration.ZERO, 0));
+
+        // when
+        for (long id = 0; id < 10_000; id++) {
+            lockFactory.getLock(id);
+        }
+
+        // then
+        assertThat(lockFactory.size()).isEqualTo(1024);
+        assertThat(lockFactory.getLock(1L)).isSameAs(lockFactory.getLock(1L));
+    }
+
+    /**
+     * lock 개수는 stripes 이상인 가장 작은 2의 거듭제곱이다. (1 과 2의 거듭제곱은 그대로)
+     */
+    @Test
+    void STRIPED_lock_개수_올림() {
+        assertThat(stripedLockCount(1)).isEqualTo(1);
+        assertThat(stripedLockCount(2)).isEqualTo(2);
+        assertThat(stripedLockCount(3)).isEqualTo(4);
+        assertThat(stripedLockCount(64)).isEqualTo(64);
+        assertThat(stripedLockCount(65)).isEqualTo(128);
+    }
+
+    private static int stripedLockCount(int stripes) {
+        return new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.STRIPED, stripes, false, Duration.ZERO, 0)).size();
+    }
+
+    /**
+     * 잡고 있거나 기다리는 스레드가 없으면 lock 이 제거된다.
+     */
+    @Test
+    void REF_COUNTED_lock_해제후_제거() throws InterruptedException {
+        // given
+        ServiceLockFactory lockFactory = new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.REF_COUNTED, 0, false, Duration.ZERO, 0));
+        long id = 1L;
+        int threadCount = 20;
+        int[] counter = {0};
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        // when
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                Lock lock = lockFactory.getLock(id);
+                lock.lock();
+                try {
+                    counter[0]++;
+                } finally {
+                    lock.unlock();
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // then
+        assertThat(counter[0]).isEqualTo(threadCount);
+        assertThat(lockFactory.size()).isZero();
+    }
+
+    @Test
+    void REF_COUNTED_tryLock_실패시_참조_반납() {
+        // given
+        ServiceLockFactory lockFactory = new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.REF_COUNTED, 0, false, Duration.ZERO, 0));
+        Lock holder = lockFactory.getLock(1L);
+        holder.lock();
+
+        // when
+        boolean acquired = tryLockInOtherThread(lockFactory);
+        holder.unlock();
+
+        // then
+        assertThat(acquired).isFalse();
+        assertThat(lockFactory.size()).isZero();
+    }
+
+    /**
+     * 대기 스레드가 maxWaiters 개면 기다리지 않고, timeout 안에 잡지 못하면 POINT_BUSY 로 실패한다. (참조도 반납된다)
+     */
+    @Test
+    void 대기_스레드_수와_대기_시간_제한() throws InterruptedException {
+        // given
+        ServiceLockFactory lockFactory = new ServiceLockFactory(new ServiceLockProperties(ServiceLockProperties.Strategy.REF_COUNTED, 0, true, Duration.ofMillis(500), 1));
+        Lock holder = lockFactory.acquire(1L);
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            waiting.countDown();
+            assertThatThrownBy(() -> lockFactory.acquire(1L)).hasMessage(PointErrorCode.POINT_BUSY.getMessage());
+        });
+        waiter.start();
+        waiting.await();
+        while (lockFactory.waitingThreads(1).isEmpty() && waiter.isAlive()) {
+            Thread.onSpinWait();
+        }
+
+        // when
+        long startedAt = System.nanoTime();
+        CompletableFuture<Lock> rejected = CompletableFuture.supplyAsync(() -> lockFactory.acquire(1L));
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(PointException.class)
+                .cause().hasMessage(PointErrorCode.POINT_BUSY.getMessage());
+        long rejectedNanos = System.nanoTime() - startedAt;
+        waiter.join();
+        holder.unlock();
+
+        // then
+        assertThat(rejectedNanos).isLessThan(Duration.ofMillis(250).toNanos());
+        assertThat(lockFactory.size()).isZero();
+    }
+
+    private boolean tryLockInOtherThread(ServiceLockFactory lockFactory) {
+        boolean[] acquired = {true};
+        Thread thread = new Thread(() -> acquired[0] = lockFactory.getLock(1L).tryLock());
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return acquired[0];
+    }
+}
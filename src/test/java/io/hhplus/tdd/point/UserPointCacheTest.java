@@ -0,0 +1,29 @@
+package io.hhplus.tdd.point;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPointCacheTest {
+
+    /**
+     * 저장소를 읽는 사이 새 값이 저장되었다가 제거되면, 늦게 채우려는 이전 값은 채우지 않는다.
+     */
+    @Test
+    void 조회_미스_사이_쓰기가_있으면_채우지_않음() {
+        // given - segment 마다 1 명 (1 과 17 은 같은 segment)
+        UserPointCache cache = new UserPointCache(16);
+        long stamp = cache.writeStamp(1L);
+        UserPoint stale = new UserPoint(1L, 100L, 1L);
+
+        // when
+        cache.put(new UserPoint(1L, 200L, 2L));
+        cache.put(new UserPoint(17L, 300L, 3L));
+        cache.putIfAbsent(stale, stamp);
+
+        // then
+        assertThat(cache.get(1L)).isNull();
+        cache.putIfAbsent(new UserPoint(1L, 200L, 2L), cache.writeStamp(1L));
+        assertThat(cache.get(1L).point()).isEqualTo(200L);
+    }
+}
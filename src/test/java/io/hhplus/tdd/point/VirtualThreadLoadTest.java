@@ -0,0 +1,107 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.TddApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 가상 스레드 모드 부하 테스트 (./gradlew loadTest 로 실행)
+ * - 동시 접속 클라이언트(load.clients, 기본 10,000)가 load.duration-seconds 동안 GET /point/{id} 를 반복 호출한다.
+ * - 캐시를 끄고 매 요청이 UserPointTable 의 throttle 에서 잠들게 해서, 요청 처리 스레드 수가 처리량을 결정하게 한다.
+ * - 기존 플랫폼 스레드 설정과 가상 스레드 설정의 초당 처리량과 p99 응답시간을 비교한다.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 10_000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration-seconds", 20));
+
+    @Test
+    void 플랫폼_스레드_vs_가상_스레드() throws Exception {
+        // given, when
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        // then
+        System.out.printf("platform threads : %s%n", platform);
+        System.out.printf("virtual threads  : %s%n", virtual);
+        assertThat(virtual.rps()).isGreaterThan(platform.rps());
+    }
+
+    private LoadResult run(boolean virtualThreads) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TddApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (CLIENTS + 100),
+                        "server.tomcat.accept-count=" + CLIENTS,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "point.cache.enabled=false",
+                        "point.journal.enabled=false"
+                )
+                .run();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        // 클라이언트 작업이 모두 끝난 뒤에 HttpClient 가 닫히도록 선언 순서를 둔다. (try-with-resources 는 역순으로 닫는다)
+        try (HttpClient httpClient = HttpClient.newHttpClient();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long id = ThreadLocalRandom.current().nextLong(100_000);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + id))
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.add((System.nanoTime() - start) / 1_000_000);
+                            } else {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        } finally {
+            context.close();
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.isEmpty() ? -1 : sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        return new LoadResult(sorted.size() / (double) DURATION.toSeconds(), p99, failures.get());
+    }
+
+    private record LoadResult(double rps, long p99Millis, long failures) {
+
+        @Override
+        public String toString() {
+            return String.format("%.1f req/s, p99 %dms, failures %d", rps, p99Millis, failures);
+        }
+    }
+}
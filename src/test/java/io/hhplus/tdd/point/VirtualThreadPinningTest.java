@@ -0,0 +1,55 @@
+package io.hhplus.tdd.point;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 가상 스레드에서 충전/사용을 처리할 때 carrier 스레드가 pin 되지 않는지 확인한다.
+ * (synchronized 안에서 테이블 throttle 로 잠들면 jdk.VirtualThreadPinned 이벤트가 발생한다)
+ */
+class VirtualThreadPinningTest {
+
+    @ParameterizedTest
+    @EnumSource(PointWriteProperties.Mode.class)
+    void 가상_스레드_pinning_없음(PointWriteProperties.Mode mode) throws Exception {
+        // given
+        PointServiceFixture fixture = PointServiceFixture.builder()
+                .cache(true, 1_000)
+                .lock(new ServiceLockProperties(ServiceLockProperties.Strategy.REF_COUNTED, 0, false, Duration.ZERO, 0))
+                .writeMode(mode)
+                .build();
+        PointService pointService = fixture.pointService();
+
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+
+        // when
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+            recording.startAsync();
+
+            try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 20; i++) {
+                    long id = i % 5;
+                    executorService.submit(() -> pointService.charge(id, 100L));
+                    executorService.submit(() -> pointService.getUserPointHistory(id));
+                }
+            }
+        } finally {
+            fixture.shutdown();
+        }
+
+        // then
+        assertThat(pinnedEvents).isEmpty();
+    }
+}
@@ -0,0 +1,157 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 테스트와 벤치마크에서 쓰는 PointService 조립
+ * - 저널, 보관(archive)은 끄고 write-behind 는 켠 설정을 기본으로 하며, 필요한 설정만 builder 로 바꾼다.
+ * - 내역 저장소는 조립하면서 start 하므로, 다 쓰면 shutdown 을 호출한다.
+ */
+public record PointServiceFixture(
+        PointService pointService,
+        PointRepository pointRepository,
+        PointHistoryRepository pointHistoryRepository,
+        ServiceLockFactory lockFactory,
+        PointCombiner pointCombiner,
+        PointBatchProcessor pointBatchProcessor,
+        PointMetrics pointMetrics,
+        HotUserTracker hotUserTracker,
+        PointShardEngine pointShardEngine
+) {
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void shutdown() {
+        pointShardEngine.shutdown();
+        pointBatchProcessor.shutdown();
+        pointHistoryRepository.shutdown();
+    }
+
+    public static final class Builder {
+
+        private UserPointTable userPointTable = new UserPointTable();
+        private PointCacheProperties cacheProperties = new PointCacheProperties(false, 0);
+        private PointStoreProperties storeProperties = new PointStoreProperties(PointStoreProperties.Type.TABLE, false, 1024);
+        private PointReadProperties readProperties = new PointReadProperties(true, 100_000);
+        private PointHistoryTable pointHistoryTable = new PointHistoryTable();
+        private HistoryWriteBehindProperties writeBehindProperties = new HistoryWriteBehindProperties(true, 10_000, 100, HistoryWriteBehindProperties.Backpressure.BLOCK, Duration.ofMillis(1));
+        private HistoryStoreProperties.Type historyStoreType = HistoryStoreProperties.Type.LIST;
+        private ServiceLockProperties lockProperties = new ServiceLockProperties(ServiceLockProperties.Strategy.PER_KEY, 0, false, Duration.ZERO, 0);
+        private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private PointBatchProperties batchProperties = new PointBatchProperties(1, 1);
+        private PointWriteProperties.Mode writeMode = PointWriteProperties.Mode.LOCK;
+        private PointWriteProperties.Optimistic optimistic = new PointWriteProperties.Optimistic(4, Duration.ofMillis(1));
+        private HotUserProperties hotUserProperties = new HotUserProperties(4, 4096, Duration.ofSeconds(1), 0.01, 100, 100);
+        private PointShardProperties shardProperties = new PointShardProperties(0, 256);
+
+        private Builder() {
+        }
+
+        public Builder userPointTable(UserPointTable userPointTable) {
+            this.userPointTable = userPointTable;
+            return this;
+        }
+
+        public Builder cache(boolean enabled, int maximumSize) {
+            this.cacheProperties = new PointCacheProperties(enabled, maximumSize);
+            return this;
+        }
+
+        public Builder storeType(PointStoreProperties.Type type) {
+            this.storeProperties = new PointStoreProperties(type, false, 1024);
+            return this;
+        }
+
+        public Builder committedSnapshot(boolean committedSnapshot) {
+            this.readProperties = new PointReadProperties(committedSnapshot, 100_000);
+            return this;
+        }
+
+        public Builder pointHistoryTable(PointHistoryTable pointHistoryTable) {
+            this.pointHistoryTable = pointHistoryTable;
+            return this;
+        }
+
+        public Builder writeBehind(HistoryWriteBehindProperties writeBehindProperties) {
+            this.writeBehindProperties = writeBehindProperties;
+            return this;
+        }
+
+        public Builder historyStoreType(HistoryStoreProperties.Type historyStoreType) {
+            this.historyStoreType = historyStoreType;
+            return this;
+        }
+
+        public Builder lock(ServiceLockProperties lockProperties) {
+            this.lockProperties = lockProperties;
+            return this;
+        }
+
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public Builder batch(int parallelism, int maxSize) {
+            this.batchProperties = new PointBatchProperties(parallelism, maxSize);
+            return this;
+        }
+
+        public Builder writeMode(PointWriteProperties.Mode writeMode) {
+            this.writeMode = writeMode;
+            return this;
+        }
+
+        public Builder optimistic(int maxAttempts, Duration maxBackoff) {
+            this.optimistic = new PointWriteProperties.Optimistic(maxAttempts, maxBackoff);
+            return this;
+        }
+
+        public Builder shards(int shards, int maxDrain) {
+            this.shardProperties = new PointShardProperties(shards, maxDrain);
+            return this;
+        }
+
+        public PointServiceFixture build() {
+            PointWriteProperties writeProperties = new PointWriteProperties(writeMode, optimistic);
+            PointRepository pointRepository = new PointRepository(userPointTable, cacheProperties, storeProperties, readProperties, writeProperties, shardProperties);
+            PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(
+                    pointHistoryTable,
+                    writeBehindProperties,
+                    new PointJournal(new PointJournalProperties(false, Path.of("data/journal"), PointJournalProperties.FsyncPolicy.GROUP, Duration.ofMillis(5), DataSize.ofMegabytes(64), Duration.ofSeconds(5))),
+                    new HistoryStoreProperties(historyStoreType),
+                    new PointHistoryArchive(new HistoryRetentionProperties(false, Path.of("data/archive"), Duration.ofDays(30), Duration.ofHours(1)))
+            );
+            pointHistoryRepository.start();
+            ServiceLockFactory lockFactory = new ServiceLockFactory(lockProperties);
+            PointMetrics pointMetrics = new PointMetrics(meterRegistry, lockFactory, new PointMetricsProperties(10, Duration.ofSeconds(10)));
+            PointCombiner pointCombiner = new PointCombiner(pointRepository, pointHistoryRepository, lockFactory, pointMetrics);
+            PointBatchProcessor pointBatchProcessor = new PointBatchProcessor(pointCombiner, lockFactory, batchProperties);
+            HotUserTracker hotUserTracker = new HotUserTracker(hotUserProperties);
+            PointShardEngine pointShardEngine = new PointShardEngine(pointCombiner, pointHistoryRepository, shardProperties);
+            PointService pointService = new PointService(
+                    pointRepository,
+                    pointHistoryRepository,
+                    lockFactory,
+                    pointCombiner,
+                    writeProperties,
+                    new PointSerialExecutor(),
+                    pointBatchProcessor,
+                    pointMetrics,
+                    hotUserTracker,
+                    pointShardEngine
+            );
+            return new PointServiceFixture(pointService, pointRepository, pointHistoryRepository, lockFactory, pointCombiner,
+                    pointBatchProcessor, pointMetrics, hotUserTracker, pointShardEngine);
+        }
+    }
+}